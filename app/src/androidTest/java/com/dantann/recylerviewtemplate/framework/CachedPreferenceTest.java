@@ -0,0 +1,102 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+/**
+ * Compares cached preference reads with reading and parsing from {@link SharedPreferences} on every read.
+ */
+public class CachedPreferenceTest extends InstrumentationTestCase {
+
+    private static final String TAG = "CachedPreferenceTest";
+    private static final int READ_COUNT = 100000;
+
+    private enum Mode {
+        LIST, GRID
+    }
+
+    private SharedPreferences mPreferences;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPreferences = getInstrumentation().getTargetContext()
+                .getSharedPreferences("cached_preference_test", Context.MODE_PRIVATE);
+        mPreferences.edit().clear().putString("count", "42").putString("mode", "GRID").putInt("int", 42).commit();
+    }
+
+    public void testCachedReads_fasterThanParsing() throws Exception {
+        IntPreference intPreference = new IntPreference(mPreferences, "int", 0);
+        EnumPreference<Mode> modePreference = new EnumPreference<>(mPreferences, "mode", Mode.class, Mode.LIST);
+
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < READ_COUNT; i++) {
+            sum += Integer.parseInt(mPreferences.getString("count", "0"));
+            sum += Mode.valueOf(mPreferences.getString("mode", "LIST")).ordinal();
+        }
+        long uncachedNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < READ_COUNT; i++) {
+            sum += intPreference.getInt();
+            sum += modePreference.get().ordinal();
+        }
+        long cachedNanos = System.nanoTime() - start;
+
+        Log.d(TAG, READ_COUNT + " reads: uncached= " + uncachedNanos / READ_COUNT + "ns/read, cached= "
+                + cachedNanos / READ_COUNT + "ns/read (" + sum + ")");
+        assertTrue(cachedNanos < uncachedNanos);
+    }
+
+    public void testExternalWrite_invalidatesCache() throws Exception {
+        IntPreference preference = new IntPreference(mPreferences, "int", 0);
+        assertEquals(42, preference.getInt());
+
+        preference.set(7);
+        assertEquals(7, preference.getInt());
+        assertTrue(preference.isSet());
+        preference.flush();
+
+        // listeners are notified on the main thread
+        mPreferences.edit().putInt("int", 9).commit();
+        getInstrumentation().waitForIdleSync();
+        assertEquals(9, preference.getInt());
+
+        preference.delete();
+        assertEquals(0, preference.getInt());
+        preference.flush();
+        assertFalse(mPreferences.contains("int"));
+    }
+
+    public void testOwnWrite_keepsCachedValue() throws Exception {
+        CountingIntPreference preference = new CountingIntPreference(mPreferences, "int", 0);
+        preference.set(7);
+        preference.flush();
+        // the commit notifies on the main thread, with the value that is already cached
+        getInstrumentation().waitForIdleSync();
+
+        preference.mReadCount = 0;
+        assertEquals(7, preference.getInt());
+        assertEquals(0, preference.mReadCount);
+    }
+
+    /**
+     * Counts the reads that go to the preferences
+     */
+    private static class CountingIntPreference extends IntPreference {
+        volatile int mReadCount;
+
+        CountingIntPreference(SharedPreferences preferences, String key, int defaultValue) {
+            super(preferences, key, defaultValue);
+        }
+
+        @Override
+        protected Integer read(PreferenceWriter writer, String key, Integer defaultValue) {
+            mReadCount++;
+            return super.read(writer, key, defaultValue);
+        }
+    }
+}
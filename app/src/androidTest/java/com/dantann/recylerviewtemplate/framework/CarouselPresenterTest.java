@@ -0,0 +1,176 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Scrolls through a feed of 200 carousels and measures child inflations and bind latency.
+ */
+public class CarouselPresenterTest extends InstrumentationTestCase {
+
+    private static final String TAG = "CarouselPresenterTest";
+    private static final int ROW_COUNT = 200;
+    private static final int CHILD_COUNT = 20;
+    private static final int WIDTH = 100;
+    private static final int HEIGHT = 200;
+    private static final int ROW_HEIGHT = 20;
+    private static final int CHILD_WIDTH = 10;
+
+    @UiThreadTest
+    public void testFlingThroughFeed_sharesChildHolders() throws Exception {
+        TestCarouselPresenter carouselPresenter = new TestCarouselPresenter();
+        PresenterMetrics childMetrics = new PresenterMetrics();
+        carouselPresenter.setChildMetrics(childMetrics);
+
+        FeedAdapter feedAdapter = new FeedAdapter(carouselPresenter);
+        RecyclerView feed = new RecyclerView(getInstrumentation().getTargetContext());
+        feed.setLayoutManager(new LinearLayoutManager(getInstrumentation().getTargetContext()));
+        feed.setAdapter(feedAdapter);
+        layout(feed);
+
+        for (int i = 0; i < ROW_COUNT * ROW_HEIGHT / 10; i++) {
+            feed.scrollBy(0, 10);
+        }
+
+        PresenterViewPool childPool = carouselPresenter.getChildViewPool();
+        LatencyHistogram binds = childMetrics.getHistogram(childPool.getViewType(ChildPresenter.class),
+                PresenterMetrics.PHASE_BIND);
+        Log.d(TAG, "Child inflations= " + childPool.getMissCount() + ", pool hits= " + childPool.getHitCount()
+                + ", binds= " + binds.getCount() + ", bind p50= " + binds.getPercentileNanos(50)
+                + "ns, p99= " + binds.getPercentileNanos(99) + "ns");
+
+        int visibleChildren = (HEIGHT / ROW_HEIGHT + 2) * (WIDTH / CHILD_WIDTH + 1);
+        assertTrue(childPool.getMissCount() < binds.getCount());
+        assertTrue(childPool.getMissCount() <= visibleChildren * 2);
+    }
+
+    @UiThreadTest
+    public void testScrollState_restoredForSameItem() throws Exception {
+        TestCarouselPresenter carouselPresenter = new TestCarouselPresenter();
+        RecyclerView parent = new RecyclerView(getInstrumentation().getTargetContext());
+        Row row = new Row(7);
+
+        BaseViewHolder holder = carouselPresenter.onCreateViewHolder(parent, 0);
+        carouselPresenter.onBindViewHolder(holder, row);
+        RecyclerView child = ((CarouselViewHolder) holder).getRecyclerView();
+        layout(child);
+        child.scrollToPosition(10);
+        layout(child);
+        carouselPresenter.onUnbindViewHolder(holder);
+
+        carouselPresenter.onBindViewHolder(holder, new Row(8));
+        layout(child);
+        assertEquals(0, ((LinearLayoutManager) child.getLayoutManager()).findFirstVisibleItemPosition());
+
+        carouselPresenter.onBindViewHolder(holder, row);
+        layout(child);
+        assertTrue(((LinearLayoutManager) child.getLayoutManager()).findFirstVisibleItemPosition() > 0);
+    }
+
+    private static void layout(RecyclerView recyclerView) {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static final class Row implements Identifiable {
+        private final long mId;
+
+        Row(long id) {
+            mId = id;
+        }
+
+        @Override
+        public long getStableId() {
+            return mId;
+        }
+    }
+
+    private static final class TestCarouselPresenter extends CarouselPresenter<Row, ChildAdapter> {
+
+        @Override
+        protected CarouselViewHolder<Row, ChildAdapter> onCreateCarouselViewHolder(ViewGroup parent) {
+            RecyclerView recyclerView = new RecyclerView(parent.getContext());
+            recyclerView.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+            return new CarouselViewHolder<>(recyclerView, recyclerView);
+        }
+
+        @Override
+        protected ChildAdapter onCreateChildAdapter(PresenterViewPool childViewPool) {
+            ChildAdapter adapter = new ChildAdapter();
+            adapter.mViewType = childViewPool.addPresenter(adapter, new ChildPresenter());
+            return adapter;
+        }
+
+        @Override
+        protected void onBindChildAdapter(ChildAdapter adapter, Row model) {
+            adapter.notifyDataSetChanged();
+        }
+    }
+
+    private static final class ChildPresenter implements ViewHolderPresenter<Object> {
+        @Override
+        public BaseViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(CHILD_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT));
+            return new BaseViewHolder<>(view);
+        }
+
+        @Override
+        public void onBindViewHolder(BaseViewHolder holder, Object model) {
+        }
+
+        @Override
+        public void onUnbindViewHolder(BaseViewHolder holder) {
+        }
+    }
+
+    private static final class ChildAdapter extends PresenterAdapter {
+        int mViewType;
+
+        @Nullable
+        @Override
+        public Object getDataForPosition(int position) {
+            return position;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return mViewType;
+        }
+
+        @Override
+        public int getItemCount() {
+            return CHILD_COUNT;
+        }
+    }
+
+    private static final class FeedAdapter extends PresenterAdapter {
+
+        FeedAdapter(TestCarouselPresenter presenter) {
+            addViewTypePresenter(0, presenter);
+        }
+
+        @Nullable
+        @Override
+        public Object getDataForPosition(int position) {
+            return new Row(position);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return 0;
+        }
+
+        @Override
+        public int getItemCount() {
+            return ROW_COUNT;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.graphics.Rect;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Lays out and scrolls a grid of 10k items with {@link GridSpacingItemDecoration}, and compares the layout pass
+ * time with a decoration querying the span group of each item from the {@link GridLayoutManager.SpanSizeLookup}.
+ */
+public class GridSpacingItemDecorationTest extends InstrumentationTestCase {
+
+    private static final String TAG = "GridSpacingItemDecorationTest";
+    private static final int ITEM_COUNT = 10000;
+    private static final int SPAN_COUNT = 3;
+    private static final int HEADER_INTERVAL = 10;
+    private static final int SPACING = 12;
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 400;
+    private static final int ITEM_HEIGHT = 20;
+
+    @UiThreadTest
+    public void testOffsets_equalGutters() throws Exception {
+        RecyclerView grid = createGrid(new GridSpacingItemDecoration(SPACING, 0));
+        layout(grid);
+        GridLayoutManager layoutManager = (GridLayoutManager) grid.getLayoutManager();
+
+        // position 0 is a header, positions 1 to 3 the spans of the first row below it
+        View header = layoutManager.findViewByPosition(0);
+        assertEquals(0, layoutManager.getLeftDecorationWidth(header));
+        assertEquals(0, layoutManager.getRightDecorationWidth(header));
+        assertEquals(0, layoutManager.getTopDecorationHeight(header));
+        int[] expectedLeft = {0, 4, 8};
+        int[] expectedRight = {8, 4, 0};
+        for (int span = 0; span < SPAN_COUNT; span++) {
+            View item = layoutManager.findViewByPosition(1 + span);
+            assertEquals(expectedLeft[span], layoutManager.getLeftDecorationWidth(item));
+            assertEquals(expectedRight[span], layoutManager.getRightDecorationWidth(item));
+            assertEquals(SPACING, layoutManager.getTopDecorationHeight(item));
+            assertEquals((WIDTH - 2 * SPACING) / SPAN_COUNT, item.getWidth());
+        }
+    }
+
+    @UiThreadTest
+    public void testOffsets_viewTypeOverride() throws Exception {
+        GridSpacingItemDecoration decoration = new GridSpacingItemDecoration(SPACING);
+        decoration.setViewTypeOffsets(GridAdapter.TYPE_HEADER, 0, 0, 0, 0);
+        RecyclerView grid = createGrid(decoration);
+        layout(grid);
+        GridLayoutManager layoutManager = (GridLayoutManager) grid.getLayoutManager();
+
+        View header = layoutManager.findViewByPosition(0);
+        assertEquals(WIDTH, header.getWidth());
+        assertEquals(0, layoutManager.getTopDecorationHeight(header));
+        assertEquals(SPACING, layoutManager.getLeftDecorationWidth(layoutManager.findViewByPosition(1)));
+    }
+
+    @UiThreadTest
+    public void testBenchmark() throws Exception {
+        long lookupNanos = scrollThrough(createGrid(new SpanGroupLookupDecoration(SPACING)));
+        long decorationNanos = scrollThrough(createGrid(new GridSpacingItemDecoration(SPACING)));
+
+        Log.d(TAG, ITEM_COUNT + " items: span group lookup= " + lookupNanos / 1000000 + "ms, decoration= "
+                + decorationNanos / 1000000 + "ms");
+        assertTrue(decorationNanos < lookupNanos);
+    }
+
+    private RecyclerView createGrid(RecyclerView.ItemDecoration decoration) {
+        RecyclerView grid = new RecyclerView(getInstrumentation().getTargetContext());
+        GridLayoutManager layoutManager = new GridLayoutManager(getInstrumentation().getTargetContext(), SPAN_COUNT);
+        GridLayoutManager.SpanSizeLookup lookup = new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                return position % HEADER_INTERVAL == 0 ? SPAN_COUNT : 1;
+            }
+        };
+        lookup.setSpanIndexCacheEnabled(true);
+        layoutManager.setSpanSizeLookup(lookup);
+        grid.setLayoutManager(layoutManager);
+        grid.addItemDecoration(decoration);
+        grid.setAdapter(new GridAdapter());
+        return grid;
+    }
+
+    private static long scrollThrough(RecyclerView grid) {
+        long start = System.nanoTime();
+        layout(grid);
+        for (int position = 0; position < ITEM_COUNT; position += HEIGHT / ITEM_HEIGHT) {
+            grid.scrollToPosition(position);
+            layout(grid);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void layout(RecyclerView recyclerView) {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Layout specific decoration as written before {@link GridSpacingItemDecoration}, looking up the span index and
+     * group of the adapter position on every call.
+     */
+    private static final class SpanGroupLookupDecoration extends RecyclerView.ItemDecoration {
+        private final int mSpacing;
+
+        SpanGroupLookupDecoration(int spacing) {
+            mSpacing = spacing;
+        }
+
+        @Override
+        public void getItemOffsets(Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
+            GridLayoutManager layoutManager = (GridLayoutManager) parent.getLayoutManager();
+            GridLayoutManager.SpanSizeLookup lookup = layoutManager.getSpanSizeLookup();
+            int spanCount = layoutManager.getSpanCount();
+            int position = parent.getChildAdapterPosition(view);
+            int spanIndex = lookup.getSpanIndex(position, spanCount);
+            int spanSize = lookup.getSpanSize(position);
+            int group = lookup.getSpanGroupIndex(position, spanCount);
+            int lastGroup = lookup.getSpanGroupIndex(state.getItemCount() - 1, spanCount);
+            outRect.left = mSpacing - spanIndex * mSpacing / spanCount;
+            outRect.right = (spanIndex + spanSize) * mSpacing / spanCount;
+            outRect.top = mSpacing;
+            outRect.bottom = group == lastGroup ? mSpacing : 0;
+        }
+    }
+
+    private static final class GridAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        static final int TYPE_HEADER = 0;
+        static final int TYPE_ITEM = 1;
+
+        @Override
+        public int getItemViewType(int position) {
+            return position % HEADER_INTERVAL == 0 ? TYPE_HEADER : TYPE_ITEM;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ITEM_HEIGHT));
+            return new RecyclerView.ViewHolder(view) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return ITEM_COUNT;
+        }
+    }
+}
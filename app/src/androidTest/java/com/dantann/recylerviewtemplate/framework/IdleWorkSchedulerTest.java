@@ -0,0 +1,80 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Checks when {@link IdleWorkScheduler} runs its jobs.
+ */
+public class IdleWorkSchedulerTest extends InstrumentationTestCase {
+
+    private final Executor mDirectExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final List<String> mRan = new ArrayList<>();
+
+    private IdleWorkScheduler mScheduler;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mScheduler = new IdleWorkScheduler(mDirectExecutor);
+            }
+        });
+    }
+
+    public void testJobs_runWhenForegroundAndIdle() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mScheduler.schedule("warm", record("warm"), 0);
+                mScheduler.schedule("prefetch", record("prefetch"), IdleWorkScheduler.FLAG_BACKGROUND);
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+        assertTrue(mRan.isEmpty());
+
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mScheduler.onEnterForeground();
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+
+        assertEquals(2, mRan.size());
+        assertEquals("warm", mRan.get(0));
+    }
+
+    @UiThreadTest
+    public void testEnterBackground_runsOnlyCriticalJobs() throws Exception {
+        mScheduler.schedule("warm", record("warm"), 0);
+        mScheduler.schedule("flush", record("flush"), IdleWorkScheduler.FLAG_CRITICAL);
+
+        mScheduler.onEnterBackground();
+
+        assertEquals(1, mRan.size());
+        assertEquals("flush", mRan.get(0));
+        assertEquals(1, mScheduler.getPendingCount());
+    }
+
+    private Runnable record(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                mRan.add(name);
+            }
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+import com.dantann.recylerviewtemplate.MyApp;
+
+import java.util.List;
+
+import timber.log.Timber;
+
+/**
+ * Compares the cost of a log call through {@link Logger} with a plain {@link Timber} call whose tag
+ * {@link DebugTree} derives from the stack trace. The trees do not write anywhere, so only the cost of
+ * the call itself is measured.
+ */
+public class LoggerTest extends InstrumentationTestCase {
+
+    private static final String TAG = "LoggerTest";
+    private static final int CALL_COUNT = 20000;
+
+    private static final Logger LOG = Logger.forClass(LoggerTest.class);
+
+    private RecordingTree mTree;
+    private int mPreviousMinPriority;
+    private List<Timber.Tree> mAppTrees;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPreviousMinPriority = Logger.getMinPriority();
+        Logger.setMinPriority(Log.VERBOSE);
+        // Timber 4.1 cannot list the planted trees, the app keeps its own to plant them again
+        mAppTrees = ((MyApp) getInstrumentation().getTargetContext().getApplicationContext()).getLogTrees();
+        Timber.uprootAll();
+        mTree = new RecordingTree();
+        Timber.plant(mTree);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Timber.uproot(mTree);
+        for (Timber.Tree tree : mAppTrees) {
+            Timber.plant(tree);
+        }
+        Logger.setMinPriority(mPreviousMinPriority);
+        super.tearDown();
+    }
+
+    public void testTag_isClassNameWithoutStackTrace() throws Exception {
+        LOG.d("Bound position %d", 1);
+        assertEquals(TAG, mTree.mLastTag);
+        assertEquals("Bound position 1", mTree.mLastMessage);
+
+        Logger.setMinPriority(Log.INFO);
+        LOG.d("Bound position %d", 2);
+        assertEquals("Bound position 1", mTree.mLastMessage);
+        LOG.i("Bound position %d", 3);
+        assertEquals("Bound position 3", mTree.mLastMessage);
+
+        assertEquals(TAG, Logger.forCaller().getTag());
+    }
+
+    public void testBenchmark() throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < CALL_COUNT; i++) {
+            Timber.d("Bound position %d", i);
+        }
+        long stackTraceNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < CALL_COUNT; i++) {
+            LOG.d("Bound position %d", i);
+        }
+        long enabledNanos = System.nanoTime() - start;
+
+        Logger.setMinPriority(Log.INFO);
+        start = System.nanoTime();
+        for (int i = 0; i < CALL_COUNT; i++) {
+            LOG.d("Bound position %d", i);
+        }
+        long disabledNanos = System.nanoTime() - start;
+
+        // instrumented tests run against the debug build, LoggerStrippingTest measures the calls stripped from release
+        Log.d(TAG, CALL_COUNT + " calls: stack trace tag= " + stackTraceNanos / CALL_COUNT
+                + "ns/call, enabled= " + enabledNanos / CALL_COUNT
+                + "ns/call, disabled= " + disabledNanos / CALL_COUNT + "ns/call");
+        assertTrue(enabledNanos < stackTraceNanos);
+        assertTrue(disabledNanos < enabledNanos);
+    }
+
+    /**
+     * {@link DebugTree} that remembers the last log instead of writing it to logcat
+     */
+    private static class RecordingTree extends DebugTree {
+        String mLastTag;
+        String mLastMessage;
+
+        @Override
+        protected void log(int priority, String tag, String message, Throwable t) {
+            mLastTag = tag;
+            mLastMessage = message;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+import com.dantann.recylerviewtemplate.util.MaterialColorPalette;
+
+/**
+ * Compares placeholders and letter avatars from {@link PlaceholderDrawableCache} with creating them on every bind.
+ */
+public class PlaceholderDrawableCacheTest extends InstrumentationTestCase {
+
+    private static final String TAG = "PlaceholderDrawableCacheTest";
+    private static final int BIND_COUNT = 2000;
+    private static final int AVATAR_SIZE = 96;
+
+    private Resources mResources;
+    private PlaceholderDrawableCache mCache;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mResources = getInstrumentation().getTargetContext().getResources();
+        mCache = new PlaceholderDrawableCache(mResources, MaterialColorPalette.getDefault(), 4 * 1024 * 1024);
+    }
+
+    public void testDrawables_shareState() throws Exception {
+        Drawable first = mCache.getPlaceholder("Ada", PlaceholderDrawableCache.SHAPE_OVAL, 0);
+        Drawable second = mCache.getPlaceholder("Ada", PlaceholderDrawableCache.SHAPE_OVAL, 0);
+        assertNotSame(first, second);
+        assertSame(first.getConstantState(), second.getConstantState());
+
+        BitmapDrawable avatar = (BitmapDrawable) mCache.getLetterAvatar("ada", PlaceholderDrawableCache.SHAPE_OVAL,
+                AVATAR_SIZE);
+        BitmapDrawable sameLetter = (BitmapDrawable) mCache.getLetterAvatar("ada", PlaceholderDrawableCache.SHAPE_OVAL,
+                AVATAR_SIZE);
+        assertSame(avatar.getBitmap(), sameLetter.getBitmap());
+        assertEquals(AVATAR_SIZE, avatar.getBitmap().getWidth());
+        assertEquals(1, mCache.getMissCount());
+        assertEquals(1, mCache.getHitCount());
+    }
+
+    public void testBenchmark() throws Exception {
+        String[] names = new String[50];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = (char) ('A' + i % 26) + "user" + i;
+        }
+        MaterialColorPalette palette = MaterialColorPalette.getDefault();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BIND_COUNT; i++) {
+            String name = names[i % names.length];
+            GradientDrawable drawable = new GradientDrawable();
+            drawable.setShape(GradientDrawable.OVAL);
+            drawable.setColor(palette.colorFor(name));
+            Bitmap bitmap = Bitmap.createBitmap(AVATAR_SIZE, AVATAR_SIZE, Bitmap.Config.ARGB_8888);
+            drawable.setBounds(0, 0, AVATAR_SIZE, AVATAR_SIZE);
+            drawable.draw(new Canvas(bitmap));
+            new BitmapDrawable(mResources, bitmap);
+        }
+        long uncachedNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < BIND_COUNT; i++) {
+            mCache.getLetterAvatar(names[i % names.length], PlaceholderDrawableCache.SHAPE_OVAL, AVATAR_SIZE);
+        }
+        long cachedNanos = System.nanoTime() - start;
+
+        Log.d(TAG, BIND_COUNT + " avatars: uncached= " + uncachedNanos / BIND_COUNT + "ns/bind, cached= "
+                + cachedNanos / BIND_COUNT + "ns/bind, misses= " + mCache.getMissCount());
+        assertTrue(cachedNanos < uncachedNanos);
+    }
+}
@@ -0,0 +1,135 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.test.InstrumentationTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks that preference changes are debounced and deduplicated.
+ */
+public class PreferenceChangeDispatcherTest extends InstrumentationTestCase {
+
+    private static final long DEBOUNCE_MS = 50;
+
+    private final Executor mDirectExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private SharedPreferences mPreferences;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPreferences = getInstrumentation().getTargetContext()
+                .getSharedPreferences("preference_change_test", Context.MODE_PRIVATE);
+        mPreferences.edit().clear().commit();
+    }
+
+    public void testBurstOfChanges_deliveredOnce() throws Exception {
+        IntPreference preference = new IntPreference(mPreferences, "int", 0);
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicReference<Integer> received = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        CachedPreference.OnChangeListener<Integer> listener = new CachedPreference.OnChangeListener<Integer>() {
+            @Override
+            public void onPreferenceChanged(CachedPreference<Integer> preference, Integer value) {
+                calls.incrementAndGet();
+                received.set(value);
+                latch.countDown();
+            }
+        };
+        preference.addListener(listener, mDirectExecutor, DEBOUNCE_MS);
+
+        for (int i = 1; i <= 20; i++) {
+            preference.set(i);
+        }
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        // the commit of the batch notifies again, but the value did not change
+        preference.flush();
+        Thread.sleep(DEBOUNCE_MS * 4);
+        assertEquals(1, calls.get());
+        assertEquals(Integer.valueOf(20), received.get());
+        preference.removeListener(listener);
+    }
+
+    public void testUnchangedValue_notDelivered() throws Exception {
+        IntPreference preference = new IntPreference(mPreferences, "int", 0);
+        final AtomicInteger calls = new AtomicInteger();
+        CachedPreference.OnChangeListener<Integer> listener = new CachedPreference.OnChangeListener<Integer>() {
+            @Override
+            public void onPreferenceChanged(CachedPreference<Integer> preference, Integer value) {
+                calls.incrementAndGet();
+            }
+        };
+        preference.addListener(listener, mDirectExecutor, DEBOUNCE_MS);
+
+        preference.set(1);
+        preference.set(0);
+
+        Thread.sleep(DEBOUNCE_MS * 4);
+        assertEquals(0, calls.get());
+        preference.removeListener(listener);
+    }
+
+    public void testListenerWaitingForAnotherDelivery_receivesValuesInOrder() throws Exception {
+        final IntPreference preference = new IntPreference(mPreferences, "int", 0);
+        final CountDownLatch deliveryFinished = new CountDownLatch(1);
+        Executor threadPerDelivery = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        command.run();
+                        deliveryFinished.countDown();
+                    }
+                }).start();
+            }
+        };
+        final List<Integer> received = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        CachedPreference.OnChangeListener<Integer> listener = new CachedPreference.OnChangeListener<Integer>() {
+            @Override
+            public void onPreferenceChanged(CachedPreference<Integer> preference, Integer value) {
+                synchronized (received) {
+                    received.add(value);
+                }
+                if (value == 1) {
+                    // the delivery of 2 runs on another thread while this one waits for it
+                    ((IntPreference) preference).set(2);
+                    try {
+                        deliveryFinished.await(1, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                latch.countDown();
+            }
+        };
+        preference.addListener(listener, threadPerDelivery, DEBOUNCE_MS);
+
+        preference.set(1);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        // the second delivery finished without waiting for the listener, which then received 2 on its thread
+        assertEquals(0, deliveryFinished.getCount());
+        synchronized (received) {
+            assertEquals(2, received.size());
+            assertEquals(Integer.valueOf(1), received.get(0));
+            assertEquals(Integer.valueOf(2), received.get(1));
+        }
+        preference.removeListener(listener);
+    }
+}
@@ -0,0 +1,56 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+/**
+ * Compares writing preferences through {@link StringPreference} with synchronous commits.
+ */
+public class PreferenceWriterTest extends InstrumentationTestCase {
+
+    private static final String TAG = "PreferenceWriterTest";
+    private static final int WRITE_COUNT = 50;
+
+    private SharedPreferences mPreferences;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPreferences = getInstrumentation().getTargetContext()
+                .getSharedPreferences("preference_writer_test", Context.MODE_PRIVATE);
+        mPreferences.edit().clear().commit();
+    }
+
+    public void testSet_visibleBeforeFlushAndCoalesced() throws Exception {
+        StringPreference preference = new StringPreference(mPreferences, "key", "default");
+        PreferenceWriter writer = PreferenceWriter.get(mPreferences);
+        final int commitsBefore = writer.getCommitCount();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < WRITE_COUNT; i++) {
+            preference.set("value" + i);
+        }
+        long asyncNanos = System.nanoTime() - start;
+
+        assertEquals("value" + (WRITE_COUNT - 1), preference.get());
+        assertTrue(writer.flush());
+        assertEquals("value" + (WRITE_COUNT - 1), mPreferences.getString("key", null));
+        assertEquals(commitsBefore + 1, writer.getCommitCount());
+
+        preference.delete();
+        assertFalse(preference.isSet());
+        assertEquals("default", preference.get());
+        assertTrue(writer.flush());
+        assertFalse(mPreferences.contains("key"));
+
+        start = System.nanoTime();
+        for (int i = 0; i < WRITE_COUNT; i++) {
+            mPreferences.edit().putString("key", "value" + i).commit();
+        }
+        long commitNanos = System.nanoTime() - start;
+
+        Log.d(TAG, WRITE_COUNT + " writes: batched= " + asyncNanos / 1000 + "us, commit= " + commitNanos / 1000 + "us");
+    }
+}
@@ -0,0 +1,176 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares holder creations and binds when refreshing an unchanged list with and without stable ids.
+ */
+public class StableIdsTest extends InstrumentationTestCase {
+
+    private static final String TAG = "StableIdsTest";
+    private static final int ITEM_COUNT = 200;
+    private static final int ITEM_HEIGHT = 10;
+    private static final int LIST_HEIGHT = 500;
+
+    @UiThreadTest
+    public void testRefreshWithStableIds_reusesHolders() throws Exception {
+        CountingAdapter adapter = new CountingAdapter(createItems());
+        adapter.setHasStableIds(true);
+        RecyclerView recyclerView = createRecyclerView(adapter);
+
+        int createdBefore = adapter.mCreateCount;
+        int boundBefore = adapter.mBindCount;
+        adapter.notifyDataSetChanged();
+        layout(recyclerView);
+
+        Log.d(TAG, "Stable ids refresh: created= " + (adapter.mCreateCount - createdBefore)
+                + ", bound= " + (adapter.mBindCount - boundBefore));
+        assertEquals(createdBefore, adapter.mCreateCount);
+    }
+
+    @UiThreadTest
+    public void testRefreshWithoutStableIds_createsHolders() throws Exception {
+        CountingAdapter adapter = new CountingAdapter(createItems());
+        RecyclerView recyclerView = createRecyclerView(adapter);
+
+        int createdBefore = adapter.mCreateCount;
+        int boundBefore = adapter.mBindCount;
+        adapter.notifyDataSetChanged();
+        layout(recyclerView);
+
+        Log.d(TAG, "Refresh without stable ids: created= " + (adapter.mCreateCount - createdBefore)
+                + ", bound= " + (adapter.mBindCount - boundBefore));
+        assertTrue(adapter.mCreateCount > createdBefore);
+    }
+
+    public void testKeyIds_doNotCollide() throws Exception {
+        StableIdKeys keys = new StableIdKeys();
+        long first = keys.getId("Aa");
+        long second = keys.getId("BB"); // same String.hashCode() as "Aa"
+
+        assertTrue(first != second);
+        assertEquals(first, keys.getId("Aa"));
+        assertTrue(first < 0 && second < 0);
+        assertTrue(first != RecyclerView.NO_ID);
+    }
+
+    public void testKeyIds_retainKeepsIdsOfCurrentKeys() throws Exception {
+        StableIdKeys keys = new StableIdKeys();
+        long kept = keys.getId("kept");
+        keys.getId("removed");
+
+        List<KeyItem> newList = new ArrayList<>();
+        newList.add(new KeyItem("kept"));
+        newList.add(new KeyItem("added"));
+        keys.retain(newList);
+
+        assertEquals(1, keys.size());
+        assertEquals(kept, keys.getId("kept"));
+        long added = keys.getId("added");
+        assertTrue(added != kept);
+        assertEquals(2, keys.size());
+    }
+
+    private RecyclerView createRecyclerView(RecyclerView.Adapter adapter) {
+        RecyclerView recyclerView = new RecyclerView(getInstrumentation().getTargetContext());
+        recyclerView.setLayoutManager(new LinearLayoutManager(getInstrumentation().getTargetContext()));
+        recyclerView.setItemAnimator(null);
+        recyclerView.setAdapter(adapter);
+        layout(recyclerView);
+        return recyclerView;
+    }
+
+    private static void layout(RecyclerView recyclerView) {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(LIST_HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, 100, LIST_HEIGHT);
+    }
+
+    private static List<Item> createItems() {
+        List<Item> items = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Item(i));
+        }
+        return items;
+    }
+
+    private static final class Item implements Identifiable {
+        private final long mId;
+
+        Item(long id) {
+            mId = id;
+        }
+
+        @Override
+        public long getStableId() {
+            return mId;
+        }
+    }
+
+    private static final class KeyItem implements KeyIdentifiable {
+        private final String mKey;
+
+        KeyItem(String key) {
+            mKey = key;
+        }
+
+        @Override
+        public String getStableKey() {
+            return mKey;
+        }
+    }
+
+    private static final class CountingAdapter extends PresenterAdapter {
+        private final List<Item> mItems;
+        int mCreateCount;
+        int mBindCount;
+
+        CountingAdapter(List<Item> items) {
+            mItems = items;
+            addViewTypePresenter(0, new ViewHolderPresenter<Item>() {
+                @Override
+                public BaseViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+                    mCreateCount++;
+                    View view = new View(parent.getContext());
+                    view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ITEM_HEIGHT));
+                    return new BaseViewHolder<Item>(view);
+                }
+
+                @Override
+                public void onBindViewHolder(BaseViewHolder holder, Item model) {
+                    mBindCount++;
+                }
+
+                @Override
+                public void onUnbindViewHolder(BaseViewHolder holder) {
+                }
+            });
+        }
+
+        @Nullable
+        @Override
+        public Object getDataForPosition(int position) {
+            return mItems.get(position);
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return 0;
+        }
+
+        @Override
+        public int getItemCount() {
+            return mItems.size();
+        }
+    }
+}
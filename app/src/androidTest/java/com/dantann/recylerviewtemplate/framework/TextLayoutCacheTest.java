@@ -0,0 +1,248 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.text.Layout;
+import android.text.TextPaint;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares binding rows of long text with and without precomputed layouts, and checks that the rows bound after
+ * {@link ListPresenterAdapter#submitList(List)} find their layouts precomputed.
+ */
+public class TextLayoutCacheTest extends InstrumentationTestCase {
+
+    private static final String TAG = "TextLayoutCacheTest";
+    private static final int ROW_COUNT = 200;
+    private static final int WIDTH = 600;
+    private static final int ROW_HEIGHT = 100;
+    private static final int VISIBLE_ROWS = 5;
+
+    private final TextPaint mPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+    private final String[] mTexts = new String[ROW_COUNT];
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPaint.setTextSize(32f);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int word = 0; word < 60; word++) {
+                builder.append("row").append(i).append(" word").append(word).append(' ');
+            }
+            mTexts[i] = builder.toString();
+        }
+    }
+
+    @UiThreadTest
+    public void testBind_precomputedFasterThanSynchronous() throws Exception {
+        final TextLayoutCache synchronousCache = new TextLayoutCache(ROW_COUNT);
+        LatencyHistogram synchronous = new LatencyHistogram();
+        for (String text : mTexts) {
+            final long start = System.nanoTime();
+            synchronousCache.get(text, mPaint, WIDTH);
+            synchronous.record(System.nanoTime() - start);
+        }
+
+        final TextLayoutCache precomputedCache = new TextLayoutCache(ROW_COUNT);
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (String text : mTexts) {
+                    precomputedCache.precompute(text, mPaint, WIDTH);
+                }
+            }
+        });
+        worker.start();
+        worker.join();
+
+        LatencyHistogram precomputed = new LatencyHistogram();
+        for (String text : mTexts) {
+            final long start = System.nanoTime();
+            precomputedCache.get(text, mPaint, WIDTH);
+            precomputed.record(System.nanoTime() - start);
+        }
+
+        Log.d(TAG, "Synchronous bind p50= " + synchronous.getPercentileNanos(50) + "ns, p99= "
+                + synchronous.getPercentileNanos(99) + "ns; precomputed bind p50= "
+                + precomputed.getPercentileNanos(50) + "ns, p99= " + precomputed.getPercentileNanos(99) + "ns");
+
+        assertEquals(ROW_COUNT, precomputedCache.getHitCount());
+        assertEquals(0, precomputedCache.getMissCount());
+        assertTrue(precomputed.getPercentileNanos(50) < synchronous.getPercentileNanos(50));
+    }
+
+    @UiThreadTest
+    public void testGet_evictsLeastRecentlyUsed() throws Exception {
+        TextLayoutCache cache = new TextLayoutCache(2);
+        Layout first = cache.get(mTexts[0], mPaint, WIDTH);
+        cache.get(mTexts[1], mPaint, WIDTH);
+        assertSame(first, cache.get(mTexts[0], mPaint, WIDTH));
+
+        cache.get(mTexts[2], mPaint, WIDTH);
+
+        assertNotNull(cache.peek(mTexts[0], mPaint, WIDTH));
+        assertNull(cache.peek(mTexts[1], mPaint, WIDTH));
+        assertNull(cache.peek(mTexts[0], mPaint, WIDTH + 1));
+    }
+
+    public void testSubmitList_rowsBindPrecomputedLayouts() throws Exception {
+        final TextLayoutCache cache = new TextLayoutCache(ROW_COUNT);
+        final RowPresenter presenter = new RowPresenter(cache, mPaint);
+        final RowAdapter adapter = new RowAdapter(presenter);
+        adapter.setTextLayoutCache(cache);
+        final RecyclerView[] recyclerView = new RecyclerView[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                recyclerView[0] = new RecyclerView(getInstrumentation().getTargetContext());
+                recyclerView[0].setLayoutManager(new LinearLayoutManager(getInstrumentation().getTargetContext()));
+                recyclerView[0].setItemAnimator(null);
+                recyclerView[0].setAdapter(adapter);
+            }
+        });
+
+        // the first list is inserted
+        submitAndLayout(adapter, recyclerView[0], createRows(0));
+        assertTrue(presenter.mBindCount > 0);
+        assertEquals(presenter.mBindCount, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+
+        // every row changes its text, so the visible rows are rebound after the diff
+        final int bindsBefore = presenter.mBindCount;
+        final int hitsBefore = cache.getHitCount();
+        submitAndLayout(adapter, recyclerView[0], createRows(1));
+        assertTrue(presenter.mBindCount > bindsBefore);
+        assertEquals(presenter.mBindCount - bindsBefore, cache.getHitCount() - hitsBefore);
+        assertEquals(0, cache.getMissCount());
+    }
+
+    private void submitAndLayout(final RowAdapter adapter, final RecyclerView recyclerView, final List<Row> rows)
+            throws Exception {
+        adapter.mListChanged = new CountDownLatch(1);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                adapter.submitList(rows);
+            }
+        });
+        assertTrue(adapter.mListChanged.await(5, TimeUnit.SECONDS));
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(VISIBLE_ROWS * ROW_HEIGHT, View.MeasureSpec.EXACTLY));
+                recyclerView.layout(0, 0, WIDTH, VISIBLE_ROWS * ROW_HEIGHT);
+            }
+        });
+    }
+
+    private List<Row> createRows(int version) {
+        List<Row> rows = new ArrayList<>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            rows.add(new Row(i, "version" + version + ' ' + mTexts[i]));
+        }
+        return rows;
+    }
+
+    private static final class Row {
+        final int mId;
+        final String mText;
+
+        Row(int id, String text) {
+            mId = id;
+            mText = text;
+        }
+    }
+
+    /**
+     * Binds the layout of a row from the cache, a layout that was not precomputed counts as a miss
+     */
+    private static final class RowPresenter implements TextLayoutPresenter<Row> {
+        private final TextLayoutCache mCache;
+        private final TextPaint mPaint;
+        int mBindCount;
+
+        RowPresenter(TextLayoutCache cache, TextPaint paint) {
+            mCache = cache;
+            mPaint = paint;
+        }
+
+        @Override
+        public BaseViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            StaticLayoutView view = new StaticLayoutView(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+            return new BaseViewHolder<Row>(view);
+        }
+
+        @Override
+        public void onBindViewHolder(BaseViewHolder holder, Row model) {
+            ((StaticLayoutView) holder.itemView).setLayout(mCache.get(model.mText, mPaint, WIDTH));
+            mBindCount++;
+        }
+
+        @Override
+        public void onUnbindViewHolder(BaseViewHolder holder) {
+            ((StaticLayoutView) holder.itemView).setLayout(null);
+        }
+
+        @Override
+        public int getTextFieldCount() {
+            return 1;
+        }
+
+        @Override
+        public CharSequence getText(Row model, int field) {
+            return model.mText;
+        }
+
+        @Override
+        public TextPaint getTextPaint(int field) {
+            return mPaint;
+        }
+
+        @Override
+        public int getTextWidth(int field) {
+            return WIDTH;
+        }
+    }
+
+    private static final class RowAdapter extends ListPresenterAdapter<Row> {
+        private final int mViewType;
+        volatile CountDownLatch mListChanged;
+
+        RowAdapter(RowPresenter presenter) {
+            super(new ListDiffer.ItemCallback<Row>() {
+                @Override
+                public boolean areItemsTheSame(Row oldItem, Row newItem) {
+                    return oldItem.mId == newItem.mId;
+                }
+
+                @Override
+                public boolean areContentsTheSame(Row oldItem, Row newItem) {
+                    return oldItem.mText.equals(newItem.mText);
+                }
+            });
+            mViewType = addPresenter(presenter);
+        }
+
+        @Override
+        public int getViewTypeForItem(Row item) {
+            return mViewType;
+        }
+
+        @Override
+        protected void onCurrentListChanged(List<Row> previousList, List<Row> currentList) {
+            mListChanged.countDown();
+        }
+    }
+}
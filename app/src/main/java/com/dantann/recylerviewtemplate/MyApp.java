@@ -1,16 +1,61 @@
 package com.dantann.recylerviewtemplate;
 
+import android.content.Context;
+import android.util.Log;
+
+import com.dantann.recylerviewtemplate.framework.AsyncTree;
 import com.dantann.recylerviewtemplate.framework.BaseApplication;
-import com.dantann.recylerviewtemplate.framework.DebugTree;
+import com.dantann.recylerviewtemplate.framework.InitTask;
+import com.dantann.recylerviewtemplate.framework.LogRingBuffer;
+import com.dantann.recylerviewtemplate.framework.Logger;
+import com.dantann.recylerviewtemplate.framework.MappedLogSink;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import timber.log.Timber;
 
 
 public class MyApp extends BaseApplication {
 
+    /**
+     * Directory of the persistent logs, read with {@link com.dantann.recylerviewtemplate.framework.MappedLogReader}
+     */
+    public static final String LOG_DIRECTORY = "logs";
+
+    private final List<Timber.Tree> mLogTrees = new ArrayList<>();
+
     @Override
     public void onCreate() {
         super.onCreate();
-        Timber.plant(new DebugTree());
+        addInitTask(new InitTask("Timber") {
+            @Override
+            public boolean requiresMainThread() {
+                // log statements of the other tasks need the tree
+                return true;
+            }
+
+            @Override
+            protected void onInitialize(Context context) {
+                Logger.setMinPriority(BuildConfig.DEBUG ? Log.VERBOSE : Log.INFO);
+                mLogTrees.add(new AsyncTree());
+                // the files are opened by the drain thread of the tree, which only gets the records that are kept
+                mLogTrees.add(new AsyncTree(AsyncTree.DEFAULT_CAPACITY, LogRingBuffer.POLICY_DROP_NEWEST, Log.INFO,
+                        new MappedLogSink(new File(context.getFilesDir(), LOG_DIRECTORY), Log.INFO)));
+                for (Timber.Tree tree : mLogTrees) {
+                    Timber.plant(tree);
+                }
+            }
+        });
+        startInitTasks();
+    }
+
+    /**
+     * @return the trees planted at start up, e.g. to plant them again after a test uprooted them
+     */
+    public List<Timber.Tree> getLogTrees() {
+        return Collections.unmodifiableList(mLogTrees);
     }
 }
@@ -0,0 +1,35 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * {@link ListDiffer.UpdateCallback} that dispatches update operations to a {@link RecyclerView.Adapter}.
+ */
+public final class AdapterListUpdateCallback implements ListDiffer.UpdateCallback {
+
+    private final RecyclerView.Adapter mAdapter;
+
+    public AdapterListUpdateCallback(RecyclerView.Adapter adapter) {
+        mAdapter = adapter;
+    }
+
+    @Override
+    public void onInserted(int position, int count) {
+        mAdapter.notifyItemRangeInserted(position, count);
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        mAdapter.notifyItemRangeRemoved(position, count);
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        mAdapter.notifyItemMoved(fromPosition, toPosition);
+    }
+
+    @Override
+    public void onChanged(int position, int count, Object payload) {
+        mAdapter.notifyItemRangeChanged(position, count, payload);
+    }
+}
@@ -0,0 +1,373 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Runs {@link InitTask}s as a dependency graph. Independent background tasks run in parallel on a bounded
+ * thread pool, while {@link #start()} only blocks the main thread to run the tasks that require it.
+ * <p>
+ * Deferrable tasks are not run by {@link #start()}, they run on first use through {@link #require(String)},
+ * or once the main thread is idle after {@link #scheduleDeferredOnIdle()}.
+ * <p>
+ * A task that throws is logged and counts as completed, so its dependents still run.
+ * Every task is recorded as a phase of the {@link StartupTimeline}.
+ */
+public final class AppInitializer {
+
+    private static final Logger LOG = Logger.forClass(AppInitializer.class);
+
+    /**
+     * Background threads used for initialization, bounded as start up competes with the main thread for cores
+     */
+    private static final int MAX_THREADS = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 4));
+
+    /**
+     * States of a task while checking for cycles, unvisited tasks are 0
+     */
+    private static final int VISITING = 1;
+    private static final int VISITED = 2;
+
+    /**
+     * Queued to wake up the main thread in {@link #require(String)} when the required task completed
+     */
+    private static final Node WAKE_UP = new Node(null);
+
+    private final Context mContext;
+    private final StartupTimeline mTimeline;
+    private final Executor mBackgroundExecutor;
+    private final Executor mMainExecutor;
+
+    private final HashMap<String, Node> mNodes = new HashMap<>();
+    private final ArrayList<Node> mOrder = new ArrayList<>();
+
+    /**
+     * Main thread tasks that are ready to run, drained by {@link #start()} and afterwards on the main executor
+     */
+    private final LinkedBlockingQueue<Node> mMainQueue = new LinkedBlockingQueue<>();
+
+    private final Runnable mDrainMainQueue = new Runnable() {
+        @Override
+        public void run() {
+            Node node;
+            while ((node = mMainQueue.poll()) != null) {
+                if (node != WAKE_UP) {
+                    runTask(node);
+                }
+            }
+        }
+    };
+
+    @Nullable
+    private Thread mMainThread;
+    private boolean mStarted;
+
+    /**
+     * Eager main thread tasks that did not complete yet, only accessed on the main thread
+     */
+    private int mRemainingMainTasks;
+
+    AppInitializer(Context context, StartupTimeline timeline) {
+        this(context, timeline, createBackgroundExecutor(), MainThreadExecutor.getInstance());
+    }
+
+    /**
+     * @param mainExecutor - executor that posts to the thread that calls {@link #start()}
+     */
+    AppInitializer(Context context, StartupTimeline timeline, Executor backgroundExecutor, Executor mainExecutor) {
+        mContext = context;
+        mTimeline = timeline;
+        mBackgroundExecutor = backgroundExecutor;
+        mMainExecutor = mainExecutor;
+    }
+
+    /**
+     * Adds a task, tasks can only be added before {@link #start()}.
+     *
+     * @param task - task to add
+     */
+    @MainThread
+    public void add(InitTask task) {
+        checkNotNull(task, "task == null");
+        if (mStarted) {
+            throw new IllegalStateException("Task " + task.getName() + " added after start");
+        }
+        if (mNodes.containsKey(task.getName())) {
+            throw new IllegalArgumentException("Task " + task.getName() + " was already added");
+        }
+        final Node node = new Node(task);
+        mNodes.put(task.getName(), node);
+        mOrder.add(node);
+    }
+
+    /**
+     * Runs all tasks that are not deferrable, blocking until the ones that require the main thread completed.
+     * Background tasks may still be running when this returns.
+     *
+     * @throws IllegalStateException if a dependency is missing or the dependencies contain a cycle
+     */
+    @MainThread
+    public void start() {
+        if (mStarted) {
+            throw new IllegalStateException("Already started");
+        }
+        mStarted = true;
+        mMainThread = Thread.currentThread();
+        link();
+
+        for (int i = 0, size = mOrder.size(); i < size; i++) {
+            final Node node = mOrder.get(i);
+            if (node.mEager && node.mTask.requiresMainThread()) {
+                mRemainingMainTasks++;
+            }
+        }
+        for (int i = 0, size = mOrder.size(); i < size; i++) {
+            final Node node = mOrder.get(i);
+            if (node.mEager) {
+                schedule(node);
+            }
+        }
+        try {
+            // only main thread tasks that run here decrement the count, so waiting for the next one can not miss it
+            while (mRemainingMainTasks > 0) {
+                final Node node = mMainQueue.take();
+                if (node != WAKE_UP) {
+                    runTask(node);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the deferred tasks once the main thread is idle.
+     */
+    @MainThread
+    public void scheduleDeferredOnIdle() {
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                scheduleDeferred();
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Runs all tasks that were deferred and not required yet.
+     */
+    public void scheduleDeferred() {
+        for (int i = 0, size = mOrder.size(); i < size; i++) {
+            schedule(mOrder.get(i));
+        }
+    }
+
+    /**
+     * Runs a task and its dependencies if they did not run yet, and blocks until the task completed.
+     * On the main thread, main thread tasks keep running while waiting, and the completion of the task is
+     * signaled through the same queue.
+     *
+     * @param name - name of the task
+     */
+    public void require(String name) {
+        final Node node = mNodes.get(name);
+        if (node == null) {
+            throw new IllegalArgumentException("Unknown task " + name);
+        }
+        if (!mStarted) {
+            throw new IllegalStateException("Task " + name + " required before start");
+        }
+        schedule(node);
+        try {
+            if (Thread.currentThread() == mMainThread) {
+                // set before checking the latch, so a completion after the check always queues a wake up
+                node.mWakeMainThread = true;
+                while (node.mDone.getCount() > 0) {
+                    final Node mainNode = mMainQueue.take();
+                    if (mainNode != WAKE_UP) {
+                        runTask(mainNode);
+                    }
+                }
+            } else {
+                node.mDone.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param name - name of the task
+     * @return true if the task completed
+     */
+    public boolean isCompleted(String name) {
+        final Node node = mNodes.get(name);
+        return node != null && node.mDone.getCount() == 0;
+    }
+
+    /**
+     * @param name - name of the task
+     * @return the exception thrown by the task, null if it did not fail
+     */
+    @Nullable
+    public Throwable getFailure(String name) {
+        final Node node = mNodes.get(name);
+        return node == null ? null : node.mFailure;
+    }
+
+    /**
+     * Resolves the dependencies, marks tasks needed by eager tasks as eager and checks for cycles.
+     */
+    private void link() {
+        for (int i = 0, size = mOrder.size(); i < size; i++) {
+            final Node node = mOrder.get(i);
+            for (String dependencyName : node.mTask.getDependencies()) {
+                final Node dependency = mNodes.get(dependencyName);
+                if (dependency == null) {
+                    throw new IllegalStateException("Task " + node.mTask.getName() + " depends on missing task "
+                            + dependencyName);
+                }
+                node.mDependencies.add(dependency);
+                dependency.mDependents.add(node);
+            }
+            node.mPendingDependencies.set(node.mDependencies.size());
+        }
+        final int[] state = new int[mOrder.size()];
+        for (int i = 0, size = mOrder.size(); i < size; i++) {
+            mOrder.get(i).mIndex = i;
+        }
+        for (int i = 0, size = mOrder.size(); i < size; i++) {
+            visit(mOrder.get(i), state);
+            if (!mOrder.get(i).mTask.isDeferrable()) {
+                markEager(mOrder.get(i));
+            }
+        }
+    }
+
+    private void visit(Node node, int[] state) {
+        if (state[node.mIndex] == VISITED) {
+            return;
+        }
+        if (state[node.mIndex] == VISITING) {
+            throw new IllegalStateException("Dependency cycle through task " + node.mTask.getName());
+        }
+        state[node.mIndex] = VISITING;
+        for (int i = 0, size = node.mDependencies.size(); i < size; i++) {
+            visit(node.mDependencies.get(i), state);
+        }
+        state[node.mIndex] = VISITED;
+    }
+
+    private static void markEager(Node node) {
+        if (node.mEager) {
+            return;
+        }
+        node.mEager = true;
+        for (int i = 0, size = node.mDependencies.size(); i < size; i++) {
+            markEager(node.mDependencies.get(i));
+        }
+    }
+
+    private void schedule(Node node) {
+        if (!node.mScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        for (int i = 0, size = node.mDependencies.size(); i < size; i++) {
+            schedule(node.mDependencies.get(i));
+        }
+        maybeDispatch(node);
+    }
+
+    private void maybeDispatch(final Node node) {
+        if (!node.mScheduled.get() || node.mPendingDependencies.get() > 0
+                || !node.mDispatched.compareAndSet(false, true)) {
+            return;
+        }
+        if (node.mTask.requiresMainThread()) {
+            mMainQueue.add(node);
+            mMainExecutor.execute(mDrainMainQueue);
+        } else {
+            mBackgroundExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    runTask(node);
+                }
+            });
+        }
+    }
+
+    private void runTask(Node node) {
+        final InitTask task = node.mTask;
+        final long start = System.nanoTime();
+        try {
+            task.onInitialize(mContext);
+        } catch (Throwable e) {
+            LOG.e(e, "Init task %s failed", task.getName());
+            node.mFailure = e;
+        }
+        mTimeline.addPhase(task.getName(), start, System.nanoTime());
+        if (node.mEager && task.requiresMainThread()) {
+            mRemainingMainTasks--;
+        }
+        node.mDone.countDown();
+        if (node.mWakeMainThread) {
+            mMainQueue.add(WAKE_UP);
+        }
+        for (int i = 0, size = node.mDependents.size(); i < size; i++) {
+            final Node dependent = node.mDependents.get(i);
+            dependent.mPendingDependencies.decrementAndGet();
+            maybeDispatch(dependent);
+        }
+    }
+
+    private static ExecutorService createBackgroundExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger mCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        return new Thread(runnable, "AppInit-" + mCount.incrementAndGet());
+                    }
+                });
+        // the threads are only needed during start up
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class Node {
+        final InitTask mTask;
+        final ArrayList<Node> mDependencies = new ArrayList<>();
+        final ArrayList<Node> mDependents = new ArrayList<>();
+        final AtomicInteger mPendingDependencies = new AtomicInteger();
+        final AtomicBoolean mScheduled = new AtomicBoolean();
+        final AtomicBoolean mDispatched = new AtomicBoolean();
+        final CountDownLatch mDone = new CountDownLatch(1);
+        volatile Throwable mFailure;
+        volatile boolean mWakeMainThread;
+        boolean mEager;
+        int mIndex;
+
+        Node(InitTask task) {
+            mTask = task;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.os.Process;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import timber.log.Timber;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * {@link Timber.Tree} that hands log records to a background thread instead of writing them on the calling thread.
+ * <p>
+ * Records are added to a preallocated {@link LogRingBuffer} and written to a sink, logcat by default, by a single
+ * drain thread, so a log call on the main thread only costs the enqueue. Calls through {@link Logger} are always
+ * tagged. Like {@link Timber.DebugTree}, a call without an explicit {@link Timber#tag(String)} is tagged with the
+ * name of the calling class, found in the stack trace of the call. The tag of each class is created once and
+ * cached, but the stack trace is still captured on the calling thread, so untagged calls should be avoided.
+ * <p>
+ * When records are added faster than they are written, the policy of the ring buffer decides whether new
+ * records are dropped or the oldest ones are overwritten, see {@link #getDroppedCount()}. Records below the minimum
+ * priority of the tree are rejected by {@link #isLoggable(int)} before they are formatted or enqueued, so they
+ * neither cost the caller nor take the space of the records the sink keeps.
+ */
+public class AsyncTree extends Timber.Tree {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Records removed from the buffer per drain call
+     */
+    private static final int DRAIN_BATCH = 64;
+
+    private static final long FLUSH_TIMEOUT_MS = 2000;
+
+    /**
+     * Longest tag logcat accepts before API 24
+     */
+    private static final int MAX_TAG_LENGTH = 23;
+
+    private static final Pattern ANONYMOUS_CLASS = Pattern.compile("(\\$\\d+)+$");
+    private static final String TIMBER_PACKAGE = "timber.log.";
+    private static final String LOGGER_CLASS = Logger.class.getName();
+    private static final String DEFAULT_TAG = "AsyncTree";
+
+    /**
+     * Creates the drain thread with background priority
+     */
+    public static final ThreadFactory DEFAULT_THREAD_FACTORY = new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, "AsyncTree");
+        }
+    };
+
+    private final LogRingBuffer mBuffer;
+    private final LogRingBuffer.Consumer mSink;
+    private final int mMinPriority;
+    private final Thread mDrainThread;
+
+    /**
+     * Tags of the classes that logged without a tag, keyed by class name
+     */
+    private final ConcurrentHashMap<String, String> mClassTags = new ConcurrentHashMap<>();
+
+    private final AtomicReference<CountDownLatch> mFlushRequest = new AtomicReference<>();
+
+    /**
+     * True while the drain thread is parked or about to park, producers only unpark it then
+     */
+    private volatile boolean mDrainerWaiting;
+    private volatile boolean mClosed;
+
+    /**
+     * Only written by the drain thread
+     */
+    private volatile long mWrittenCount;
+
+    /**
+     * Logs to logcat, overwriting the oldest records when the buffer is full.
+     */
+    public AsyncTree() {
+        this(DEFAULT_CAPACITY, LogRingBuffer.POLICY_OVERWRITE_OLDEST, new LogcatSink());
+    }
+
+    /**
+     * @param capacity - number of records that can be pending
+     * @param policy   - {@link LogRingBuffer#POLICY_DROP_NEWEST} or {@link LogRingBuffer#POLICY_OVERWRITE_OLDEST}
+     * @param sink     - writes the records, only called on the drain thread
+     */
+    public AsyncTree(int capacity, int policy, LogRingBuffer.Consumer sink) {
+        this(capacity, policy, Log.VERBOSE, sink);
+    }
+
+    /**
+     * @param capacity    - number of records that can be pending
+     * @param policy      - {@link LogRingBuffer#POLICY_DROP_NEWEST} or {@link LogRingBuffer#POLICY_OVERWRITE_OLDEST}
+     * @param minPriority - lowest priority that is enqueued, e.g. {@link Log#INFO}
+     * @param sink        - writes the records, only called on the drain thread
+     */
+    public AsyncTree(int capacity, int policy, int minPriority, LogRingBuffer.Consumer sink) {
+        this(capacity, policy, minPriority, sink, DEFAULT_THREAD_FACTORY);
+    }
+
+    /**
+     * @param capacity      - number of records that can be pending
+     * @param policy        - {@link LogRingBuffer#POLICY_DROP_NEWEST} or {@link LogRingBuffer#POLICY_OVERWRITE_OLDEST}
+     * @param minPriority   - lowest priority that is enqueued, e.g. {@link Log#INFO}
+     * @param sink          - writes the records, only called on the drain thread
+     * @param threadFactory - creates the drain thread, {@link #DEFAULT_THREAD_FACTORY} lowers its priority
+     */
+    public AsyncTree(int capacity, int policy, int minPriority, LogRingBuffer.Consumer sink,
+                     ThreadFactory threadFactory) {
+        mBuffer = new LogRingBuffer(capacity, policy);
+        mSink = checkNotNull(sink, "sink == null");
+        mMinPriority = minPriority;
+        mDrainThread = checkNotNull(threadFactory, "threadFactory == null").newThread(new Runnable() {
+            @Override
+            public void run() {
+                drainLoop();
+            }
+        });
+        mDrainThread.setDaemon(true);
+        mDrainThread.start();
+    }
+
+    @Override
+    protected boolean isLoggable(int priority) {
+        return priority >= mMinPriority;
+    }
+
+    @Override
+    protected void log(int priority, String tag, String message, Throwable t) {
+        if (priority < mMinPriority) {
+            return;
+        }
+        if (tag == null) {
+            tag = getCallerTag();
+        }
+        if (mBuffer.offer(System.currentTimeMillis(), priority, tag, message, t) && mDrainerWaiting) {
+            LockSupport.unpark(mDrainThread);
+        }
+    }
+
+    /**
+     * Creates the tag of the log calls of a class that do not have an explicit tag, called once per class.
+     *
+     * @param className - name of the calling class
+     * @return the tag, the simple name of the class without anonymous class suffixes by default
+     */
+    protected String createClassTag(String className) {
+        String tag = className.substring(className.lastIndexOf('.') + 1);
+        final Matcher matcher = ANONYMOUS_CLASS.matcher(tag);
+        if (matcher.find()) {
+            tag = matcher.replaceAll("");
+        }
+        return tag.length() > MAX_TAG_LENGTH ? tag.substring(0, MAX_TAG_LENGTH) : tag;
+    }
+
+    private String getCallerTag() {
+        final StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+        for (StackTraceElement element : stackTrace) {
+            final String className = element.getClassName();
+            if (className.startsWith(TIMBER_PACKAGE) || className.equals(LOGGER_CLASS)
+                    || className.equals(AsyncTree.class.getName()) || className.equals(getClass().getName())) {
+                continue;
+            }
+            String tag = mClassTags.get(className);
+            if (tag == null) {
+                tag = createClassTag(className);
+                mClassTags.put(className, tag);
+            }
+            return tag;
+        }
+        return DEFAULT_TAG;
+    }
+
+    /**
+     * Blocks until the records added before this call are written, e.g. before the process is killed.
+     *
+     * @return true if the records were written, false if it timed out
+     */
+    public boolean flush() {
+        if (Thread.currentThread() == mDrainThread) {
+            return false;
+        }
+        // a pending request is taken by the drain thread before it drains, so joining it is enough
+        CountDownLatch latch;
+        while ((latch = mFlushRequest.get()) == null) {
+            final CountDownLatch newLatch = new CountDownLatch(1);
+            if (mFlushRequest.compareAndSet(null, newLatch)) {
+                latch = newLatch;
+                break;
+            }
+        }
+        LockSupport.unpark(mDrainThread);
+        try {
+            return latch.await(FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Writes the pending records and stops the drain thread, records logged afterwards are discarded.
+     */
+    public void close() {
+        mClosed = true;
+        LockSupport.unpark(mDrainThread);
+        try {
+            mDrainThread.join(FLUSH_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return number of records written to the sink
+     */
+    public long getWrittenCount() {
+        return mWrittenCount;
+    }
+
+    /**
+     * @return number of records that were dropped or overwritten because the buffer was full
+     */
+    public long getDroppedCount() {
+        return mBuffer.getDroppedCount();
+    }
+
+    private void drainLoop() {
+        final LogRingBuffer.Consumer sink = new LogRingBuffer.Consumer() {
+            @Override
+            public void accept(long timeMillis, int priority, @Nullable String tag, String message,
+                               @Nullable Throwable t) {
+                try {
+                    mSink.accept(timeMillis, priority, tag, message, t);
+                } catch (RuntimeException e) {
+                    // there is nowhere left to log it, a failing sink must not stop the drain thread
+                }
+                mWrittenCount++;
+            }
+        };
+        while (true) {
+            final boolean closed = mClosed;
+            final CountDownLatch flushRequest = mFlushRequest.getAndSet(null);
+            while (mBuffer.drainTo(sink, DRAIN_BATCH) > 0) {
+                // keep draining until the buffer is empty
+            }
+            if (flushRequest != null) {
+                flushRequest.countDown();
+            }
+            if (closed) {
+                return;
+            }
+            mDrainerWaiting = true;
+            if (mBuffer.isEmpty() && !mClosed && mFlushRequest.get() == null) {
+                LockSupport.park(this);
+            }
+            mDrainerWaiting = false;
+        }
+    }
+
+    /**
+     * Writes records to logcat, splitting messages that exceed the logcat entry size.
+     */
+    public static class LogcatSink implements LogRingBuffer.Consumer {
+
+        private static final int MAX_LOG_LENGTH = 4000;
+
+        @Override
+        public void accept(long timeMillis, int priority, @Nullable String tag, String message,
+                           @Nullable Throwable t) {
+            // Timber already appended the stack trace of t to the message
+            if (message.length() <= MAX_LOG_LENGTH) {
+                Log.println(priority, tag, message);
+                return;
+            }
+            for (int i = 0, length = message.length(); i < length; i++) {
+                int newline = message.indexOf('\n', i);
+                newline = newline != -1 ? newline : length;
+                do {
+                    final int end = Math.min(newline, i + MAX_LOG_LENGTH);
+                    Log.println(priority, tag, message.substring(i, end));
+                    i = end;
+                } while (i < newline);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Inflates holders of {@link AsyncViewHolderPresenter}s on a background thread into a bounded buffer per view type.
+ * {@link PresenterAdapter#onCreateViewHolder(ViewGroup, int)} takes holders from the buffer first and falls back
+ * to inflating on the main thread if the buffer is empty. Every holder taken from a buffer is replaced in the background.
+ * <p>
+ * The worker thread has a looper, so views that create a {@link Handler} in their constructor can be inflated on it.
+ * <p>
+ * Holders are inflated without the factories of the activity's inflater, so AppCompat does not replace framework
+ * widgets by their AppCompat versions, e.g. a {@code TextView} stays a {@code TextView}, and {@code <fragment>}
+ * tags are not supported. Layouts of {@link AsyncViewHolderPresenter}s must declare AppCompat widgets explicitly
+ * where they need them, and must not depend on the factory, e.g. for {@code android:theme} on API < 21.
+ */
+public class AsyncViewHolderInflater {
+
+    private static final Logger LOG = Logger.forClass(AsyncViewHolderInflater.class);
+
+    private final SparseArray<TypeBuffer> mBuffers = new SparseArray<>();
+
+    private HandlerThread mWorkerThread;
+    private Handler mWorkerHandler;
+
+    private int mHitCount;
+    private int mMissCount;
+
+    /**
+     * Registers a presenter and starts filling its buffer.
+     *
+     * @param viewType   - view type the presenter was added to the adapter with
+     * @param presenter  - presenter that creates the holders
+     * @param parent     - parent the holders are inflated for, usually the recycler view
+     * @param bufferSize - maximum number of holders kept ready
+     */
+    @MainThread
+    public void register(int viewType, AsyncViewHolderPresenter presenter, ViewGroup parent, int bufferSize) {
+        checkNotNull(presenter, "presenter == null");
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive, was " + bufferSize);
+        }
+        // LayoutInflater is not thread safe, the worker gets its own instance. It is cloned from the application's
+        // inflater, which has no factory: the AppCompat factory of the activity's inflater caches constructors in
+        // a static map that is not thread safe, and would run on the worker and the main thread at the same time.
+        final Context context = parent.getContext();
+        LayoutInflater inflater = LayoutInflater.from(context.getApplicationContext()).cloneInContext(context);
+        TypeBuffer buffer = new TypeBuffer(presenter, parent, inflater, bufferSize);
+        mBuffers.put(viewType, buffer);
+        scheduleFill(buffer);
+    }
+
+    /**
+     * Takes a holder from the buffer of the view type and schedules its replacement.
+     *
+     * @param viewType - view type
+     * @return an inflated holder, null if the view type is not registered or its buffer is empty
+     */
+    @MainThread
+    @Nullable
+    public BaseViewHolder poll(int viewType) {
+        final TypeBuffer buffer = mBuffers.get(viewType);
+        if (buffer == null) {
+            return null;
+        }
+        final BaseViewHolder holder = buffer.mHolders.poll();
+        if (holder != null) {
+            mHitCount++;
+            buffer.mHitCount++;
+        } else {
+            mMissCount++;
+            buffer.mMissCount++;
+        }
+        scheduleFill(buffer);
+        return holder;
+    }
+
+    /**
+     * @return number of holders taken from a buffer
+     */
+    public int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return number of holders that had to be inflated on the main thread because a buffer was empty
+     */
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return ratio of holders taken from a buffer, 0 if no holder was requested yet
+     */
+    public float getHitRatio() {
+        final int total = mHitCount + mMissCount;
+        return total == 0 ? 0f : (float) mHitCount / total;
+    }
+
+    /**
+     * Logs the hit/miss counters per view type, to help sizing the buffers.
+     */
+    public void logStats() {
+        LOG.d("Async inflation hits= %d, misses= %d, hit ratio= %.2f", mHitCount, mMissCount, getHitRatio());
+        for (int i = 0, size = mBuffers.size(); i < size; i++) {
+            TypeBuffer buffer = mBuffers.valueAt(i);
+            LOG.d("ViewType= %d hits= %d, misses= %d, buffer size= %d", mBuffers.keyAt(i),
+                    buffer.mHitCount, buffer.mMissCount, buffer.mCapacity);
+        }
+    }
+
+    /**
+     * Drops all buffered holders and stops the worker thread.
+     */
+    @MainThread
+    public void release() {
+        for (int i = 0, size = mBuffers.size(); i < size; i++) {
+            mBuffers.valueAt(i).mHolders.clear();
+        }
+        mBuffers.clear();
+        if (mWorkerThread != null) {
+            mWorkerThread.quit();
+            mWorkerThread = null;
+            mWorkerHandler = null;
+        }
+    }
+
+    private void scheduleFill(final TypeBuffer buffer) {
+        while (buffer.mHolders.size() + buffer.mPending.get() < buffer.mCapacity) {
+            buffer.mPending.incrementAndGet();
+            getWorkerHandler().post(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        View itemView = buffer.mInflater.inflate(buffer.mPresenter.getLayoutResource(), buffer.mParent, false);
+                        buffer.mHolders.offer(buffer.mPresenter.onCreateViewHolder(itemView));
+                    } finally {
+                        buffer.mPending.decrementAndGet();
+                    }
+                }
+            });
+        }
+    }
+
+    private Handler getWorkerHandler() {
+        if (mWorkerHandler == null) {
+            mWorkerThread = new HandlerThread("AsyncViewHolderInflater", Process.THREAD_PRIORITY_BACKGROUND);
+            mWorkerThread.start();
+            mWorkerHandler = new Handler(mWorkerThread.getLooper());
+        }
+        return mWorkerHandler;
+    }
+
+    private static final class TypeBuffer {
+        final AsyncViewHolderPresenter mPresenter;
+        final ViewGroup mParent;
+        final LayoutInflater mInflater;
+        final int mCapacity;
+        final ArrayBlockingQueue<BaseViewHolder> mHolders;
+        final AtomicInteger mPending = new AtomicInteger();
+        int mHitCount;
+        int mMissCount;
+
+        TypeBuffer(AsyncViewHolderPresenter presenter, ViewGroup parent, LayoutInflater inflater, int capacity) {
+            mPresenter = presenter;
+            mParent = parent;
+            mInflater = inflater;
+            mCapacity = capacity;
+            mHolders = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.LayoutRes;
+import android.support.annotation.WorkerThread;
+import android.view.View;
+
+/**
+ * {@link ViewHolderPresenter} whose holders can be inflated off the main thread by an {@link AsyncViewHolderInflater}.
+ *
+ * @param <M> model type
+ */
+public interface AsyncViewHolderPresenter<M> extends ViewHolderPresenter<M> {
+
+    /**
+     * @return layout resource of the item view, inflated without the AppCompat view factory, see
+     * {@link AsyncViewHolderInflater}
+     */
+    @LayoutRes
+    int getLayoutResource();
+
+    /**
+     * Creates a holder for an item view inflated from {@link #getLayoutResource()}. Called on the inflater's
+     * worker thread, so it must only look up views and not touch any state shared with the main thread.
+     *
+     * @param itemView - inflated item view
+     * @return holder for the item view
+     */
+    @WorkerThread
+    BaseViewHolder onCreateViewHolder(View itemView);
+}
@@ -2,30 +2,149 @@ package com.dantann.recylerviewtemplate.framework;
 
 import android.app.Activity;
 import android.app.Application;
+import android.content.Context;
+import android.content.res.Configuration;
 import android.os.Bundle;
+import android.os.Handler;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewTreeObserver;
 
-import java.lang.ref.WeakReference;
-import java.util.concurrent.CopyOnWriteArrayList;
-
-import timber.log.Timber;
+import com.dantann.recylerviewtemplate.util.ResourceUtils;
 
 public class BaseApplication extends Application {
 
-    private CopyOnWriteArrayList<ApplicationStateCallbacks> mApplicationStateCallbacks = new CopyOnWriteArrayList<>();
+    private static final Logger LOG = Logger.forClass(BaseApplication.class);
+
+    private final CallbackRegistry<ApplicationStateCallbacks> mApplicationStateCallbacks = new CallbackRegistry<>();
+
+    /**
+     * Number of activities between onStart and onStop
+     */
+    private int mStartedActivityCount;
+
+    private boolean mForeground;
+
+    private PresenterViewPool mSharedViewPool;
+
+    private Reconfigurator mReconfigurator;
+
+    /**
+     * Created with the application, so the timeline starts as early as possible
+     */
+    private final StartupTimeline mStartupTimeline = new StartupTimeline();
+
+    private AppInitializer mInitializer;
+
+    private IdleWorkScheduler mIdleWorkScheduler;
 
     @Override
     public void onCreate() {
         super.onCreate();
+        final long createStart = System.nanoTime();
+        // runs right after onCreate of the subclass returns, before the first activity is launched
+        new Handler().postAtFrontOfQueue(new Runnable() {
+            @Override
+            public void run() {
+                mStartupTimeline.addPhase(StartupTimeline.APPLICATION_CREATE, createStart, System.nanoTime());
+            }
+        });
+        mReconfigurator = new Reconfigurator(this);
+        mInitializer = new AppInitializer(this, mStartupTimeline);
+        mIdleWorkScheduler = new IdleWorkScheduler();
         registerActivityLifecycleCallbacks(new ActivityLifecycleCallbacksInternal());
     }
 
     /**
-     * Registers {@link ApplicationStateCallbacks}
+     * Returns the timeline of the cold start of the process.
+     *
+     * @return {@link StartupTimeline}
+     */
+    public StartupTimeline getStartupTimeline() {
+        return mStartupTimeline;
+    }
+
+    /**
+     * Adds a task to the {@link AppInitializer}, to be run by {@link #startInitTasks()}.
+     *
+     * @param task - {@link InitTask}
+     */
+    @MainThread
+    public void addInitTask(InitTask task) {
+        mInitializer.add(task);
+    }
+
+    /**
+     * Runs the added init tasks, blocking only until the ones that require the main thread completed.
+     * Deferrable tasks run once the main thread is idle, or earlier through {@link #requireInitTask(String)}.
+     */
+    @MainThread
+    public void startInitTasks() {
+        mInitializer.start();
+        mInitializer.scheduleDeferredOnIdle();
+    }
+
+    /**
+     * Blocks until an init task completed, running it first if it was deferred.
+     *
+     * @param name - name of the {@link InitTask}
+     */
+    public void requireInitTask(String name) {
+        mInitializer.require(name);
+    }
+
+    public AppInitializer getInitializer() {
+        return mInitializer;
+    }
+
+    /**
+     * Returns the scheduler of low priority jobs that run while the app is in the foreground and idle.
+     *
+     * @return application {@link IdleWorkScheduler}
+     */
+    public IdleWorkScheduler getIdleWorkScheduler() {
+        return mIdleWorkScheduler;
+    }
+
+    /**
+     * Records the first layout of a view, e.g. the RecyclerView of the first screen, in the {@link StartupTimeline}.
+     *
+     * @param view - view whose first layout is recorded
+     */
+    @MainThread
+    public void trackFirstLayout(View view) {
+        final ViewTreeObserver observer = view.getViewTreeObserver();
+        observer.addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
+            @Override
+            public void onGlobalLayout() {
+                mStartupTimeline.mark(StartupTimeline.FIRST_LAYOUT);
+                if (observer.isAlive()) {
+                    observer.removeOnGlobalLayoutListener(this);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the {@link BaseApplication} of a context.
+     *
+     * @param context - any context of the application
+     * @return the application, null if it does not extend {@link BaseApplication}
+     */
+    @Nullable
+    public static BaseApplication from(Context context) {
+        final Context appContext = context.getApplicationContext();
+        return appContext instanceof BaseApplication ? (BaseApplication) appContext : null;
+    }
+
+    /**
+     * Registers {@link ApplicationStateCallbacks}, which also receive the activity lifecycle callbacks.
      *
      * @param callback - {@link ApplicationStateCallbacks}
      */
+    @MainThread
     public void registerActivityLifecycleCallbacks(ApplicationStateCallbacks callback) {
-        registerActivityLifecycleCallbacks(callback);
         mApplicationStateCallbacks.add(callback);
     }
 
@@ -34,72 +153,251 @@ public class BaseApplication extends Application {
      *
      * @param callback - {@link ApplicationStateCallbacks}
      */
+    @MainThread
     public void unregisterActivityLifecycleCallbacks(ApplicationStateCallbacks callback) {
-        unregisterActivityLifecycleCallbacks(callback);
         mApplicationStateCallbacks.remove(callback);
     }
 
+    /**
+     * @return true if at least one activity is started, or one is being recreated for a configuration change
+     */
+    @MainThread
+    public boolean isInForeground() {
+        return mForeground;
+    }
+
+    /**
+     * Returns the {@link PresenterViewPool} shared by all screens of the application.
+     *
+     * @return shared {@link PresenterViewPool}
+     */
+    @MainThread
+    public PresenterViewPool getSharedViewPool() {
+        if (mSharedViewPool == null) {
+            mSharedViewPool = new PresenterViewPool();
+        }
+        return mSharedViewPool;
+    }
+
+    /**
+     * Returns the {@link Reconfigurator} that applies preference changes live or by restarting.
+     *
+     * @return application {@link Reconfigurator}
+     */
+    public Reconfigurator getReconfigurator() {
+        return mReconfigurator;
+    }
+
+    /**
+     * Registers a component that applies preference changes without restarting the app.
+     *
+     * @param component - {@link Reconfigurable}
+     */
+    @MainThread
+    public void registerReconfigurable(Reconfigurable component) {
+        mReconfigurator.register(component);
+    }
+
+    /**
+     * Unregisters a component added by {@link #registerReconfigurable(Reconfigurable)}.
+     *
+     * @param component - {@link Reconfigurable}
+     */
+    @MainThread
+    public void unregisterReconfigurable(Reconfigurable component) {
+        mReconfigurator.unregister(component);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // the density or font scale may have changed
+        ResourceUtils.onConfigurationChanged(getResources());
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            if (mSharedViewPool != null) {
+                mSharedViewPool.clear();
+            }
+            // background processes can be killed without notice
+            PreferenceWriter.commitAllAsync();
+        }
+    }
+
     private void notifyApplicationEnterForeground() {
-        Timber.d("Application is entering foreground.");
-        for (ApplicationStateCallbacks callbacks : mApplicationStateCallbacks) {
-            callbacks.onApplicationEnterForeground();
+        LOG.d("Application is entering foreground.");
+        mIdleWorkScheduler.onEnterForeground();
+        final Object[] callbacks = mApplicationStateCallbacks.beginDispatch();
+        try {
+            for (Object callback : callbacks) {
+                if (callback == null) {
+                    break;
+                }
+                ((ApplicationStateCallbacks) callback).onApplicationEnterForeground();
+            }
+        } finally {
+            mApplicationStateCallbacks.endDispatch();
         }
     }
 
     private void notifyApplicationEnterBackground() {
-        Timber.d("Application is entering background.");
-        for (ApplicationStateCallbacks callbacks : mApplicationStateCallbacks) {
-            callbacks.onApplicationEnterBackground();
+        LOG.d("Application is entering background.");
+        mIdleWorkScheduler.onEnterBackground();
+        final Object[] callbacks = mApplicationStateCallbacks.beginDispatch();
+        try {
+            for (Object callback : callbacks) {
+                if (callback == null) {
+                    break;
+                }
+                ((ApplicationStateCallbacks) callback).onApplicationEnterBackground();
+            }
+        } finally {
+            mApplicationStateCallbacks.endDispatch();
         }
     }
 
-    private class ActivityLifecycleCallbacksInternal extends AbstractActivityLifecycleCallbacks {
+    /**
+     * Tracks the application state and forwards the activity lifecycle to the {@link ApplicationStateCallbacks}.
+     */
+    private class ActivityLifecycleCallbacksInternal implements ActivityLifecycleCallbacks {
+
+        private static final int CREATED = 0;
+        private static final int STARTED = 1;
+        private static final int RESUMED = 2;
+        private static final int PAUSED = 3;
+        private static final int STOPPED = 4;
+        private static final int SAVE_INSTANCE_STATE = 5;
+        private static final int DESTROYED = 6;
 
-        private WeakReference<Activity> mWeakActivityRef;
+        private boolean mResumedOnce;
 
         @Override
         public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
-            super.onActivityCreated(activity, savedInstanceState);
-            if (mWeakActivityRef == null) {
-                notifyApplicationEnterForeground();
-            }
-            if (mWeakActivityRef == null || mWeakActivityRef.get() != activity) {
-                mWeakActivityRef = new WeakReference<>(activity);
-            }
+            mStartupTimeline.mark(StartupTimeline.FIRST_ACTIVITY_CREATED);
+            dispatch(CREATED, activity, savedInstanceState);
         }
 
         @Override
         public void onActivityStarted(Activity activity) {
-            if (mWeakActivityRef == null) {
+            mStartedActivityCount++;
+            if (!mForeground) {
+                mForeground = true;
                 notifyApplicationEnterForeground();
             }
-            if (mWeakActivityRef == null || mWeakActivityRef.get() != activity) {
-                mWeakActivityRef = new WeakReference<>(activity);
-            }
+            dispatch(STARTED, activity, null);
         }
 
         @Override
         public void onActivityResumed(Activity activity) {
-            if (mWeakActivityRef != null && mWeakActivityRef.get() != activity) {
-                mWeakActivityRef = new WeakReference<>(activity);
+            if (!mResumedOnce) {
+                mResumedOnce = true;
+                mStartupTimeline.mark(StartupTimeline.FIRST_ACTIVITY_RESUMED);
+                trackFirstFrame(activity.getWindow().getDecorView());
+                mReconfigurator.onFirstActivityResumed();
             }
+            dispatch(RESUMED, activity, null);
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+            dispatch(PAUSED, activity, null);
         }
 
         @Override
         public void onActivityStopped(Activity activity) {
-            if (mWeakActivityRef != null && mWeakActivityRef.get() == activity
-                    && !activity.isChangingConfigurations()) {
-                mWeakActivityRef = null;
+            dispatch(STOPPED, activity, null);
+            if (mStartedActivityCount > 0) {
+                mStartedActivityCount--;
+            }
+            // an activity recreated for a configuration change is started again right away
+            if (mStartedActivityCount == 0 && mForeground && !activity.isChangingConfigurations()) {
+                mForeground = false;
                 notifyApplicationEnterBackground();
             }
         }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+            dispatch(SAVE_INSTANCE_STATE, activity, outState);
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            // pooled holders reference the context they were inflated with
+            if (mSharedViewPool != null) {
+                mSharedViewPool.removeHolders(activity);
+            }
+            dispatch(DESTROYED, activity, null);
+        }
+
+        private void dispatch(int event, Activity activity, @Nullable Bundle bundle) {
+            final Object[] callbacks = mApplicationStateCallbacks.beginDispatch();
+            try {
+                for (Object object : callbacks) {
+                    if (object == null) {
+                        break;
+                    }
+                    final ApplicationStateCallbacks callback = (ApplicationStateCallbacks) object;
+                    switch (event) {
+                        case CREATED:
+                            callback.onActivityCreated(activity, bundle);
+                            break;
+                        case STARTED:
+                            callback.onActivityStarted(activity);
+                            break;
+                        case RESUMED:
+                            callback.onActivityResumed(activity);
+                            break;
+                        case PAUSED:
+                            callback.onActivityPaused(activity);
+                            break;
+                        case STOPPED:
+                            callback.onActivityStopped(activity);
+                            break;
+                        case SAVE_INSTANCE_STATE:
+                            callback.onActivitySaveInstanceState(activity, bundle);
+                            break;
+                        case DESTROYED:
+                            callback.onActivityDestroyed(activity);
+                            break;
+                    }
+                }
+            } finally {
+                mApplicationStateCallbacks.endDispatch();
+            }
+        }
+    }
+
+    private void trackFirstFrame(final View decorView) {
+        final ViewTreeObserver observer = decorView.getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if (observer.isAlive()) {
+                    observer.removeOnPreDrawListener(this);
+                }
+                // posted messages run once the traversal that draws the frame is done
+                decorView.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (mStartupTimeline.mark(StartupTimeline.FIRST_FRAME_DRAWN)) {
+                            mStartupTimeline.dump();
+                        }
+                    }
+                });
+                return true;
+            }
+        });
     }
 
     /**
      * {@link android.app.Application.ActivityLifecycleCallbacks} that also has callbacks for the
-     * application state.
+     * application state. Static, so registered callbacks do not reference the application.
      */
-    public abstract class ApplicationStateCallbacks extends AbstractActivityLifecycleCallbacks {
+    public static abstract class ApplicationStateCallbacks extends AbstractActivityLifecycleCallbacks {
 
         /**
          * Called when the application enters the foreground
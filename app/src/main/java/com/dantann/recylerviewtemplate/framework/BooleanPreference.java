@@ -0,0 +1,41 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.SharedPreferences;
+
+/**
+ * Preference holding a boolean, cached in memory, see {@link CachedPreference}.
+ */
+public class BooleanPreference extends CachedPreference<Boolean> {
+
+    private static final Logger LOG = Logger.forClass(BooleanPreference.class);
+
+    public BooleanPreference(SharedPreferences preferences, String key, boolean defaultValue) {
+        super(preferences, key, defaultValue);
+    }
+
+    /**
+     * @return the value without boxing a new object
+     */
+    public boolean getBoolean() {
+        return get();
+    }
+
+    public void set(boolean value) {
+        set((Boolean) value);
+    }
+
+    @Override
+    protected Boolean read(PreferenceWriter writer, String key, Boolean defaultValue) {
+        try {
+            return writer.getBoolean(key, defaultValue);
+        } catch (ClassCastException e) {
+            LOG.w(e, "Preference %s is not a boolean", key);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    protected Object write(Boolean value) {
+        return value;
+    }
+}
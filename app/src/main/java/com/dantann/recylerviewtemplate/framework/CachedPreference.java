@@ -0,0 +1,210 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.SharedPreferences;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Base class of typed preferences that keep their value in memory. The value is read and parsed once,
+ * after that {@link #get()} is a single volatile field load. A value read from disk is only stored if the preference
+ * was neither set nor invalidated during the read, so a concurrent {@link #set(Object)} is never overwritten.
+ * The cached value is invalidated when the key changes to another value in the {@link SharedPreferences}, so writes
+ * made elsewhere are picked up on the next read, while the commits of this preference's own writes are ignored.
+ * <p>
+ * Values are written asynchronously through the {@link PreferenceWriter} of the preferences.
+ * Changes can be observed with {@link #addListener(OnChangeListener, Executor, long)}.
+ *
+ * @param <T> type of the value
+ */
+public abstract class CachedPreference<T> implements SharedPreferences.OnSharedPreferenceChangeListener {
+
+    /**
+     * Debounce time of listeners added without one
+     */
+    public static final long DEFAULT_DEBOUNCE_MS = 50;
+
+    /**
+     * Receives changes of a preference's value.
+     */
+    public interface OnChangeListener<T> {
+
+        /**
+         * @param preference - preference that changed
+         * @param value      - current value
+         */
+        void onPreferenceChanged(CachedPreference<T> preference, T value);
+    }
+
+    protected final PreferenceWriter mWriter;
+    protected final String mKey;
+    protected final T mDefaultValue;
+
+    /**
+     * Cached value, or a {@link NotLoaded} marker that is replaced by each invalidation
+     */
+    private final AtomicReference<Object> mCachedValue = new AtomicReference<Object>(new NotLoaded());
+
+    @Nullable
+    private volatile PreferenceChangeDispatcher<T> mDispatcher;
+
+    protected CachedPreference(SharedPreferences preferences, String key, T defaultValue) {
+        mWriter = PreferenceWriter.get(preferences);
+        mKey = checkNotNull(key, "key == null");
+        mDefaultValue = defaultValue;
+        // the preferences only keep a weak reference to their listeners
+        preferences.registerOnSharedPreferenceChangeListener(this);
+    }
+
+    public String getKey() {
+        return mKey;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get() {
+        while (true) {
+            final Object cached = mCachedValue.get();
+            if (!(cached instanceof NotLoaded)) {
+                return (T) cached;
+            }
+            final T value = readValue();
+            // fails if the value was set or invalidated during the read, the read value may be stale then
+            if (mCachedValue.compareAndSet(cached, value)) {
+                return value;
+            }
+        }
+    }
+
+    public boolean isSet() {
+        return mWriter.contains(mKey);
+    }
+
+    /**
+     * @param value - new value, null deletes the preference
+     */
+    public void set(@Nullable T value) {
+        if (value == null) {
+            delete();
+            return;
+        }
+        mCachedValue.set(value);
+        mWriter.put(mKey, write(value));
+        dispatchChange();
+    }
+
+    public void delete() {
+        mCachedValue.set(mDefaultValue);
+        mWriter.remove(mKey);
+        dispatchChange();
+    }
+
+    /**
+     * Blocks until written values are committed to disk.
+     */
+    public void flush() {
+        mWriter.flush();
+    }
+
+    /**
+     * Drops the cached value, so the next read goes to the preferences.
+     */
+    public void invalidate() {
+        // a new marker, so a read that started before the invalidation can not store its value
+        mCachedValue.set(new NotLoaded());
+    }
+
+    @Override
+    public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+        if (!mKey.equals(key)) {
+            return;
+        }
+        final Object cached = mCachedValue.get();
+        if (!(cached instanceof NotLoaded)) {
+            // the commits of set() and delete() notify too, their value is cached and was dispatched already
+            final T value = readValue();
+            if (value == null ? cached == null : value.equals(cached)) {
+                return;
+            }
+        }
+        invalidate();
+        dispatchChange();
+    }
+
+    /**
+     * Adds a listener that is called on the main thread after {@link #DEFAULT_DEBOUNCE_MS}.
+     *
+     * @see #addListener(OnChangeListener, Executor, long)
+     */
+    public void addListener(OnChangeListener<T> listener) {
+        addListener(listener, MainThreadExecutor.getInstance(), DEFAULT_DEBOUNCE_MS);
+    }
+
+    /**
+     * Adds a listener that is called when the value changed. Changes within the debounce time are coalesced
+     * and the listener is only called if the value differs from the one it received last.
+     * The listener is referenced weakly, the caller has to keep a reference to it.
+     *
+     * @param listener       - listener to add
+     * @param executor       - executor the listener is called on
+     * @param debounceMillis - time without changes before the listener is called
+     */
+    public void addListener(OnChangeListener<T> listener, Executor executor, long debounceMillis) {
+        getDispatcher().addListener(listener, executor, debounceMillis);
+    }
+
+    public void removeListener(OnChangeListener<T> listener) {
+        final PreferenceChangeDispatcher<T> dispatcher = mDispatcher;
+        if (dispatcher != null) {
+            dispatcher.removeListener(listener);
+        }
+    }
+
+    private T readValue() {
+        return mWriter.contains(mKey) ? read(mWriter, mKey, mDefaultValue) : mDefaultValue;
+    }
+
+    private void dispatchChange() {
+        final PreferenceChangeDispatcher<T> dispatcher = mDispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatchChange();
+        }
+    }
+
+    private PreferenceChangeDispatcher<T> getDispatcher() {
+        PreferenceChangeDispatcher<T> dispatcher = mDispatcher;
+        if (dispatcher == null) {
+            synchronized (this) {
+                dispatcher = mDispatcher;
+                if (dispatcher == null) {
+                    dispatcher = new PreferenceChangeDispatcher<>(this);
+                    mDispatcher = dispatcher;
+                }
+            }
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Reads and parses the value of a key that is set.
+     *
+     * @param writer       - writer to read from, it also returns pending values
+     * @param key          - preference key
+     * @param defaultValue - value to return if the stored value can not be parsed
+     * @return the stored value
+     */
+    protected abstract T read(PreferenceWriter writer, String key, T defaultValue);
+
+    /**
+     * Converts a value to a type {@link PreferenceWriter#put(String, Object)} accepts.
+     *
+     * @param value - value to write
+     * @return value to store
+     */
+    protected abstract Object write(T value);
+
+    private static final class NotLoaded {
+    }
+}
@@ -0,0 +1,105 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Registry of callbacks with constant time registration and allocation free dispatch.
+ * <p>
+ * Callbacks are kept densely in an array, removal moves the last callback into the freed slot, so the
+ * dispatch order is not the registration order. A dispatch iterates a snapshot of the array: callbacks
+ * added or removed during a dispatch take effect with the next one, the array is only copied if that happens.
+ * <p>
+ * Not thread safe, all methods are expected to be called on the main thread.
+ *
+ * @param <T> type of the callbacks
+ */
+final class CallbackRegistry<T> {
+
+    private Object[] mCallbacks = new Object[4];
+    private int mSize;
+
+    /**
+     * Index of each callback in the array, callbacks are compared by identity
+     */
+    private final IdentityHashMap<T, Integer> mIndices = new IdentityHashMap<>();
+
+    private int mDispatchDepth;
+
+    /**
+     * True if the array handed out to the running dispatch must not be modified anymore
+     */
+    private boolean mSnapshotShared;
+
+    /**
+     * @param callback - callback to add
+     * @return true if the callback was added, false if it was already registered
+     */
+    boolean add(T callback) {
+        checkNotNull(callback, "callback == null");
+        if (mIndices.containsKey(callback)) {
+            return false;
+        }
+        if (mSize == mCallbacks.length) {
+            mCallbacks = Arrays.copyOf(mCallbacks, mSize * 2);
+            mSnapshotShared = false;
+        } else {
+            copyIfShared();
+        }
+        mCallbacks[mSize] = callback;
+        mIndices.put(callback, mSize);
+        mSize++;
+        return true;
+    }
+
+    /**
+     * @param callback - callback to remove
+     * @return true if the callback was removed, false if it was not registered
+     */
+    boolean remove(T callback) {
+        final Integer index = mIndices.remove(callback);
+        if (index == null) {
+            return false;
+        }
+        copyIfShared();
+        final int last = --mSize;
+        if (index != last) {
+            @SuppressWarnings("unchecked")
+            final T moved = (T) mCallbacks[last];
+            mCallbacks[index] = moved;
+            mIndices.put(moved, index);
+        }
+        mCallbacks[last] = null;
+        return true;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * Starts a dispatch, must be followed by {@link #endDispatch()}.
+     *
+     * @return snapshot of the callbacks, terminated by null if it is not full
+     */
+    Object[] beginDispatch() {
+        mDispatchDepth++;
+        mSnapshotShared = true;
+        return mCallbacks;
+    }
+
+    void endDispatch() {
+        if (--mDispatchDepth == 0) {
+            mSnapshotShared = false;
+        }
+    }
+
+    private void copyIfShared() {
+        if (mSnapshotShared) {
+            mCallbacks = mCallbacks.clone();
+            mSnapshotShared = false;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.os.Parcelable;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link ViewHolderPresenter} for rows that contain a horizontal list, e.g. carousels in a vertical feed.
+ * <p>
+ * All nested lists created by the presenter share one {@link PresenterViewPool}, so a child holder inflated for
+ * one carousel is reused by every other carousel. The scroll position of a nested list is saved when its row is
+ * recycled and restored when a row for the same item is bound again, keyed by {@link #getScrollStateKey(Object)}.
+ *
+ * @param <M> model type of the row
+ * @param <A> adapter type of the nested list
+ */
+public abstract class CarouselPresenter<M, A extends PresenterAdapter> implements ViewHolderPresenter<M> {
+
+    private static final Logger LOG = Logger.forClass(CarouselPresenter.class);
+
+    /**
+     * Maximum number of scroll states kept, the least recently used one is dropped first
+     */
+    private static final int MAX_SCROLL_STATES = 200;
+
+    private final PresenterViewPool mChildViewPool;
+
+    private final LinkedHashMap<Object, Parcelable> mScrollStates =
+            new LinkedHashMap<Object, Parcelable>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Parcelable> eldest) {
+                    return size() > MAX_SCROLL_STATES;
+                }
+            };
+
+    @Nullable
+    private PresenterMetrics mChildMetrics;
+
+    public CarouselPresenter() {
+        this(new PresenterViewPool());
+    }
+
+    /**
+     * @param childViewPool - pool shared by the nested lists, e.g. {@link BaseApplication#getSharedViewPool()}
+     */
+    public CarouselPresenter(PresenterViewPool childViewPool) {
+        mChildViewPool = childViewPool;
+    }
+
+    /**
+     * Creates the holder of a row. The holder's recycler view gets a horizontal {@link LinearLayoutManager}
+     * if it has no layout manager.
+     *
+     * @param parent - parent of the row
+     * @return holder of the row
+     */
+    protected abstract CarouselViewHolder<M, A> onCreateCarouselViewHolder(ViewGroup parent);
+
+    /**
+     * Creates the adapter of a nested list. Presenters must be added to it through
+     * {@link PresenterViewPool#addPresenter(PresenterAdapter, ViewHolderPresenter)} of the given pool,
+     * so view types are consistent across all nested lists.
+     *
+     * @param childViewPool - pool shared by the nested lists
+     * @return adapter of the nested list
+     */
+    protected abstract A onCreateChildAdapter(PresenterViewPool childViewPool);
+
+    /**
+     * Binds the model of the row to the adapter of its nested list.
+     *
+     * @param adapter - adapter of the nested list
+     * @param model   - model of the row
+     */
+    protected abstract void onBindChildAdapter(A adapter, M model);
+
+    /**
+     * Returns the key the scroll position of a row is saved under. Defaults to the stable id of
+     * {@link Identifiable} and {@link KeyIdentifiable} models and to the model itself otherwise.
+     *
+     * @param model - model of the row
+     * @return key identifying the row
+     */
+    protected Object getScrollStateKey(M model) {
+        if (model instanceof Identifiable) {
+            return ((Identifiable) model).getStableId();
+        }
+        if (model instanceof KeyIdentifiable) {
+            return ((KeyIdentifiable) model).getStableKey();
+        }
+        return model;
+    }
+
+    @Override
+    public BaseViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        CarouselViewHolder<M, A> holder = onCreateCarouselViewHolder(parent);
+        RecyclerView recyclerView = holder.getRecyclerView();
+        if (recyclerView.getLayoutManager() == null) {
+            recyclerView.setLayoutManager(new LinearLayoutManager(parent.getContext(), LinearLayoutManager.HORIZONTAL, false));
+        }
+        A adapter = onCreateChildAdapter(mChildViewPool);
+        adapter.setMetrics(mChildMetrics);
+        recyclerView.setAdapter(adapter);
+        mChildViewPool.attach(recyclerView);
+        holder.setAdapter(adapter);
+        return holder;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onBindViewHolder(BaseViewHolder holder, M model) {
+        CarouselViewHolder<M, A> carouselHolder = (CarouselViewHolder<M, A>) holder;
+        if (carouselHolder.getModel() != null) {
+            // rebound without being recycled first
+            saveScrollState(carouselHolder);
+        }
+        carouselHolder.setModel(model);
+        onBindChildAdapter(carouselHolder.getAdapter(), model);
+        restoreScrollState(carouselHolder, model);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onUnbindViewHolder(BaseViewHolder holder) {
+        CarouselViewHolder<M, A> carouselHolder = (CarouselViewHolder<M, A>) holder;
+        if (carouselHolder.getModel() != null) {
+            saveScrollState(carouselHolder);
+            carouselHolder.setModel(null);
+        }
+    }
+
+    /**
+     * Inflates child holders while the main thread is idle, so the first carousels do not inflate their
+     * visible items during layout. Use the number of items initially visible in a carousel as count.
+     *
+     * @param parent                   - parent the holders are inflated for
+     * @param childPresenterClass      - presenter class added through the child pool
+     * @param initialPrefetchItemCount - number of child holders to inflate
+     */
+    public void preWarmChildren(ViewGroup parent, Class<? extends ViewHolderPresenter> childPresenterClass,
+                                int initialPrefetchItemCount) {
+        mChildViewPool.preWarm(parent, childPresenterClass, initialPrefetchItemCount);
+    }
+
+    /**
+     * Sets the metrics the nested lists record their latencies to. Only applies to rows created afterwards.
+     *
+     * @param childMetrics - metrics shared by the nested lists, null to disable recording
+     */
+    public void setChildMetrics(@Nullable PresenterMetrics childMetrics) {
+        mChildMetrics = childMetrics;
+    }
+
+    public PresenterViewPool getChildViewPool() {
+        return mChildViewPool;
+    }
+
+    /**
+     * Drops all saved scroll positions.
+     */
+    public void clearScrollStates() {
+        mScrollStates.clear();
+    }
+
+    /**
+     * Logs the counters of the child pool and the latencies of the nested lists.
+     */
+    public void logStats() {
+        LOG.d("%s saved scroll states= %d", getClass().getSimpleName(), mScrollStates.size());
+        mChildViewPool.logStats();
+        if (mChildMetrics != null) {
+            mChildMetrics.log();
+        }
+    }
+
+    private void saveScrollState(CarouselViewHolder<M, A> holder) {
+        RecyclerView.LayoutManager layoutManager = holder.getRecyclerView().getLayoutManager();
+        Parcelable state = layoutManager.onSaveInstanceState();
+        if (state != null) {
+            mScrollStates.put(getScrollStateKey(holder.getModel()), state);
+        }
+    }
+
+    private void restoreScrollState(CarouselViewHolder<M, A> holder, M model) {
+        RecyclerView.LayoutManager layoutManager = holder.getRecyclerView().getLayoutManager();
+        Parcelable state = mScrollStates.get(getScrollStateKey(model));
+        if (state != null) {
+            layoutManager.onRestoreInstanceState(state);
+        } else {
+            layoutManager.scrollToPosition(0);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+/**
+ * {@link BaseViewHolder} of a row that contains a nested {@link RecyclerView}, used by {@link CarouselPresenter}.
+ *
+ * @param <M> model type of the row
+ * @param <A> adapter type of the nested list
+ */
+public class CarouselViewHolder<M, A extends PresenterAdapter> extends BaseViewHolder<M> {
+
+    private final RecyclerView mRecyclerView;
+    private A mAdapter;
+
+    public CarouselViewHolder(View itemView, RecyclerView recyclerView) {
+        super(itemView);
+        mRecyclerView = recyclerView;
+    }
+
+    public RecyclerView getRecyclerView() {
+        return mRecyclerView;
+    }
+
+    public A getAdapter() {
+        return mAdapter;
+    }
+
+    void setAdapter(A adapter) {
+        mAdapter = adapter;
+    }
+}
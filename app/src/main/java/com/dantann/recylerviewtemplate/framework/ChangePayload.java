@@ -0,0 +1,63 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * Change payload that describes which fields of a model changed as a bit mask.
+ * Presenters define their own flags, e.g. {@code FLAG_LIKES = 1 << 0}.
+ */
+public final class ChangePayload {
+
+    /**
+     * All flags set, used when the payloads can not be interpreted and a full rebind is needed.
+     */
+    public static final int FLAGS_ALL = ~0;
+
+    private final int mFlags;
+
+    private ChangePayload(int flags) {
+        mFlags = flags;
+    }
+
+    /**
+     * @param flags - bit mask of changed fields
+     * @return payload for the given flags, null if no flags are set
+     */
+    @Nullable
+    public static ChangePayload of(int flags) {
+        return flags == 0 ? null : new ChangePayload(flags);
+    }
+
+    public int getFlags() {
+        return mFlags;
+    }
+
+    public boolean hasChanged(int flag) {
+        return (mFlags & flag) != 0;
+    }
+
+    /**
+     * Merges the flags of all payloads. If a payload is not a {@link ChangePayload}, {@link #FLAGS_ALL} is returned.
+     *
+     * @param payloads - payloads passed to the bind call
+     * @return merged bit mask of changed fields
+     */
+    public static int collectFlags(List<Object> payloads) {
+        int flags = 0;
+        for (int i = 0, size = payloads.size(); i < size; i++) {
+            Object payload = payloads.get(i);
+            if (!(payload instanceof ChangePayload)) {
+                return FLAGS_ALL;
+            }
+            flags |= ((ChangePayload) payload).mFlags;
+        }
+        return flags;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangePayload{flags=" + Integer.toBinaryString(mFlags) + "}";
+    }
+}
@@ -0,0 +1,40 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.SharedPreferences;
+
+/**
+ * Preference holding an enum constant, stored by name and cached in memory, see {@link CachedPreference}.
+ * The name is only parsed when the value is loaded.
+ *
+ * @param <E> enum type
+ */
+public class EnumPreference<E extends Enum<E>> extends CachedPreference<E> {
+
+    private static final Logger LOG = Logger.forClass(EnumPreference.class);
+
+    private final Class<E> mEnumClass;
+
+    public EnumPreference(SharedPreferences preferences, String key, Class<E> enumClass, E defaultValue) {
+        super(preferences, key, defaultValue);
+        mEnumClass = enumClass;
+    }
+
+    @Override
+    protected E read(PreferenceWriter writer, String key, E defaultValue) {
+        final String name = writer.getString(key, null);
+        if (name == null) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(mEnumClass, name);
+        } catch (IllegalArgumentException e) {
+            LOG.w("Unknown %s constant %s for preference %s", mEnumClass.getSimpleName(), name, key);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    protected Object write(E value) {
+        return value.name();
+    }
+}
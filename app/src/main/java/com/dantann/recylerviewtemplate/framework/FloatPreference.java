@@ -0,0 +1,41 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.SharedPreferences;
+
+/**
+ * Preference holding a float, cached in memory, see {@link CachedPreference}.
+ */
+public class FloatPreference extends CachedPreference<Float> {
+
+    private static final Logger LOG = Logger.forClass(FloatPreference.class);
+
+    public FloatPreference(SharedPreferences preferences, String key, float defaultValue) {
+        super(preferences, key, defaultValue);
+    }
+
+    /**
+     * @return the value without boxing a new object
+     */
+    public float getFloat() {
+        return get();
+    }
+
+    public void set(float value) {
+        set((Float) value);
+    }
+
+    @Override
+    protected Float read(PreferenceWriter writer, String key, Float defaultValue) {
+        try {
+            return writer.getFloat(key, defaultValue);
+        } catch (ClassCastException e) {
+            LOG.w(e, "Preference %s is not a float", key);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    protected Object write(Float value) {
+        return value;
+    }
+}
@@ -0,0 +1,208 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.graphics.Rect;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+import android.util.SparseArray;
+import android.view.View;
+
+/**
+ * {@link RecyclerView.ItemDecoration} adding equal gutters between the items of a {@link GridLayoutManager},
+ * {@link StaggeredGridLayoutManager} or {@link LinearLayoutManager}, and edge insets around them.
+ * <p>
+ * The offsets of the spans are split so every span keeps the same width, the gutter between two items is always
+ * {@code spacing} and the first and last span get {@code edge}, e.g. with 3 spans, a spacing of 12 and an edge of
+ * 0 the spans get the offsets 0|8, 4|4 and 8|0. Items spanning several spans line up with the items of the single
+ * spans. The orientation, reverse layout and RTL of the layout manager are followed.
+ * <p>
+ * The span index and size are read from the layout params the layout manager assigned, which the span size
+ * lookup computed once when the item was laid out. Only items within spanCount of the start or the end of the list
+ * can be on the first or last line, so whether they are is worked out from at most spanCount span sizes, and
+ * {@link #getItemOffsets(Rect, View, RecyclerView, RecyclerView.State)} is O(spanCount) and does not allocate,
+ * however long the list is. No state is kept per position, so adapter changes need no invalidation.
+ * A {@link StaggeredGridLayoutManager} places the items lazily, its last spanCount items get the end edge.
+ */
+public final class GridSpacingItemDecoration extends RecyclerView.ItemDecoration {
+
+    private final int mSpacing;
+    private final int mEdge;
+
+    /**
+     * Fixed offsets of view types, e.g. of full width headers
+     */
+    private final SparseArray<Rect> mViewTypeOffsets = new SparseArray<>();
+
+    /**
+     * @param spacing - gutter between two items in pixels
+     */
+    public GridSpacingItemDecoration(int spacing) {
+        this(spacing, spacing);
+    }
+
+    /**
+     * @param spacing - gutter between two items in pixels
+     * @param edge    - inset between the items and the edges of the list in pixels
+     */
+    public GridSpacingItemDecoration(int spacing, int edge) {
+        mSpacing = spacing;
+        mEdge = edge;
+    }
+
+    /**
+     * Gives the items of a view type fixed offsets instead of the grid spacing, e.g. none for a header.
+     *
+     * @param viewType - view type of the items
+     */
+    public void setViewTypeOffsets(int viewType, int left, int top, int right, int bottom) {
+        mViewTypeOffsets.put(viewType, new Rect(left, top, right, bottom));
+    }
+
+    public void clearViewTypeOffsets(int viewType) {
+        mViewTypeOffsets.remove(viewType);
+    }
+
+    @Override
+    public void getItemOffsets(Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
+        final Rect viewTypeOffsets = mViewTypeOffsets.size() == 0 ? null
+                : mViewTypeOffsets.get(parent.getChildViewHolder(view).getItemViewType());
+        if (viewTypeOffsets != null) {
+            outRect.set(viewTypeOffsets);
+            return;
+        }
+
+        final RecyclerView.LayoutManager layoutManager = parent.getLayoutManager();
+        final RecyclerView.LayoutParams layoutParams = (RecyclerView.LayoutParams) view.getLayoutParams();
+        final int position = layoutParams.getViewLayoutPosition();
+        final int itemCount = state.getItemCount();
+        final boolean inRange = position >= 0 && position < itemCount;
+
+        final int spanCount;
+        final int spanIndex;
+        final int spanSize;
+        final boolean firstLine;
+        final boolean lastLine;
+        final boolean vertical;
+        final boolean reverse;
+        if (layoutManager instanceof GridLayoutManager) {
+            final GridLayoutManager gridLayoutManager = (GridLayoutManager) layoutManager;
+            final GridLayoutManager.LayoutParams gridParams = (GridLayoutManager.LayoutParams) layoutParams;
+            final GridLayoutManager.SpanSizeLookup lookup = gridLayoutManager.getSpanSizeLookup();
+            spanCount = gridLayoutManager.getSpanCount();
+            if (gridParams.getSpanIndex() != GridLayoutManager.LayoutParams.INVALID_SPAN_ID) {
+                spanIndex = gridParams.getSpanIndex();
+                spanSize = gridParams.getSpanSize();
+            } else if (inRange) {
+                spanIndex = lookup.getSpanIndex(position, spanCount);
+                spanSize = lookup.getSpanSize(position);
+            } else {
+                spanIndex = 0;
+                spanSize = 1;
+            }
+            if (inRange) {
+                firstLine = isInFirstLine(lookup, spanCount, position);
+                lastLine = isInLastLine(lookup, spanCount, position, spanIndex + spanSize, itemCount);
+            } else {
+                firstLine = false;
+                lastLine = false;
+            }
+            vertical = gridLayoutManager.getOrientation() == GridLayoutManager.VERTICAL;
+            reverse = gridLayoutManager.getReverseLayout();
+        } else if (layoutManager instanceof LinearLayoutManager) {
+            final LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+            spanCount = 1;
+            spanIndex = 0;
+            spanSize = 1;
+            firstLine = position == 0;
+            lastLine = inRange && position == itemCount - 1;
+            vertical = linearLayoutManager.getOrientation() == LinearLayoutManager.VERTICAL;
+            reverse = linearLayoutManager.getReverseLayout();
+        } else if (layoutManager instanceof StaggeredGridLayoutManager) {
+            final StaggeredGridLayoutManager staggeredLayoutManager = (StaggeredGridLayoutManager) layoutManager;
+            final StaggeredGridLayoutManager.LayoutParams staggeredParams =
+                    (StaggeredGridLayoutManager.LayoutParams) layoutParams;
+            spanCount = staggeredLayoutManager.getSpanCount();
+            final boolean fullSpan = staggeredParams.isFullSpan();
+            spanIndex = fullSpan ? 0 : Math.max(staggeredParams.getSpanIndex(), 0);
+            spanSize = fullSpan ? spanCount : 1;
+            // the first items fill the spans in order until a full span item starts a new line
+            firstLine = position >= 0 && position < spanCount && spanIndex == position;
+            lastLine = inRange && position >= itemCount - spanCount;
+            vertical = staggeredLayoutManager.getOrientation() == StaggeredGridLayoutManager.VERTICAL;
+            reverse = staggeredLayoutManager.getReverseLayout();
+        } else {
+            outRect.set(0, 0, 0, 0);
+            return;
+        }
+
+        final int crossStart = crossOffset(spanIndex, spanCount);
+        final int crossEnd = mSpacing - crossOffset(spanIndex + spanSize, spanCount);
+        final int mainStart = firstLine ? mEdge : mSpacing;
+        final int mainEnd = lastLine ? mEdge : 0;
+        final boolean rtl = ViewCompat.getLayoutDirection(parent) == ViewCompat.LAYOUT_DIRECTION_RTL;
+        if (vertical) {
+            outRect.left = rtl ? crossEnd : crossStart;
+            outRect.right = rtl ? crossStart : crossEnd;
+            outRect.top = reverse ? mainEnd : mainStart;
+            outRect.bottom = reverse ? mainStart : mainEnd;
+        } else {
+            // horizontal layouts are mirrored in RTL
+            final boolean reverseHorizontal = reverse != rtl;
+            outRect.left = reverseHorizontal ? mainEnd : mainStart;
+            outRect.right = reverseHorizontal ? mainStart : mainEnd;
+            outRect.top = crossStart;
+            outRect.bottom = crossEnd;
+        }
+    }
+
+    /**
+     * Start offset of a span. Each span loses the same (2 * edge + (spanCount - 1) * spacing) / spanCount pixels,
+     * so the start offset moves by (spacing - 2 * edge) / spanCount per span. The end offset of a span is the spacing
+     * minus the start offset of the next one, which keeps every gutter exactly {@link #mSpacing} despite the rounding.
+     */
+    private int crossOffset(int spanIndex, int spanCount) {
+        return mEdge + spanIndex * (mSpacing - 2 * mEdge) / spanCount;
+    }
+
+    /**
+     * An item is on the first line if it and all items before it fit in the spans, so only the first spanCount
+     * positions are candidates.
+     */
+    private static boolean isInFirstLine(GridLayoutManager.SpanSizeLookup lookup, int spanCount, int position) {
+        if (position >= spanCount) {
+            return false;
+        }
+        int span = 0;
+        for (int i = 0; i <= position; i++) {
+            span += spanSize(lookup, spanCount, i);
+            if (span > spanCount) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An item is on the last line if all items after it fit in the spans after it, so at most spanCount following
+     * positions are looked at.
+     *
+     * @param spanEnd - span index after the item
+     */
+    private static boolean isInLastLine(GridLayoutManager.SpanSizeLookup lookup, int spanCount, int position,
+                                        int spanEnd, int itemCount) {
+        int span = spanEnd;
+        for (int i = position + 1; i < itemCount; i++) {
+            span += spanSize(lookup, spanCount, i);
+            if (span > spanCount) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spanSize(GridLayoutManager.SpanSizeLookup lookup, int spanCount, int position) {
+        return Math.max(1, Math.min(lookup.getSpanSize(position), spanCount));
+    }
+}
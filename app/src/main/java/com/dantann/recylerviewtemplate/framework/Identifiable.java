@@ -0,0 +1,12 @@
+package com.dantann.recylerviewtemplate.framework;
+
+/**
+ * Model that provides a stable id, used by {@link PresenterAdapter#getItemId(int)} when stable ids are enabled.
+ */
+public interface Identifiable {
+
+    /**
+     * @return id that is unique within the adapter and does not change for the same entity
+     */
+    long getStableId();
+}
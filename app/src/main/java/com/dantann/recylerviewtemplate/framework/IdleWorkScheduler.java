@@ -0,0 +1,279 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Process;
+import android.support.annotation.MainThread;
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Runs low priority jobs, such as cache warming or prefetching, while the app is in the foreground and the
+ * main thread is idle, so they do not compete with frames.
+ * <p>
+ * One job is started per idle pass of the main looper. Jobs run on the main thread, or on a background thread
+ * with {@link #FLAG_BACKGROUND}, one background job at a time. Starting jobs is paused while any
+ * attached {@link RecyclerView} scrolls and while the app is in the background.
+ * Pending jobs with {@link #FLAG_CRITICAL} are run right away when the app enters the background.
+ * <p>
+ * Owned by {@link BaseApplication}, which reports the foreground and background transitions.
+ */
+public final class IdleWorkScheduler {
+
+    private static final Logger LOG = Logger.forClass(IdleWorkScheduler.class);
+
+    /**
+     * Runs the job on a background thread instead of the main thread
+     */
+    public static final int FLAG_BACKGROUND = 1;
+
+    /**
+     * Runs the job when the app enters the background, if it is still pending
+     */
+    public static final int FLAG_CRITICAL = 1 << 1;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Executor mBackgroundExecutor;
+
+    private final ArrayDeque<Job> mJobs = new ArrayDeque<>();
+
+    private final WeakHashMap<RecyclerView, PauseOnScrollListener> mScrollListeners = new WeakHashMap<>();
+
+    private boolean mForeground;
+    private int mScrollingCount;
+    private boolean mBackgroundJobRunning;
+    private boolean mIdleHandlerAdded;
+
+    private int mCompletedCount;
+
+    private final MessageQueue.IdleHandler mIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mIdleHandlerAdded = runNextJob();
+            return mIdleHandlerAdded;
+        }
+    };
+
+    IdleWorkScheduler() {
+        this(createBackgroundExecutor());
+    }
+
+    IdleWorkScheduler(Executor backgroundExecutor) {
+        mBackgroundExecutor = backgroundExecutor;
+    }
+
+    /**
+     * Queues a job, can be called on any thread.
+     *
+     * @param name  - name of the job for logging
+     * @param job   - job to run
+     * @param flags - {@link #FLAG_BACKGROUND} and {@link #FLAG_CRITICAL}, or 0
+     */
+    public void schedule(String name, Runnable job, int flags) {
+        final Job queued = new Job(checkNotNull(name, "name == null"), checkNotNull(job, "job == null"), flags);
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            enqueue(queued);
+        } else {
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    enqueue(queued);
+                }
+            });
+        }
+    }
+
+    /**
+     * Pauses jobs while the recycler view scrolls or flings.
+     *
+     * @param recyclerView - recycler view to observe
+     */
+    @MainThread
+    public void attach(RecyclerView recyclerView) {
+        if (mScrollListeners.containsKey(recyclerView)) {
+            return;
+        }
+        final PauseOnScrollListener listener = new PauseOnScrollListener();
+        mScrollListeners.put(recyclerView, listener);
+        recyclerView.addOnScrollListener(listener);
+    }
+
+    @MainThread
+    public void detach(RecyclerView recyclerView) {
+        final PauseOnScrollListener listener = mScrollListeners.remove(recyclerView);
+        if (listener != null) {
+            recyclerView.removeOnScrollListener(listener);
+            listener.setScrolling(false);
+        }
+    }
+
+    /**
+     * @return number of pending jobs
+     */
+    @MainThread
+    public int getPendingCount() {
+        return mJobs.size();
+    }
+
+    /**
+     * @return number of jobs that completed
+     */
+    @MainThread
+    public int getCompletedCount() {
+        return mCompletedCount;
+    }
+
+    @MainThread
+    void onEnterForeground() {
+        mForeground = true;
+        maybeAddIdleHandler();
+    }
+
+    @MainThread
+    void onEnterBackground() {
+        mForeground = false;
+        final Iterator<Job> iterator = mJobs.iterator();
+        while (iterator.hasNext()) {
+            final Job job = iterator.next();
+            if ((job.mFlags & FLAG_CRITICAL) != 0) {
+                iterator.remove();
+                if ((job.mFlags & FLAG_BACKGROUND) != 0) {
+                    mBackgroundExecutor.execute(job);
+                } else {
+                    job.run();
+                }
+            }
+        }
+    }
+
+    private boolean canRun() {
+        return mForeground && mScrollingCount == 0 && !mJobs.isEmpty();
+    }
+
+    private void enqueue(Job job) {
+        mJobs.add(job);
+        maybeAddIdleHandler();
+    }
+
+    private void maybeAddIdleHandler() {
+        if (!mIdleHandlerAdded && canRun()) {
+            mIdleHandlerAdded = true;
+            Looper.myQueue().addIdleHandler(mIdleHandler);
+        }
+    }
+
+    /**
+     * @return true if the idle handler should stay registered
+     */
+    private boolean runNextJob() {
+        if (!canRun()) {
+            return false;
+        }
+        final Job job = mJobs.peek();
+        if ((job.mFlags & FLAG_BACKGROUND) != 0) {
+            if (mBackgroundJobRunning) {
+                // started again once the running job completed
+                return false;
+            }
+            mJobs.poll();
+            mBackgroundJobRunning = true;
+            job.mSerial = true;
+            mBackgroundExecutor.execute(job);
+        } else {
+            mJobs.poll();
+            job.run();
+        }
+        return canRun();
+    }
+
+    private void onJobCompleted(Job job) {
+        mCompletedCount++;
+        if (job.mSerial) {
+            mBackgroundJobRunning = false;
+            maybeAddIdleHandler();
+        }
+    }
+
+    private static ExecutorService createBackgroundExecutor() {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }
+                }, "IdleWork");
+            }
+        });
+    }
+
+    private final class Job implements Runnable {
+        final String mName;
+        final Runnable mJob;
+        final int mFlags;
+
+        /**
+         * True if started by an idle pass, rather than flushed when entering the background
+         */
+        boolean mSerial;
+
+        Job(String name, Runnable job, int flags) {
+            mName = name;
+            mJob = job;
+            mFlags = flags;
+        }
+
+        @Override
+        public void run() {
+            try {
+                mJob.run();
+            } catch (RuntimeException e) {
+                LOG.e(e, "Idle job %s failed", mName);
+            }
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                onJobCompleted(this);
+            } else {
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onJobCompleted(Job.this);
+                    }
+                });
+            }
+        }
+    }
+
+    private final class PauseOnScrollListener extends RecyclerView.OnScrollListener {
+        private boolean mScrolling;
+
+        @Override
+        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+            setScrolling(newState != RecyclerView.SCROLL_STATE_IDLE);
+        }
+
+        void setScrolling(boolean scrolling) {
+            if (mScrolling == scrolling) {
+                return;
+            }
+            mScrolling = scrolling;
+            if (scrolling) {
+                mScrollingCount++;
+            } else {
+                mScrollingCount--;
+                maybeAddIdleHandler();
+            }
+        }
+    }
+}
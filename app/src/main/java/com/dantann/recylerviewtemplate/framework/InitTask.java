@@ -0,0 +1,60 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.Context;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Named unit of application initialization, run by an {@link AppInitializer} once all its dependencies completed.
+ * Tasks run on a background thread unless {@link #requiresMainThread()} is overridden.
+ */
+public abstract class InitTask {
+
+    private final String mName;
+    private final List<String> mDependencies;
+
+    /**
+     * @param name         - unique name of the task
+     * @param dependencies - names of the tasks that must complete before this one runs
+     */
+    protected InitTask(String name, String... dependencies) {
+        mName = checkNotNull(name, "name == null");
+        mDependencies = dependencies.length == 0
+                ? Collections.<String>emptyList()
+                : Collections.unmodifiableList(Arrays.asList(dependencies));
+    }
+
+    public final String getName() {
+        return mName;
+    }
+
+    public final List<String> getDependencies() {
+        return mDependencies;
+    }
+
+    /**
+     * @return true if the task must run on the main thread, the main thread is blocked until such tasks completed
+     */
+    public boolean requiresMainThread() {
+        return false;
+    }
+
+    /**
+     * @return true if the task may run after start up, on first use through {@link AppInitializer#require(String)}
+     * or once the main thread is idle. Tasks that other non deferrable tasks depend on are never deferred.
+     */
+    public boolean isDeferrable() {
+        return false;
+    }
+
+    /**
+     * Initializes the component.
+     *
+     * @param context - application context
+     */
+    protected abstract void onInitialize(Context context) throws Exception;
+}
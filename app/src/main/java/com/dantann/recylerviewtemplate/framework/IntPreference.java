@@ -0,0 +1,41 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.SharedPreferences;
+
+/**
+ * Preference holding an int, cached in memory, see {@link CachedPreference}.
+ */
+public class IntPreference extends CachedPreference<Integer> {
+
+    private static final Logger LOG = Logger.forClass(IntPreference.class);
+
+    public IntPreference(SharedPreferences preferences, String key, int defaultValue) {
+        super(preferences, key, defaultValue);
+    }
+
+    /**
+     * @return the value without boxing a new object
+     */
+    public int getInt() {
+        return get();
+    }
+
+    public void set(int value) {
+        set((Integer) value);
+    }
+
+    @Override
+    protected Integer read(PreferenceWriter writer, String key, Integer defaultValue) {
+        try {
+            return writer.getInt(key, defaultValue);
+        } catch (ClassCastException e) {
+            LOG.w(e, "Preference %s is not an int", key);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    protected Object write(Integer value) {
+        return value;
+    }
+}
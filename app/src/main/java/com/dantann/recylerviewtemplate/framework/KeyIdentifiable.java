@@ -0,0 +1,12 @@
+package com.dantann.recylerviewtemplate.framework;
+
+/**
+ * Model identified by a string key. The adapter maps the key to a stable id through {@link StableIdKeys}.
+ */
+public interface KeyIdentifiable {
+
+    /**
+     * @return key that is unique within the adapter and does not change for the same entity
+     */
+    String getStableKey();
+}
@@ -0,0 +1,737 @@
+package com.dantann.recylerviewtemplate.framework;
+
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Calculates the difference between two lists and outputs a list of update operations that
+ * converts the first list into the second one.
+ * <p>
+ * Uses Eugene W. Myers's difference algorithm (linear space variant) to find the minimal number
+ * of insertions and removals, followed by an optional pass to detect moved items.
+ * This class has no Android dependencies so it can be run on any thread.
+ */
+public final class ListDiffer {
+
+    private ListDiffer() { /* no instances */ }
+
+    private static final Comparator<Diagonal> DIAGONAL_COMPARATOR = new Comparator<Diagonal>() {
+        @Override
+        public int compare(Diagonal lhs, Diagonal rhs) {
+            return lhs.x - rhs.x;
+        }
+    };
+
+    /**
+     * Calculates the list of update operations that can convert one list into the other one.
+     * Moves are detected.
+     *
+     * @param callback - callback that provides information about the two lists
+     * @return {@link DiffResult} that contains the update operations
+     */
+    public static DiffResult calculateDiff(Callback callback) {
+        return calculateDiff(callback, true);
+    }
+
+    /**
+     * Calculates the list of update operations that can convert one list into the other one.
+     *
+     * @param callback    - callback that provides information about the two lists
+     * @param detectMoves - true if moved items should be detected, false to only dispatch removals and insertions
+     * @return {@link DiffResult} that contains the update operations
+     */
+    public static DiffResult calculateDiff(Callback callback, boolean detectMoves) {
+        final int oldSize = callback.getOldListSize();
+        final int newSize = callback.getNewListSize();
+
+        final List<Diagonal> diagonals = new ArrayList<>();
+        final List<Range> stack = new ArrayList<>();
+        stack.add(new Range(0, oldSize, 0, newSize));
+
+        final int max = (oldSize + newSize + 1) / 2;
+        final CenteredArray forward = new CenteredArray(max * 2 + 1);
+        final CenteredArray backward = new CenteredArray(max * 2 + 1);
+
+        final List<Range> rangePool = new ArrayList<>();
+        while (!stack.isEmpty()) {
+            final Range range = stack.remove(stack.size() - 1);
+            final Snake snake = midPoint(range, callback, forward, backward);
+            if (snake != null) {
+                if (snake.diagonalSize() > 0) {
+                    diagonals.add(snake.toDiagonal());
+                }
+                Range left = rangePool.isEmpty() ? new Range() : rangePool.remove(rangePool.size() - 1);
+                left.oldListStart = range.oldListStart;
+                left.newListStart = range.newListStart;
+                left.oldListEnd = snake.startX;
+                left.newListEnd = snake.startY;
+                stack.add(left);
+
+                // reuse the current range for the right side
+                range.oldListStart = snake.endX;
+                range.newListStart = snake.endY;
+                stack.add(range);
+            } else {
+                rangePool.add(range);
+            }
+        }
+        Collections.sort(diagonals, DIAGONAL_COMPARATOR);
+        return new DiffResult(callback, diagonals, detectMoves);
+    }
+
+    /**
+     * Finds the middle snake of the given range. Returns null if either list in the range is empty,
+     * as there is nothing left to match.
+     */
+    @Nullable
+    private static Snake midPoint(Range range, Callback cb, CenteredArray forward, CenteredArray backward) {
+        if (range.oldSize() < 1 || range.newSize() < 1) {
+            return null;
+        }
+        int max = (range.oldSize() + range.newSize() + 1) / 2;
+        forward.set(1, range.oldListStart);
+        backward.set(1, range.oldListEnd);
+        for (int d = 0; d < max; d++) {
+            Snake snake = forward(range, cb, forward, backward, d);
+            if (snake != null) {
+                return snake;
+            }
+            snake = backward(range, cb, forward, backward, d);
+            if (snake != null) {
+                return snake;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Snake forward(Range range, Callback cb, CenteredArray forward, CenteredArray backward, int d) {
+        final boolean checkForSnake = Math.abs(range.oldSize() - range.newSize()) % 2 == 1;
+        final int delta = range.oldSize() - range.newSize();
+        for (int k = -d; k <= d; k += 2) {
+            final int startX;
+            final int startY;
+            int x, y;
+            if (k == -d || (k != d && forward.get(k + 1) > forward.get(k - 1))) {
+                // insertion, move down
+                x = startX = forward.get(k + 1);
+            } else {
+                // removal, move right
+                startX = forward.get(k - 1);
+                x = startX + 1;
+            }
+            y = range.newListStart + (x - range.oldListStart) - k;
+            startY = (d == 0 || x != startX) ? y : y - 1;
+            while (x < range.oldListEnd && y < range.newListEnd && cb.areItemsTheSame(x, y)) {
+                x++;
+                y++;
+            }
+            forward.set(k, x);
+            if (checkForSnake) {
+                final int backwardsK = delta - k;
+                if (backwardsK >= -d + 1 && backwardsK <= d - 1 && backward.get(backwardsK) <= x) {
+                    return new Snake(startX, startY, x, y, false);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Snake backward(Range range, Callback cb, CenteredArray forward, CenteredArray backward, int d) {
+        final boolean checkForSnake = (range.oldSize() - range.newSize()) % 2 == 0;
+        final int delta = range.oldSize() - range.newSize();
+        for (int k = -d; k <= d; k += 2) {
+            final int startX;
+            final int startY;
+            int x, y;
+            if (k == -d || (k != d && backward.get(k + 1) < backward.get(k - 1))) {
+                // insertion, move up
+                x = startX = backward.get(k + 1);
+            } else {
+                // removal, move left
+                startX = backward.get(k - 1);
+                x = startX - 1;
+            }
+            y = range.newListEnd - ((range.oldListEnd - x) - k);
+            startY = (d == 0 || x != startX) ? y : y + 1;
+            while (x > range.oldListStart && y > range.newListStart && cb.areItemsTheSame(x - 1, y - 1)) {
+                x--;
+                y--;
+            }
+            backward.set(k, x);
+            if (checkForSnake) {
+                final int forwardsK = delta - k;
+                if (forwardsK >= -d && forwardsK <= d && forward.get(forwardsK) >= x) {
+                    return new Snake(x, y, startX, startY, true);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Callback used by {@link ListDiffer} while calculating the diff between two lists.
+     */
+    public static abstract class Callback {
+
+        /**
+         * @return size of the old list
+         */
+        public abstract int getOldListSize();
+
+        /**
+         * @return size of the new list
+         */
+        public abstract int getNewListSize();
+
+        /**
+         * Decides whether two items represent the same entity, e.g. have the same id.
+         *
+         * @param oldItemPosition - position of the item in the old list
+         * @param newItemPosition - position of the item in the new list
+         * @return true if the two items represent the same entity
+         */
+        public abstract boolean areItemsTheSame(int oldItemPosition, int newItemPosition);
+
+        /**
+         * Decides whether two items have the same visual representation. Only called if
+         * {@link #areItemsTheSame(int, int)} returns true for the same positions.
+         *
+         * @param oldItemPosition - position of the item in the old list
+         * @param newItemPosition - position of the item in the new list
+         * @return true if the contents of the items are the same
+         */
+        public abstract boolean areContentsTheSame(int oldItemPosition, int newItemPosition);
+
+        /**
+         * Called when {@link #areItemsTheSame(int, int)} returns true and
+         * {@link #areContentsTheSame(int, int)} returns false to get a payload describing the change.
+         *
+         * @param oldItemPosition - position of the item in the old list
+         * @param newItemPosition - position of the item in the new list
+         * @return payload describing the change, null for a full rebind
+         */
+        @Nullable
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return null;
+        }
+    }
+
+    /**
+     * Item based callback, used by {@link ListPresenterAdapter} to compare two items of a list.
+     *
+     * @param <T> type of items in the list
+     */
+    public static abstract class ItemCallback<T> {
+
+        /**
+         * @return true if the two items represent the same entity
+         */
+        public abstract boolean areItemsTheSame(T oldItem, T newItem);
+
+        /**
+         * @return true if the two items have the same visual representation
+         */
+        public abstract boolean areContentsTheSame(T oldItem, T newItem);
+
+        /**
+         * @return payload describing the change between the two items, null for a full rebind
+         */
+        @Nullable
+        public Object getChangePayload(T oldItem, T newItem) {
+            return null;
+        }
+    }
+
+    /**
+     * Receives the update operations dispatched by a {@link DiffResult}.
+     */
+    public interface UpdateCallback {
+
+        void onInserted(int position, int count);
+
+        void onRemoved(int position, int count);
+
+        void onMoved(int fromPosition, int toPosition);
+
+        void onChanged(int position, int count, @Nullable Object payload);
+    }
+
+    /**
+     * Result of a diff calculation. Dispatch it on the thread that owns the target of the updates.
+     */
+    public static final class DiffResult {
+
+        /**
+         * Returned by {@link #convertOldPositionToNew(int)} for an item that was removed
+         */
+        public static final int NO_POSITION = -1;
+
+        private static final int FLAG_NOT_CHANGED = 1;
+        private static final int FLAG_CHANGED = FLAG_NOT_CHANGED << 1;
+        private static final int FLAG_MOVED_CHANGED = FLAG_CHANGED << 1;
+        private static final int FLAG_MOVED_NOT_CHANGED = FLAG_MOVED_CHANGED << 1;
+        private static final int FLAG_MOVED = FLAG_MOVED_CHANGED | FLAG_MOVED_NOT_CHANGED;
+        private static final int FLAG_OFFSET = 4;
+        private static final int FLAG_MASK = (1 << FLAG_OFFSET) - 1;
+
+        private final List<Diagonal> mDiagonals;
+        private final int[] mOldItemStatuses;
+        private final int[] mNewItemStatuses;
+        private final Callback mCallback;
+        private final int mOldListSize;
+        private final int mNewListSize;
+        private final boolean mDetectMoves;
+
+        DiffResult(Callback callback, List<Diagonal> diagonals, boolean detectMoves) {
+            mDiagonals = diagonals;
+            mCallback = callback;
+            mOldListSize = callback.getOldListSize();
+            mNewListSize = callback.getNewListSize();
+            mOldItemStatuses = new int[mOldListSize];
+            mNewItemStatuses = new int[mNewListSize];
+            mDetectMoves = detectMoves;
+            addEdgeDiagonals();
+            findMatchingItems();
+        }
+
+        private void addEdgeDiagonals() {
+            Diagonal first = mDiagonals.isEmpty() ? null : mDiagonals.get(0);
+            if (first == null || first.x != 0 || first.y != 0) {
+                mDiagonals.add(0, new Diagonal(0, 0, 0));
+            }
+            mDiagonals.add(new Diagonal(mOldListSize, mNewListSize, 0));
+        }
+
+        private void findMatchingItems() {
+            for (int i = 0, size = mDiagonals.size(); i < size; i++) {
+                final Diagonal diagonal = mDiagonals.get(i);
+                for (int offset = 0; offset < diagonal.size; offset++) {
+                    final int posX = diagonal.x + offset;
+                    final int posY = diagonal.y + offset;
+                    final boolean theSame = mCallback.areContentsTheSame(posX, posY);
+                    final int changeFlag = theSame ? FLAG_NOT_CHANGED : FLAG_CHANGED;
+                    mOldItemStatuses[posX] = (posY << FLAG_OFFSET) | changeFlag;
+                    mNewItemStatuses[posY] = (posX << FLAG_OFFSET) | changeFlag;
+                }
+            }
+            if (mDetectMoves) {
+                findMoveMatches();
+            }
+        }
+
+        private void findMoveMatches() {
+            int posX = 0;
+            for (int i = 0, size = mDiagonals.size(); i < size; i++) {
+                final Diagonal diagonal = mDiagonals.get(i);
+                while (posX < diagonal.x) {
+                    if (mOldItemStatuses[posX] == 0) {
+                        findMatchingAddition(posX);
+                    }
+                    posX++;
+                }
+                posX = diagonal.endX();
+            }
+        }
+
+        private void findMatchingAddition(int posX) {
+            int posY = 0;
+            for (int i = 0, size = mDiagonals.size(); i < size; i++) {
+                final Diagonal diagonal = mDiagonals.get(i);
+                while (posY < diagonal.y) {
+                    if (mNewItemStatuses[posY] == 0 && mCallback.areItemsTheSame(posX, posY)) {
+                        final boolean contentsTheSame = mCallback.areContentsTheSame(posX, posY);
+                        final int changeFlag = contentsTheSame ? FLAG_MOVED_NOT_CHANGED : FLAG_MOVED_CHANGED;
+                        mOldItemStatuses[posX] = (posY << FLAG_OFFSET) | changeFlag;
+                        mNewItemStatuses[posY] = (posX << FLAG_OFFSET) | changeFlag;
+                        return;
+                    }
+                    posY++;
+                }
+                posY = diagonal.endY();
+            }
+        }
+
+        /**
+         * @return size of the old list the diff was calculated against
+         */
+        public int getOldListSize() {
+            return mOldListSize;
+        }
+
+        /**
+         * @return size of the new list the diff was calculated against
+         */
+        public int getNewListSize() {
+            return mNewListSize;
+        }
+
+        /**
+         * @param oldListPosition - position in the old list
+         * @return position of the item in the new list, {@link #NO_POSITION} if it was removed
+         */
+        public int convertOldPositionToNew(int oldListPosition) {
+            if (oldListPosition < 0 || oldListPosition >= mOldListSize) {
+                throw new IndexOutOfBoundsException("Index out of bounds - passed position = " + oldListPosition
+                        + ", old list size = " + mOldListSize);
+            }
+            final int status = mOldItemStatuses[oldListPosition];
+            return (status & FLAG_MASK) == 0 ? NO_POSITION : status >> FLAG_OFFSET;
+        }
+
+        /**
+         * Dispatches the update operations to the given callback. Consecutive operations of the same
+         * type are merged into range operations.
+         *
+         * @param updateCallback - callback to receive the update operations
+         */
+        public void dispatchUpdatesTo(UpdateCallback updateCallback) {
+            final BatchingUpdateCallback batchingCallback;
+            if (updateCallback instanceof BatchingUpdateCallback) {
+                batchingCallback = (BatchingUpdateCallback) updateCallback;
+            } else {
+                batchingCallback = new BatchingUpdateCallback(updateCallback);
+            }
+            int currentListSize = mOldListSize;
+            final ArrayDeque<PostponedUpdate> postponedUpdates = new ArrayDeque<>();
+            int posX = mOldListSize;
+            int posY = mNewListSize;
+            for (int diagonalIndex = mDiagonals.size() - 1; diagonalIndex >= 0; diagonalIndex--) {
+                final Diagonal diagonal = mDiagonals.get(diagonalIndex);
+                final int endX = diagonal.endX();
+                final int endY = diagonal.endY();
+                // dispatch removals and moves out of the old list
+                while (posX > endX) {
+                    posX--;
+                    final int status = mOldItemStatuses[posX];
+                    if ((status & FLAG_MOVED) != 0) {
+                        final int newPos = status >> FLAG_OFFSET;
+                        final PostponedUpdate postponedUpdate = getPostponedUpdate(postponedUpdates, newPos, false);
+                        if (postponedUpdate != null) {
+                            final int updatedNewPos = currentListSize - postponedUpdate.currentPos;
+                            batchingCallback.onMoved(posX, updatedNewPos - 1);
+                            if ((status & FLAG_MOVED_CHANGED) != 0) {
+                                batchingCallback.onChanged(updatedNewPos - 1, 1,
+                                        mCallback.getChangePayload(posX, newPos));
+                            }
+                        } else {
+                            postponedUpdates.add(new PostponedUpdate(posX, currentListSize - posX - 1, true));
+                        }
+                    } else {
+                        batchingCallback.onRemoved(posX, 1);
+                        currentListSize--;
+                    }
+                }
+                // dispatch insertions and moves into the new list
+                while (posY > endY) {
+                    posY--;
+                    final int status = mNewItemStatuses[posY];
+                    if ((status & FLAG_MOVED) != 0) {
+                        final int oldPos = status >> FLAG_OFFSET;
+                        final PostponedUpdate postponedUpdate = getPostponedUpdate(postponedUpdates, oldPos, true);
+                        if (postponedUpdate == null) {
+                            postponedUpdates.add(new PostponedUpdate(posY, currentListSize - posX, false));
+                        } else {
+                            final int updatedOldPos = currentListSize - postponedUpdate.currentPos - 1;
+                            batchingCallback.onMoved(updatedOldPos, posX);
+                            if ((status & FLAG_MOVED_CHANGED) != 0) {
+                                batchingCallback.onChanged(posX, 1, mCallback.getChangePayload(oldPos, posY));
+                            }
+                        }
+                    } else {
+                        batchingCallback.onInserted(posX, 1);
+                        currentListSize++;
+                    }
+                }
+                // dispatch changes within the matching diagonal
+                posX = diagonal.x;
+                posY = diagonal.y;
+                for (int i = 0; i < diagonal.size; i++) {
+                    if ((mOldItemStatuses[posX] & FLAG_MASK) == FLAG_CHANGED) {
+                        batchingCallback.onChanged(posX, 1, mCallback.getChangePayload(posX, posY));
+                    }
+                    posX++;
+                    posY++;
+                }
+                posX = diagonal.x;
+                posY = diagonal.y;
+            }
+            batchingCallback.dispatchLastEvent();
+        }
+
+        @Nullable
+        private static PostponedUpdate getPostponedUpdate(ArrayDeque<PostponedUpdate> postponedUpdates,
+                                                          int posInList, boolean removal) {
+            PostponedUpdate postponedUpdate = null;
+            final Iterator<PostponedUpdate> itr = postponedUpdates.iterator();
+            while (itr.hasNext()) {
+                final PostponedUpdate update = itr.next();
+                if (update.posInOwnerList == posInList && update.removal == removal) {
+                    postponedUpdate = update;
+                    itr.remove();
+                    break;
+                }
+            }
+            while (itr.hasNext()) {
+                // re-offset all others
+                final PostponedUpdate update = itr.next();
+                if (removal) {
+                    update.currentPos--;
+                } else {
+                    update.currentPos++;
+                }
+            }
+            return postponedUpdate;
+        }
+    }
+
+    /**
+     * Wraps an {@link UpdateCallback} and merges consecutive operations of the same type.
+     */
+    public static class BatchingUpdateCallback implements UpdateCallback {
+
+        private static final int TYPE_NONE = 0;
+        private static final int TYPE_ADD = 1;
+        private static final int TYPE_REMOVE = 2;
+        private static final int TYPE_CHANGE = 3;
+
+        private final UpdateCallback mWrapped;
+
+        private int mLastEventType = TYPE_NONE;
+        private int mLastEventPosition = -1;
+        private int mLastEventCount = -1;
+        private Object mLastEventPayload = null;
+
+        public BatchingUpdateCallback(UpdateCallback callback) {
+            mWrapped = callback;
+        }
+
+        /**
+         * Dispatches the pending event, if any. Must be called once all operations are received.
+         */
+        public void dispatchLastEvent() {
+            if (mLastEventType == TYPE_NONE) {
+                return;
+            }
+            switch (mLastEventType) {
+                case TYPE_ADD:
+                    mWrapped.onInserted(mLastEventPosition, mLastEventCount);
+                    break;
+                case TYPE_REMOVE:
+                    mWrapped.onRemoved(mLastEventPosition, mLastEventCount);
+                    break;
+                case TYPE_CHANGE:
+                    mWrapped.onChanged(mLastEventPosition, mLastEventCount, mLastEventPayload);
+                    break;
+            }
+            mLastEventPayload = null;
+            mLastEventType = TYPE_NONE;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            if (mLastEventType == TYPE_ADD && position >= mLastEventPosition
+                    && position <= mLastEventPosition + mLastEventCount) {
+                mLastEventCount += count;
+                mLastEventPosition = Math.min(position, mLastEventPosition);
+                return;
+            }
+            dispatchLastEvent();
+            mLastEventPosition = position;
+            mLastEventCount = count;
+            mLastEventType = TYPE_ADD;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            if (mLastEventType == TYPE_REMOVE && mLastEventPosition >= position
+                    && mLastEventPosition <= position + count) {
+                mLastEventCount += count;
+                mLastEventPosition = position;
+                return;
+            }
+            dispatchLastEvent();
+            mLastEventPosition = position;
+            mLastEventCount = count;
+            mLastEventType = TYPE_REMOVE;
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            dispatchLastEvent();
+            mWrapped.onMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            if (mLastEventType == TYPE_CHANGE
+                    && !(position > mLastEventPosition + mLastEventCount
+                    || position + count < mLastEventPosition || mLastEventPayload != payload)) {
+                // take potential overlap into account
+                final int previousEnd = mLastEventPosition + mLastEventCount;
+                mLastEventPosition = Math.min(position, mLastEventPosition);
+                mLastEventCount = Math.max(previousEnd, position + count) - mLastEventPosition;
+                return;
+            }
+            dispatchLastEvent();
+            mLastEventPosition = position;
+            mLastEventCount = count;
+            mLastEventPayload = payload;
+            mLastEventType = TYPE_CHANGE;
+        }
+    }
+
+    /**
+     * A diagonal is a match in the graph. Items in a diagonal are the same in both lists.
+     */
+    static final class Diagonal {
+        final int x;
+        final int y;
+        final int size;
+
+        Diagonal(int x, int y, int size) {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+        }
+
+        int endX() {
+            return x + size;
+        }
+
+        int endY() {
+            return y + size;
+        }
+    }
+
+    /**
+     * A path in the edit graph that may start with a single insertion or removal and is followed by
+     * a diagonal.
+     */
+    static final class Snake {
+        final int startX;
+        final int startY;
+        final int endX;
+        final int endY;
+        final boolean reverse;
+
+        Snake(int startX, int startY, int endX, int endY, boolean reverse) {
+            this.startX = startX;
+            this.startY = startY;
+            this.endX = endX;
+            this.endY = endY;
+            this.reverse = reverse;
+        }
+
+        boolean hasAdditionOrRemoval() {
+            return endY - startY != endX - startX;
+        }
+
+        boolean isAddition() {
+            return endY - startY > endX - startX;
+        }
+
+        int diagonalSize() {
+            return Math.min(endX - startX, endY - startY);
+        }
+
+        Diagonal toDiagonal() {
+            if (hasAdditionOrRemoval()) {
+                if (reverse) {
+                    // snake edge is at the end
+                    return new Diagonal(startX, startY, diagonalSize());
+                } else if (isAddition()) {
+                    return new Diagonal(startX, startY + 1, diagonalSize());
+                } else {
+                    return new Diagonal(startX + 1, startY, diagonalSize());
+                }
+            }
+            return new Diagonal(startX, startY, endX - startX);
+        }
+    }
+
+    /**
+     * Represents a range in two lists that needs to be solved.
+     */
+    static final class Range {
+        int oldListStart, oldListEnd;
+        int newListStart, newListEnd;
+
+        Range() {
+        }
+
+        Range(int oldListStart, int oldListEnd, int newListStart, int newListEnd) {
+            this.oldListStart = oldListStart;
+            this.oldListEnd = oldListEnd;
+            this.newListStart = newListStart;
+            this.newListEnd = newListEnd;
+        }
+
+        int oldSize() {
+            return oldListEnd - oldListStart;
+        }
+
+        int newSize() {
+            return newListEnd - newListStart;
+        }
+    }
+
+    /**
+     * Represents an update that we skipped because it was a move.
+     */
+    private static final class PostponedUpdate {
+        final int posInOwnerList;
+        int currentPos;
+        final boolean removal;
+
+        PostponedUpdate(int posInOwnerList, int currentPos, boolean removal) {
+            this.posInOwnerList = posInOwnerList;
+            this.currentPos = currentPos;
+            this.removal = removal;
+        }
+    }
+
+    /**
+     * Array wrapper that allows negative indices, centered on the middle of the array.
+     */
+    static final class CenteredArray {
+        private final int[] mData;
+        private final int mMid;
+
+        CenteredArray(int size) {
+            mData = new int[size];
+            mMid = mData.length / 2;
+        }
+
+        int get(int index) {
+            return mData[index + mMid];
+        }
+
+        void set(int index, int value) {
+            mData[index + mMid] = value;
+        }
+    }
+}
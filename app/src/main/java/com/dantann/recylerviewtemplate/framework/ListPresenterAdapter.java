@@ -0,0 +1,476 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.text.TextPaint;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * {@link PresenterAdapter} that owns its list of models. New snapshots are submitted through
+ * {@link #submitList(List)}, the difference to the current list is calculated on a background thread
+ * using {@link ListDiffer} and the resulting granular updates are dispatched on the main thread.
+ * <p>
+ * If a new snapshot is submitted before the diff of the previous one completes, the stale result is dropped.
+ * <p>
+ * Change payloads come from the {@link ListDiffer.ItemCallback} first, then from the item's presenter
+ * if it is a {@link PayloadViewHolderPresenter}. Presenters must be added before lists are submitted,
+ * as they are looked up from the diff thread.
+ * <p>
+ * If a {@link TextLayoutCache} is set, text layouts of {@link TextLayoutPresenter} rows are precomputed on the diff
+ * executor. The rows of the visible window are laid out before the new list is posted, so the rows bound by the next
+ * layout pass find their layouts ready. The other rows around the first visible position are warmed once the
+ * updates are dispatched, that warm-up never delays an update and is cancelled when the next list is submitted or
+ * the adapter is detached.
+ *
+ * @param <T> type of the models in the list
+ */
+public abstract class ListPresenterAdapter<T> extends PresenterAdapter {
+
+    /**
+     * Executor shared by all adapters that are not given an executor of their own.
+     */
+    private static volatile ExecutorService sDiffExecutor;
+
+    /**
+     * Rows precomputed before the first list is posted, while no row is laid out yet
+     */
+    private static final int DEFAULT_VISIBLE_ITEM_COUNT = 10;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final ListDiffer.ItemCallback<T> mItemCallback;
+    private final Executor mDiffExecutor;
+    private final AdapterListUpdateCallback mUpdateCallback = new AdapterListUpdateCallback(this);
+
+    /**
+     * Current list, only modified on the main thread
+     */
+    private List<T> mItems = Collections.emptyList();
+
+    /**
+     * Incremented every time a list is submitted, used to drop stale diff results
+     */
+    private volatile int mMaxScheduledGeneration;
+
+    /**
+     * Optional cache that the text layouts of submitted items are precomputed into
+     */
+    @Nullable
+    private volatile TextLayoutCache mTextLayoutCache;
+
+    /**
+     * Incremented to cancel the running text layout warm-up, only modified on the main thread
+     */
+    private volatile int mWarmUpGeneration;
+
+    @Nullable
+    private RecyclerView mRecyclerView;
+
+    public ListPresenterAdapter(ListDiffer.ItemCallback<T> itemCallback) {
+        this(itemCallback, getDefaultDiffExecutor());
+    }
+
+    public ListPresenterAdapter(ListDiffer.ItemCallback<T> itemCallback, Executor diffExecutor) {
+        mItemCallback = checkNotNull(itemCallback, "itemCallback == null");
+        mDiffExecutor = checkNotNull(diffExecutor, "diffExecutor == null");
+    }
+
+    /**
+     * Submits a new list to be diffed and displayed. The list is treated as an immutable snapshot,
+     * it must not be modified after it is submitted.
+     *
+     * @param newList - new list of models, null to clear the adapter
+     */
+    @MainThread
+    public void submitList(@Nullable final List<T> newList) {
+        final int runGeneration = ++mMaxScheduledGeneration;
+
+        if (newList == mItems) {
+            return;
+        }
+        cancelTextLayoutWarmUp();
+
+        final List<T> oldList = mItems;
+        final int windowStart = getFirstVisiblePosition();
+        final int windowSize = getVisibleItemCount();
+        if (newList == null || newList.isEmpty()) {
+            final int count = oldList.size();
+            mItems = Collections.emptyList();
+            mStableIdKeys.clear();
+            notifyItemRangeRemoved(0, count);
+            onCurrentListChanged(oldList, mItems);
+            return;
+        }
+
+        if (oldList.isEmpty()) {
+            if (mTextLayoutCache == null) {
+                latchInsertedList(newList);
+                return;
+            }
+            mDiffExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (runGeneration != mMaxScheduledGeneration) {
+                        return;
+                    }
+                    precomputeVisibleTextLayouts(newList, 0, windowSize, runGeneration);
+                    mMainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (runGeneration == mMaxScheduledGeneration) {
+                                latchInsertedList(newList);
+                            }
+                        }
+                    });
+                }
+            });
+            return;
+        }
+
+        mDiffExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (runGeneration != mMaxScheduledGeneration) {
+                    // a newer list was submitted before this diff started
+                    return;
+                }
+                final ListDiffer.DiffResult result = ListDiffer.calculateDiff(new ListCallback<>(oldList, newList, ListPresenterAdapter.this));
+                if (mTextLayoutCache != null) {
+                    precomputeVisibleTextLayouts(newList, convertWindowStart(result, windowStart, windowSize),
+                            windowSize, runGeneration);
+                }
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (runGeneration == mMaxScheduledGeneration) {
+                            latchList(newList, result);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Sets the cache that the text layouts of submitted lists are precomputed into on the diff executor, the visible
+     * rows before each list is posted and the others after it is dispatched. Only items whose presenter is a
+     * {@link TextLayoutPresenter} are precomputed, starting at the first visible position, at most as many layouts
+     * as the cache holds. While a cache is set, the first list is also posted after its visible rows are laid out.
+     *
+     * @param textLayoutCache - cache shared with the presenters, null to disable precomputing
+     */
+    public void setTextLayoutCache(@Nullable TextLayoutCache textLayoutCache) {
+        mTextLayoutCache = textLayoutCache;
+    }
+
+    /**
+     * Stops the running text layout warm-up before its next row.
+     */
+    @MainThread
+    public void cancelTextLayoutWarmUp() {
+        mWarmUpGeneration++;
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mRecyclerView = recyclerView;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        if (mRecyclerView == recyclerView) {
+            mRecyclerView = null;
+            cancelTextLayoutWarmUp();
+        }
+    }
+
+    @MainThread
+    private void scheduleTextLayoutWarmUp() {
+        if (mTextLayoutCache == null || mItems.isEmpty()) {
+            return;
+        }
+        final List<T> items = mItems;
+        final int firstPosition = Math.min(getFirstVisiblePosition(), items.size() - 1);
+        final int warmUpGeneration = ++mWarmUpGeneration;
+        mDiffExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                warmUpTextLayouts(items, firstPosition, warmUpGeneration);
+            }
+        });
+    }
+
+    private int getVisibleItemCount() {
+        final int childCount = mRecyclerView == null ? 0 : mRecyclerView.getChildCount();
+        return childCount > 0 ? childCount : DEFAULT_VISIBLE_ITEM_COUNT;
+    }
+
+    /**
+     * @return position in the new list of the first old row of the window that is kept, the old position otherwise
+     */
+    private static int convertWindowStart(ListDiffer.DiffResult result, int windowStart, int windowSize) {
+        final int end = Math.min(windowStart + windowSize, result.getOldListSize());
+        for (int i = windowStart; i < end; i++) {
+            final int newPosition = result.convertOldPositionToNew(i);
+            if (newPosition != ListDiffer.DiffResult.NO_POSITION) {
+                return Math.max(0, newPosition - (i - windowStart));
+            }
+        }
+        return windowStart;
+    }
+
+    /**
+     * Precomputes the rows of the window on the diff executor before the list is posted, they are bound first.
+     */
+    private void precomputeVisibleTextLayouts(List<T> items, int windowStart, int windowSize, int runGeneration) {
+        final TextLayoutCache cache = mTextLayoutCache;
+        if (cache == null) {
+            return;
+        }
+        final IdentityHashMap<TextPaint, TextPaint> paintCopies = new IdentityHashMap<>();
+        final int end = Math.min(windowStart + windowSize, items.size());
+        for (int i = windowStart; i < end; i++) {
+            if (runGeneration != mMaxScheduledGeneration) {
+                return;
+            }
+            warmUpTextLayouts(cache, items.get(i), paintCopies);
+        }
+    }
+
+    private int getFirstVisiblePosition() {
+        if (mRecyclerView == null) {
+            return 0;
+        }
+        final RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            return Math.max(0, ((LinearLayoutManager) layoutManager).findFirstVisibleItemPosition());
+        }
+        return 0;
+    }
+
+    /**
+     * Precomputes the rows from the first visible position down, then the rows above it, until the cache is full.
+     */
+    private void warmUpTextLayouts(List<T> items, int firstPosition, int warmUpGeneration) {
+        final TextLayoutCache cache = mTextLayoutCache;
+        if (cache == null) {
+            return;
+        }
+        // the presenters' paints are used by the main thread, this run lays out with its own copies
+        final IdentityHashMap<TextPaint, TextPaint> paintCopies = new IdentityHashMap<>();
+        int remaining = cache.maxSize();
+        final int size = items.size();
+        for (int i = firstPosition; i < size && remaining > 0; i++) {
+            if (warmUpGeneration != mWarmUpGeneration) {
+                return;
+            }
+            remaining -= warmUpTextLayouts(cache, items.get(i), paintCopies);
+        }
+        for (int i = firstPosition - 1; i >= 0 && remaining > 0; i--) {
+            if (warmUpGeneration != mWarmUpGeneration) {
+                return;
+            }
+            remaining -= warmUpTextLayouts(cache, items.get(i), paintCopies);
+        }
+    }
+
+    /**
+     * @return number of text fields of the item that were precomputed
+     */
+    @SuppressWarnings("unchecked")
+    private int warmUpTextLayouts(TextLayoutCache cache, @Nullable T item,
+                                  IdentityHashMap<TextPaint, TextPaint> paintCopies) {
+        if (item == null) {
+            return 0;
+        }
+        final ViewHolderPresenter presenter = getPresenter(getViewTypeForItem(item));
+        if (!(presenter instanceof TextLayoutPresenter)) {
+            return 0;
+        }
+        final TextLayoutPresenter textPresenter = (TextLayoutPresenter) presenter;
+        int precomputed = 0;
+        for (int field = 0, count = textPresenter.getTextFieldCount(); field < count; field++) {
+            final CharSequence text = textPresenter.getText(item, field);
+            if (text == null) {
+                continue;
+            }
+            final TextPaint paint = textPresenter.getTextPaint(field);
+            TextPaint paintCopy = paintCopies.get(paint);
+            if (paintCopy == null) {
+                paintCopy = new TextPaint();
+                // copies the text fields too, unlike the Paint copy constructor
+                paintCopy.set(paint);
+                paintCopies.put(paint, paintCopy);
+            }
+            cache.precompute(text, paint, paintCopy, textPresenter.getTextWidth(field));
+            precomputed++;
+        }
+        return precomputed;
+    }
+
+    private void latchInsertedList(List<T> newList) {
+        final List<T> oldList = mItems;
+        mItems = newList;
+        mStableIdKeys.clear();
+        notifyItemRangeInserted(0, newList.size());
+        onCurrentListChanged(oldList, newList);
+        scheduleTextLayoutWarmUp();
+    }
+
+    private void latchList(List<T> newList, ListDiffer.DiffResult result) {
+        final List<T> oldList = mItems;
+        mItems = newList;
+        mStableIdKeys.retain(newList);
+        result.dispatchUpdatesTo(mUpdateCallback);
+        onCurrentListChanged(oldList, newList);
+        scheduleTextLayoutWarmUp();
+    }
+
+    /**
+     * Called on the main thread after a submitted list became the current list and its updates were dispatched.
+     *
+     * @param previousList - list that was displayed before
+     * @param currentList  - list that is displayed now
+     */
+    protected void onCurrentListChanged(List<T> previousList, List<T> currentList) {
+    }
+
+    /**
+     * @return the list that is currently displayed
+     */
+    public List<T> getCurrentList() {
+        return Collections.unmodifiableList(mItems);
+    }
+
+    public T getItem(int position) {
+        return mItems.get(position);
+    }
+
+    @Nullable
+    @Override
+    public Object getDataForPosition(int position) {
+        return mItems.get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItems.size();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return getViewTypeForItem(mItems.get(position));
+    }
+
+    /**
+     * Returns the view type of the given item. Must be a pure function of the item, as it is
+     * also called from the diff thread.
+     *
+     * @param item - item of the list
+     * @return view type of a presenter added to this adapter
+     */
+    public abstract int getViewTypeForItem(T item);
+
+    /**
+     * Computes the change payload between two versions of the same item.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    Object getChangePayload(T oldItem, T newItem) {
+        Object payload = mItemCallback.getChangePayload(oldItem, newItem);
+        if (payload != null) {
+            return payload;
+        }
+        final int viewType = getViewTypeForItem(oldItem);
+        if (viewType != getViewTypeForItem(newItem)) {
+            return null;
+        }
+        ViewHolderPresenter presenter = getPresenter(viewType);
+        if (presenter instanceof PayloadViewHolderPresenter) {
+            return ((PayloadViewHolderPresenter) presenter).getChangePayload(oldItem, newItem);
+        }
+        return null;
+    }
+
+    private static ExecutorService getDefaultDiffExecutor() {
+        if (sDiffExecutor == null) {
+            synchronized (ListPresenterAdapter.class) {
+                if (sDiffExecutor == null) {
+                    sDiffExecutor = Executors.newFixedThreadPool(2);
+                }
+            }
+        }
+        return sDiffExecutor;
+    }
+
+    /**
+     * Adapts an {@link ListDiffer.ItemCallback} to the position based {@link ListDiffer.Callback}.
+     */
+    static final class ListCallback<T> extends ListDiffer.Callback {
+
+        private final List<T> mOldList;
+        private final List<T> mNewList;
+        private final ListDiffer.ItemCallback<T> mItemCallback;
+        private final ListPresenterAdapter<T> mAdapter;
+
+        ListCallback(List<T> oldList, List<T> newList, ListPresenterAdapter<T> adapter) {
+            mOldList = oldList;
+            mNewList = newList;
+            mItemCallback = adapter.mItemCallback;
+            mAdapter = adapter;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            T oldItem = mOldList.get(oldItemPosition);
+            T newItem = mNewList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return mItemCallback.areItemsTheSame(oldItem, newItem);
+            }
+            return oldItem == null && newItem == null;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            T oldItem = mOldList.get(oldItemPosition);
+            T newItem = mNewList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return mItemCallback.areContentsTheSame(oldItem, newItem);
+            }
+            return oldItem == null && newItem == null;
+        }
+
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            T oldItem = mOldList.get(oldItemPosition);
+            T newItem = mNewList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return mAdapter.getChangePayload(oldItem, newItem);
+            }
+            return null;
+        }
+    }
+}
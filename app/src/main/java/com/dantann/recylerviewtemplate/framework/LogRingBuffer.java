@@ -0,0 +1,194 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock free, multi producer queue of log records, based on Dmitry Vyukov's bounded MPMC queue.
+ * <p>
+ * Records are stored in preallocated parallel arrays, so adding a record does not allocate. Each slot has a
+ * sequence number that tells producers and consumers whether the slot is free or holds a record of the
+ * current lap; the sequence write also publishes the record fields.
+ * <p>
+ * When the buffer is full, {@link #POLICY_DROP_NEWEST} drops the new record and {@link #POLICY_OVERWRITE_OLDEST}
+ * removes the oldest record to make room for it.
+ */
+public final class LogRingBuffer {
+
+    public static final int POLICY_DROP_NEWEST = 0;
+    public static final int POLICY_OVERWRITE_OLDEST = 1;
+
+    /**
+     * Receives the records removed by {@link #drainTo(Consumer, int)}.
+     */
+    public interface Consumer {
+        void accept(long timeMillis, int priority, @Nullable String tag, String message, @Nullable Throwable t);
+    }
+
+    private final int mMask;
+    private final int mPolicy;
+    private final AtomicLongArray mSequences;
+
+    private final long[] mTimes;
+    private final int[] mPriorities;
+    private final String[] mTags;
+    private final String[] mMessages;
+    private final Throwable[] mThrowables;
+
+    private final AtomicLong mEnqueuePosition = new AtomicLong();
+    private final AtomicLong mDequeuePosition = new AtomicLong();
+
+    private final AtomicLong mDroppedCount = new AtomicLong();
+
+    /**
+     * @param capacity - number of records, rounded up to a power of two
+     * @param policy   - {@link #POLICY_DROP_NEWEST} or {@link #POLICY_OVERWRITE_OLDEST}
+     */
+    public LogRingBuffer(int capacity, int policy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2, was " + capacity);
+        }
+        if (policy != POLICY_DROP_NEWEST && policy != POLICY_OVERWRITE_OLDEST) {
+            throw new IllegalArgumentException("Unknown policy " + policy);
+        }
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        mMask = size - 1;
+        mPolicy = policy;
+        mSequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            mSequences.set(i, i);
+        }
+        mTimes = new long[size];
+        mPriorities = new int[size];
+        mTags = new String[size];
+        mMessages = new String[size];
+        mThrowables = new Throwable[size];
+    }
+
+    public int capacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * Adds a record, can be called from any thread.
+     *
+     * @return true if the record was added, false if it was dropped
+     */
+    public boolean offer(long timeMillis, int priority, @Nullable String tag, String message, @Nullable Throwable t) {
+        long position = mEnqueuePosition.get();
+        int index;
+        while (true) {
+            index = (int) position & mMask;
+            final long difference = mSequences.get(index) - position;
+            if (difference == 0) {
+                if (mEnqueuePosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = mEnqueuePosition.get();
+            } else if (difference < 0) {
+                // full, the slot still holds the record of the previous lap
+                if (mPolicy == POLICY_DROP_NEWEST) {
+                    mDroppedCount.incrementAndGet();
+                    return false;
+                }
+                discardOldest();
+                position = mEnqueuePosition.get();
+            } else {
+                position = mEnqueuePosition.get();
+            }
+        }
+        mTimes[index] = timeMillis;
+        mPriorities[index] = priority;
+        mTags[index] = tag;
+        mMessages[index] = message;
+        mThrowables[index] = t;
+        // a full barrier, so a consumer that checks for records before parking can not miss this one
+        mSequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Removes up to {@code maxRecords} records in order and passes them to the consumer.
+     *
+     * @return number of records drained
+     */
+    public int drainTo(Consumer consumer, int maxRecords) {
+        int count = 0;
+        while (count < maxRecords) {
+            long position = mDequeuePosition.get();
+            int index;
+            while (true) {
+                index = (int) position & mMask;
+                final long difference = mSequences.get(index) - (position + 1);
+                if (difference == 0) {
+                    if (mDequeuePosition.compareAndSet(position, position + 1)) {
+                        break;
+                    }
+                    position = mDequeuePosition.get();
+                } else if (difference < 0) {
+                    return count;
+                } else {
+                    position = mDequeuePosition.get();
+                }
+            }
+            final long time = mTimes[index];
+            final int priority = mPriorities[index];
+            final String tag = mTags[index];
+            final String message = mMessages[index];
+            final Throwable t = mThrowables[index];
+            release(index, position);
+            consumer.accept(time, priority, tag, message, t);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return true if the buffer holds no records
+     */
+    public boolean isEmpty() {
+        final long position = mDequeuePosition.get();
+        return mSequences.get((int) position & mMask) - (position + 1) < 0;
+    }
+
+    /**
+     * @return number of records that were dropped or overwritten because the buffer was full
+     */
+    public long getDroppedCount() {
+        return mDroppedCount.get();
+    }
+
+    /**
+     * Removes the oldest record, the caller retries its offer afterwards.
+     */
+    private void discardOldest() {
+        long position = mDequeuePosition.get();
+        while (true) {
+            final int index = (int) position & mMask;
+            final long difference = mSequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (mDequeuePosition.compareAndSet(position, position + 1)) {
+                    release(index, position);
+                    mDroppedCount.incrementAndGet();
+                    return;
+                }
+                position = mDequeuePosition.get();
+            } else if (difference < 0) {
+                // drained meanwhile, or the oldest record is still being written by another producer
+                Thread.yield();
+                return;
+            } else {
+                position = mDequeuePosition.get();
+            }
+        }
+    }
+
+    private void release(int index, long position) {
+        mTags[index] = null;
+        mMessages[index] = null;
+        mThrowables[index] = null;
+        mSequences.lazySet(index, position + mMask + 1);
+    }
+}
@@ -0,0 +1,235 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.dantann.recylerviewtemplate.BuildConfig;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import timber.log.Timber;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Logging facade over {@link Timber} with a fixed tag per class, meant to be held in a static constant:
+ * <pre>
+ * private static final Logger LOG = Logger.forClass(MyClass.class);
+ * </pre>
+ * Passing the tag to Timber spares the stack trace that {@link DebugTree} captures on every call to derive it.
+ * A call below the minimum priority returns before the message is formatted, and does not allocate when it
+ * has up to two arguments, as those overloads do not take varargs. Arguments are still evaluated and
+ * primitives boxed, guard expensive ones with {@link #isLoggable(int)}.
+ * <p>
+ * The verbose and debug methods test {@link BuildConfig#LOG_DEBUG} first. It is a constant that is false in release
+ * builds, so javac drops their bodies and a call only costs the call itself, whatever the minimum priority.
+ * Calls to {@link Timber} itself are not stripped, log through a Logger.
+ */
+public final class Logger {
+
+    /**
+     * Longest tag accepted by {@link Log#isLoggable(String, int)} before API 24
+     */
+    private static final int MAX_TAG_LENGTH = 23;
+
+    private static final ConcurrentHashMap<String, Logger> sCallerLoggers = new ConcurrentHashMap<>();
+
+    private static volatile int sMinPriority = Log.VERBOSE;
+
+    private final String mTag;
+
+    private Logger(String tag) {
+        mTag = tag;
+    }
+
+    /**
+     * @param cls - class that logs
+     * @return logger tagged with the simple name of the class
+     */
+    public static Logger forClass(Class<?> cls) {
+        checkNotNull(cls, "cls == null");
+        return withTag(tagOf(cls.getName()));
+    }
+
+    /**
+     * Returns the logger of the calling class. Walks the stack on every call, the loggers are cached by class,
+     * so prefer {@link #forClass(Class)} and only call this to initialize a static constant.
+     *
+     * @return logger tagged with the simple name of the calling class
+     */
+    public static Logger forCaller() {
+        final StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+        final String className = stackTrace.length > 1 ? stackTrace[1].getClassName() : Logger.class.getName();
+        Logger logger = sCallerLoggers.get(className);
+        if (logger == null) {
+            logger = withTag(tagOf(className));
+            final Logger existing = sCallerLoggers.putIfAbsent(className, logger);
+            if (existing != null) {
+                logger = existing;
+            }
+        }
+        return logger;
+    }
+
+    /**
+     * @param tag - tag of the logs, truncated to 23 characters
+     * @return logger with the tag
+     */
+    public static Logger withTag(String tag) {
+        checkNotNull(tag, "tag == null");
+        return new Logger(tag.length() > MAX_TAG_LENGTH ? tag.substring(0, MAX_TAG_LENGTH) : tag);
+    }
+
+    /**
+     * Sets the lowest priority that is logged, e.g. {@link Log#INFO} in release builds.
+     *
+     * @param priority - priority of {@link Log}
+     */
+    public static void setMinPriority(int priority) {
+        sMinPriority = priority;
+    }
+
+    public static int getMinPriority() {
+        return sMinPriority;
+    }
+
+    public String getTag() {
+        return mTag;
+    }
+
+    /**
+     * @param priority - priority of {@link Log}
+     * @return true if logs of the priority are logged, never for verbose and debug in release builds
+     */
+    public boolean isLoggable(int priority) {
+        return priority >= sMinPriority && (BuildConfig.LOG_DEBUG || priority > Log.DEBUG);
+    }
+
+    public void v(String message) {
+        if (BuildConfig.LOG_DEBUG && isLoggable(Log.VERBOSE)) {
+            log(Log.VERBOSE, null, message);
+        }
+    }
+
+    public void v(String message, Object arg) {
+        if (BuildConfig.LOG_DEBUG && isLoggable(Log.VERBOSE)) {
+            log(Log.VERBOSE, null, message, arg);
+        }
+    }
+
+    public void v(String message, Object arg1, Object arg2) {
+        if (BuildConfig.LOG_DEBUG && isLoggable(Log.VERBOSE)) {
+            log(Log.VERBOSE, null, message, arg1, arg2);
+        }
+    }
+
+    public void v(String message, Object... args) {
+        if (BuildConfig.LOG_DEBUG && isLoggable(Log.VERBOSE)) {
+            log(Log.VERBOSE, null, message, args);
+        }
+    }
+
+    public void d(String message) {
+        if (BuildConfig.LOG_DEBUG && isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, null, message);
+        }
+    }
+
+    public void d(String message, Object arg) {
+        if (BuildConfig.LOG_DEBUG && isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, null, message, arg);
+        }
+    }
+
+    public void d(String message, Object arg1, Object arg2) {
+        if (BuildConfig.LOG_DEBUG && isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, null, message, arg1, arg2);
+        }
+    }
+
+    public void d(String message, Object... args) {
+        if (BuildConfig.LOG_DEBUG && isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, null, message, args);
+        }
+    }
+
+    public void i(String message) {
+        if (isLoggable(Log.INFO)) {
+            log(Log.INFO, null, message);
+        }
+    }
+
+    public void i(String message, Object arg) {
+        if (isLoggable(Log.INFO)) {
+            log(Log.INFO, null, message, arg);
+        }
+    }
+
+    public void i(String message, Object arg1, Object arg2) {
+        if (isLoggable(Log.INFO)) {
+            log(Log.INFO, null, message, arg1, arg2);
+        }
+    }
+
+    public void i(String message, Object... args) {
+        if (isLoggable(Log.INFO)) {
+            log(Log.INFO, null, message, args);
+        }
+    }
+
+    public void w(String message, Object... args) {
+        if (isLoggable(Log.WARN)) {
+            log(Log.WARN, null, message, args);
+        }
+    }
+
+    public void w(Throwable t, String message, Object... args) {
+        if (isLoggable(Log.WARN)) {
+            log(Log.WARN, t, message, args);
+        }
+    }
+
+    public void e(String message, Object... args) {
+        if (isLoggable(Log.ERROR)) {
+            log(Log.ERROR, null, message, args);
+        }
+    }
+
+    public void e(Throwable t, String message, Object... args) {
+        if (isLoggable(Log.ERROR)) {
+            log(Log.ERROR, t, message, args);
+        }
+    }
+
+    private void log(int priority, @Nullable Throwable t, String message, Object... args) {
+        // applies to the next log call of this thread on every tree
+        Timber.tag(mTag);
+        switch (priority) {
+            case Log.VERBOSE:
+                Timber.v(t, message, args);
+                break;
+            case Log.DEBUG:
+                Timber.d(t, message, args);
+                break;
+            case Log.INFO:
+                Timber.i(t, message, args);
+                break;
+            case Log.WARN:
+                Timber.w(t, message, args);
+                break;
+            default:
+                Timber.e(t, message, args);
+                break;
+        }
+    }
+
+    private static String tagOf(String className) {
+        String tag = className.substring(className.lastIndexOf('.') + 1);
+        // tags anonymous and inner classes with the outer class
+        final int inner = tag.indexOf('$');
+        if (inner > 0) {
+            tag = tag.substring(0, inner);
+        }
+        return tag;
+    }
+}
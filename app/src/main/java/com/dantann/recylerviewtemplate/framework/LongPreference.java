@@ -0,0 +1,41 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.SharedPreferences;
+
+/**
+ * Preference holding a long, cached in memory, see {@link CachedPreference}.
+ */
+public class LongPreference extends CachedPreference<Long> {
+
+    private static final Logger LOG = Logger.forClass(LongPreference.class);
+
+    public LongPreference(SharedPreferences preferences, String key, long defaultValue) {
+        super(preferences, key, defaultValue);
+    }
+
+    /**
+     * @return the value without boxing a new object
+     */
+    public long getLong() {
+        return get();
+    }
+
+    public void set(long value) {
+        set((Long) value);
+    }
+
+    @Override
+    protected Long read(PreferenceWriter writer, String key, Long defaultValue) {
+        try {
+            return writer.getLong(key, defaultValue);
+        } catch (ClassCastException e) {
+            LOG.w(e, "Preference %s is not a long", key);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    protected Object write(Long value) {
+        return value;
+    }
+}
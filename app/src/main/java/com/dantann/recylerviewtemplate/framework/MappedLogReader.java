@@ -0,0 +1,194 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.WorkerThread;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Locale;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Decodes the files written by {@link MappedLogSink} into text for bug reports, oldest record first.
+ * <p>
+ * Files can be read while the sink is writing them, records that are not complete yet are not read.
+ * Files that are damaged or of another version are skipped.
+ */
+public final class MappedLogReader {
+
+    private static final Logger LOG = Logger.forClass(MappedLogReader.class);
+
+    private static final char[] PRIORITY_LETTERS = {'?', '?', 'V', 'D', 'I', 'W', 'E', 'A'};
+
+    private final File mDirectory;
+    private final SimpleDateFormat mDateFormat = new SimpleDateFormat("MM-dd HH:mm:ss.SSS", Locale.US);
+
+    /**
+     * @param directory - directory of the {@link MappedLogSink}
+     */
+    public MappedLogReader(File directory) {
+        mDirectory = checkNotNull(directory, "directory == null");
+    }
+
+    /**
+     * Writes all records as lines of text, in the format of logcat.
+     *
+     * @param out - writer, not closed
+     * @return number of records written
+     */
+    @WorkerThread
+    public int export(Writer out) throws IOException {
+        final File[] files = listFiles(mDirectory);
+        final long[] sequences = new long[files.length];
+        final Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            sequences[i] = readSequence(files[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                return sequences[lhs] < sequences[rhs] ? -1 : (sequences[lhs] == sequences[rhs] ? 0 : 1);
+            }
+        });
+        int count = 0;
+        final StringBuilder line = new StringBuilder(256);
+        for (Integer index : order) {
+            if (sequences[index] >= 0) {
+                count += exportFile(files[index], out, line);
+            }
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Writes all records to a UTF-8 text file, e.g. to attach it to a bug report.
+     *
+     * @param file - file to write, replaced if it exists
+     * @return number of records written
+     */
+    @WorkerThread
+    public int exportTo(File file) throws IOException {
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), MappedLogSink.UTF_8);
+        try {
+            return export(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private int exportFile(File file, Writer out, StringBuilder line) throws IOException {
+        final ByteBuffer buffer = readFile(file);
+        buffer.position(MappedLogSink.HEADER_SIZE);
+        int count = 0;
+        while (buffer.remaining() >= MappedLogSink.RECORD_OVERHEAD) {
+            final int length = buffer.getInt();
+            if (length < MappedLogSink.RECORD_OVERHEAD - 4 || length > buffer.remaining()) {
+                // end of the records, or a record that is not complete
+                break;
+            }
+            final int end = buffer.position() + length;
+            final long timeMillis = buffer.getLong();
+            final int priority = buffer.get();
+            final int tagLength = buffer.getShort();
+            if (tagLength < 0 || buffer.position() + tagLength > end) {
+                LOG.w("Damaged record in %s", file);
+                break;
+            }
+            final String tag = new String(buffer.array(), buffer.position(), tagLength, MappedLogSink.UTF_8);
+            final int messageStart = buffer.position() + tagLength;
+            final String message = new String(buffer.array(), messageStart, end - messageStart,
+                    MappedLogSink.UTF_8);
+            buffer.position(end);
+
+            line.setLength(0);
+            line.append(mDateFormat.format(new Date(timeMillis)))
+                    .append(' ')
+                    .append(priority >= 0 && priority < PRIORITY_LETTERS.length ? PRIORITY_LETTERS[priority] : '?')
+                    .append('/')
+                    .append(tag)
+                    .append(": ")
+                    .append(message)
+                    .append('\n');
+            out.append(line);
+            count++;
+        }
+        return count;
+    }
+
+    static File[] listFiles(File directory) {
+        final File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return fileIndex(file) >= 0;
+            }
+        });
+        return files == null ? new File[0] : files;
+    }
+
+    /**
+     * @return index of a log file in the rotation, -1 if it is not a log file
+     */
+    static int fileIndex(File file) {
+        final String name = file.getName();
+        if (!name.startsWith(MappedLogSink.FILE_PREFIX) || !name.endsWith(MappedLogSink.FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(MappedLogSink.FILE_PREFIX.length(),
+                    name.length() - MappedLogSink.FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return sequence number of a log file, -1 if it is not a valid log file
+     */
+    static long readSequence(File file) {
+        try {
+            final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+            try {
+                if (randomAccessFile.length() < MappedLogSink.HEADER_SIZE
+                        || randomAccessFile.readInt() != MappedLogSink.MAGIC
+                        || randomAccessFile.readInt() != MappedLogSink.VERSION) {
+                    return -1;
+                }
+                return randomAccessFile.readLong();
+            } finally {
+                randomAccessFile.close();
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static ByteBuffer readFile(File file) throws IOException {
+        final FileInputStream input = new FileInputStream(file);
+        try {
+            final FileChannel channel = input.getChannel();
+            final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read the whole file
+            }
+            buffer.flip();
+            return buffer.order(ByteOrder.BIG_ENDIAN);
+        } finally {
+            input.close();
+        }
+    }
+}
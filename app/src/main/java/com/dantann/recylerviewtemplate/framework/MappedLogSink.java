@@ -0,0 +1,190 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Sink of an {@link AsyncTree} that writes compact binary log records into a rotating set of memory-mapped files,
+ * so the logs of the field can be attached to bug reports, see {@link MappedLogReader}.
+ * <p>
+ * Writing a record is a copy into the mapping, without a system call. A record becomes visible by writing its
+ * length after its content, files are zero filled, so a record that was cut off by a crash reads as the end of
+ * the file. The kernel writes the pages back even if the process crashes,
+ * records of {@link Log#ASSERT} priority are also written back right away.
+ * <p>
+ * Disk usage is bounded by {@code fileCount * fileSize}: when the current file is full the oldest one is
+ * replaced, and every process starts a new file. The files are only opened once the first record is written,
+ * so creating the sink on the main thread does no IO. Only called on the drain thread of the tree.
+ */
+public class MappedLogSink implements LogRingBuffer.Consumer {
+
+    private static final Logger LOG = Logger.forClass(MappedLogSink.class);
+
+    public static final int DEFAULT_FILE_SIZE = 256 * 1024;
+    public static final int DEFAULT_FILE_COUNT = 4;
+
+    /*
+     * File format, big endian:
+     *   header: int MAGIC, int VERSION, long sequence of the file
+     *   record: int length of the rest of the record, long time millis, byte priority,
+     *           short tag length, tag bytes, message bytes
+     * A length of 0 ends the records of a file.
+     */
+    static final int MAGIC = 0x544C4F47;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_OVERHEAD = 4 + 8 + 1 + 2;
+    static final String FILE_PREFIX = "log-";
+    static final String FILE_SUFFIX = ".bin";
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int MAX_TAG_LENGTH = 256;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final File mDirectory;
+    private final int mFileSize;
+    private final int mFileCount;
+    private final int mMinPriority;
+
+    @Nullable
+    private MappedByteBuffer mBuffer;
+    private int mFileIndex = -1;
+    private long mSequence;
+    private boolean mFailed;
+
+    /**
+     * @param directory   - directory of the log files, only used by this sink
+     * @param minPriority - lowest priority that is written, e.g. {@link Log#INFO}
+     */
+    public MappedLogSink(File directory, int minPriority) {
+        this(directory, minPriority, DEFAULT_FILE_SIZE, DEFAULT_FILE_COUNT);
+    }
+
+    /**
+     * @param directory   - directory of the log files, only used by this sink
+     * @param minPriority - lowest priority that is written, e.g. {@link Log#INFO}
+     * @param fileSize    - size of each file in bytes
+     * @param fileCount   - number of files kept
+     */
+    public MappedLogSink(File directory, int minPriority, int fileSize, int fileCount) {
+        if (fileSize < HEADER_SIZE + RECORD_OVERHEAD + MAX_TAG_LENGTH) {
+            throw new IllegalArgumentException("fileSize too small: " + fileSize);
+        }
+        if (fileCount < 2) {
+            throw new IllegalArgumentException("fileCount must be at least 2, was " + fileCount);
+        }
+        mDirectory = checkNotNull(directory, "directory == null");
+        mMinPriority = minPriority;
+        mFileSize = fileSize;
+        mFileCount = fileCount;
+    }
+
+    @Override
+    public void accept(long timeMillis, int priority, @Nullable String tag, String message, @Nullable Throwable t) {
+        // Timber already appended the stack trace of t to the message
+        if (priority < mMinPriority || mFailed) {
+            return;
+        }
+        byte[] tagBytes = tag == null ? EMPTY : tag.getBytes(UTF_8);
+        if (tagBytes.length > MAX_TAG_LENGTH) {
+            tagBytes = truncate(tagBytes, MAX_TAG_LENGTH);
+        }
+        byte[] messageBytes = message.getBytes(UTF_8);
+        final int maxMessageLength = mFileSize - HEADER_SIZE - RECORD_OVERHEAD - tagBytes.length - 4;
+        if (messageBytes.length > maxMessageLength) {
+            messageBytes = truncate(messageBytes, maxMessageLength);
+        }
+        final int recordSize = RECORD_OVERHEAD + tagBytes.length + messageBytes.length;
+        try {
+            // keeps room for the terminating length of 0
+            if (mBuffer == null || mBuffer.remaining() < recordSize + 4) {
+                rotate();
+            }
+        } catch (IOException e) {
+            mFailed = true;
+            LOG.e(e, "Can not open log file in %s, file logging is disabled", mDirectory);
+            return;
+        }
+        final MappedByteBuffer buffer = mBuffer;
+        final int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.putLong(timeMillis);
+        buffer.put((byte) priority);
+        buffer.putShort((short) tagBytes.length);
+        buffer.put(tagBytes);
+        buffer.put(messageBytes);
+        buffer.putInt(start, recordSize - 4);
+        if (priority == Log.ASSERT) {
+            // the process is likely about to die, this record must also survive a power loss
+            buffer.force();
+        }
+    }
+
+    /**
+     * @return directory of the log files
+     */
+    public File getDirectory() {
+        return mDirectory;
+    }
+
+    /**
+     * Starts the next file, replacing the oldest one.
+     */
+    private void rotate() throws IOException {
+        if (mBuffer != null) {
+            mBuffer.force();
+        } else {
+            if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+                throw new IOException("Can not create " + mDirectory);
+            }
+            // continues after the newest file of the previous process
+            final File[] files = MappedLogReader.listFiles(mDirectory);
+            for (File file : files) {
+                final long sequence = MappedLogReader.readSequence(file);
+                if (sequence >= mSequence) {
+                    mSequence = sequence + 1;
+                    mFileIndex = MappedLogReader.fileIndex(file);
+                }
+            }
+        }
+        mFileIndex = (mFileIndex + 1) % mFileCount;
+        final File file = new File(mDirectory, FILE_PREFIX + mFileIndex + FILE_SUFFIX);
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            // truncating first zero fills the whole file
+            randomAccessFile.setLength(0);
+            randomAccessFile.setLength(mFileSize);
+            final FileChannel channel = randomAccessFile.getChannel();
+            mBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mFileSize);
+        } finally {
+            // the mapping stays valid after the file is closed
+            randomAccessFile.close();
+        }
+        mBuffer.order(ByteOrder.BIG_ENDIAN);
+        mBuffer.putInt(MAGIC);
+        mBuffer.putInt(VERSION);
+        mBuffer.putLong(mSequence++);
+    }
+
+    /**
+     * Truncates UTF-8 bytes without splitting a character.
+     */
+    private static byte[] truncate(byte[] bytes, int length) {
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        final byte[] truncated = new byte[length];
+        System.arraycopy(bytes, 0, truncated, 0, length);
+        return truncated;
+    }
+}
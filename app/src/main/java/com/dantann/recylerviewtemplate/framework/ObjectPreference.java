@@ -0,0 +1,64 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.SharedPreferences;
+import android.support.annotation.Nullable;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Preference holding an object that is serialized to a string, e.g. as JSON, and cached in memory,
+ * see {@link CachedPreference}. The object is only deserialized when the value is loaded.
+ * Cached objects are shared by all readers, so they should be immutable.
+ *
+ * @param <T> type of the object
+ */
+public class ObjectPreference<T> extends CachedPreference<T> {
+
+    private static final Logger LOG = Logger.forClass(ObjectPreference.class);
+
+    /**
+     * Converts objects to and from their stored string.
+     */
+    public interface Converter<T> {
+
+        /**
+         * @param serialized - stored string
+         * @return the object, null if the string can not be parsed
+         */
+        @Nullable
+        T deserialize(String serialized) throws Exception;
+
+        String serialize(T value);
+    }
+
+    private final Converter<T> mConverter;
+
+    public ObjectPreference(SharedPreferences preferences, String key, Converter<T> converter) {
+        this(preferences, key, converter, null);
+    }
+
+    public ObjectPreference(SharedPreferences preferences, String key, Converter<T> converter, @Nullable T defaultValue) {
+        super(preferences, key, defaultValue);
+        mConverter = checkNotNull(converter, "converter == null");
+    }
+
+    @Override
+    protected T read(PreferenceWriter writer, String key, T defaultValue) {
+        final String serialized = writer.getString(key, null);
+        if (serialized == null) {
+            return defaultValue;
+        }
+        try {
+            final T value = mConverter.deserialize(serialized);
+            return value == null ? defaultValue : value;
+        } catch (Exception e) {
+            LOG.w(e, "Failed to deserialize preference %s", key);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    protected Object write(T value) {
+        return mConverter.serialize(value);
+    }
+}
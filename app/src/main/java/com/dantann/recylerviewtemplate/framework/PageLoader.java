@@ -0,0 +1,49 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.WorkerThread;
+
+import java.util.List;
+
+/**
+ * Loads pages of items for a {@link PagedList}, e.g. from a server or a database.
+ *
+ * @param <T> type of the items
+ */
+public interface PageLoader<T> {
+
+    /**
+     * Loads a page of items. Called on the load executor of the {@link PagedList}, never on the main thread.
+     *
+     * @param pageIndex - index of the page, the first item of the page is at {@code pageIndex * pageSize}
+     * @param pageSize  - number of items in a full page
+     * @return the loaded page
+     * @throws Exception if the page could not be loaded, it is requested again the next time it is needed
+     */
+    @WorkerThread
+    Page<T> loadPage(int pageIndex, int pageSize) throws Exception;
+
+    /**
+     * A loaded page along with the total number of items in the data set.
+     */
+    final class Page<T> {
+        final List<T> mItems;
+        final int mTotalCount;
+
+        /**
+         * @param items      - items of the page, at most pageSize items
+         * @param totalCount - total number of items in the data set
+         */
+        public Page(List<T> items, int totalCount) {
+            mItems = items;
+            mTotalCount = totalCount;
+        }
+
+        public List<T> getItems() {
+            return mItems;
+        }
+
+        public int getTotalCount() {
+            return mTotalCount;
+        }
+    }
+}
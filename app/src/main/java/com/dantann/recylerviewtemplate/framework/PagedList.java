@@ -0,0 +1,379 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * List of items that are loaded in pages by a {@link PageLoader}. Positions whose page is not loaded
+ * are placeholders and return null.
+ * <p>
+ * Pages are loaded on a background executor when {@link #loadAround(int)} is called for a position within
+ * the prefetch distance. At most {@code maxLoadedPages} pages of the {@link Config} are kept in memory, when a new page
+ * is loaded the page farthest from the last accessed position is evicted, so memory stays constant
+ * regardless of the size of the data set. A page that arrives after the position moved away, outside the prefetch
+ * distance or farther than every loaded page, is dropped instead of evicting a page closer to the position.
+ * <p>
+ * All methods must be called on the thread of the notify executor, usually the main thread.
+ *
+ * @param <T> type of the items
+ */
+public class PagedList<T> {
+
+    private static final Logger LOG = Logger.forClass(PagedList.class);
+
+    private static final int NO_PAGE = -1;
+
+    /**
+     * Receives changes of the list on the notify executor.
+     */
+    public interface Callback {
+
+        /**
+         * Called when the total number of items changed.
+         */
+        void onSizeChanged(int oldSize, int newSize);
+
+        /**
+         * Called when a range of items was loaded or evicted and turned back into placeholders.
+         */
+        void onItemRangeChanged(int positionStart, int itemCount);
+    }
+
+    /**
+     * Paging configuration.
+     */
+    public static final class Config {
+        final int mPageSize;
+        final int mPrefetchDistance;
+        final int mMaxLoadedPages;
+
+        /**
+         * @param pageSize         - number of items per page
+         * @param prefetchDistance - number of items around the accessed position that should be loaded
+         * @param maxLoadedPages   - maximum number of pages kept in memory, must cover the prefetch distance
+         */
+        public Config(int pageSize, int prefetchDistance, int maxLoadedPages) {
+            if (pageSize < 1) {
+                throw new IllegalArgumentException("pageSize must be positive, was " + pageSize);
+            }
+            if (prefetchDistance < 0) {
+                throw new IllegalArgumentException("prefetchDistance must not be negative, was " + prefetchDistance);
+            }
+            final int prefetchPages = 2 * ((prefetchDistance + pageSize - 1) / pageSize) + 1;
+            if (maxLoadedPages < prefetchPages) {
+                throw new IllegalArgumentException("maxLoadedPages must be at least " + prefetchPages
+                        + " to cover the prefetch distance, was " + maxLoadedPages);
+            }
+            mPageSize = pageSize;
+            mPrefetchDistance = prefetchDistance;
+            mMaxLoadedPages = maxLoadedPages;
+        }
+    }
+
+    private final PageLoader<T> mLoader;
+    private final Config mConfig;
+    private final Executor mLoadExecutor;
+    private final Executor mNotifyExecutor;
+
+    @Nullable
+    private Callback mCallback;
+
+    private int mSize;
+
+    /**
+     * Loaded pages are kept in slots, which are scanned linearly as there are only a few of them
+     */
+    private final int[] mSlotPages;
+    private final Object[] mSlotItems;
+    private final long[] mSlotAccess;
+    private long mAccessClock;
+
+    /**
+     * Pages that are currently loading
+     */
+    private int[] mLoadingPages = new int[4];
+    private int mLoadingCount;
+
+    private int mLastAccessedPosition;
+    private int mLastAccessedPage;
+
+    private boolean mStarted;
+
+    public PagedList(PageLoader<T> loader, Config config, Executor loadExecutor, Executor notifyExecutor) {
+        mLoader = checkNotNull(loader, "loader == null");
+        mConfig = checkNotNull(config, "config == null");
+        mLoadExecutor = checkNotNull(loadExecutor, "loadExecutor == null");
+        mNotifyExecutor = checkNotNull(notifyExecutor, "notifyExecutor == null");
+        mSlotPages = new int[config.mMaxLoadedPages];
+        Arrays.fill(mSlotPages, NO_PAGE);
+        mSlotItems = new Object[config.mMaxLoadedPages];
+        mSlotAccess = new long[config.mMaxLoadedPages];
+    }
+
+    /**
+     * @param callback - callback that receives changes of the list, null to remove it
+     */
+    public void setCallback(@Nullable Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Loads the first page, which also determines the size of the list.
+     */
+    public void start() {
+        if (!mStarted) {
+            mStarted = true;
+            loadPage(0);
+        }
+    }
+
+    /**
+     * @return total number of items including placeholders
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @param position - position of the item
+     * @return the item, null if its page is not loaded
+     */
+    @Nullable
+    public T get(int position) {
+        return get(position, true);
+    }
+
+    /**
+     * Same as {@link #get(int)}, but does not mark the page as accessed, e.g. to look up the id of an item.
+     *
+     * @param position - position of the item
+     * @return the item, null if its page is not loaded
+     */
+    @Nullable
+    public T peek(int position) {
+        return get(position, false);
+    }
+
+    /**
+     * @param position - position of the item
+     * @return true if the item is not loaded, {@link #get(int)} returns null exactly for placeholders
+     */
+    public boolean isPlaceholder(int position) {
+        return peek(position) == null;
+    }
+
+    /**
+     * Marks the position as accessed and loads the pages within the prefetch distance that are not loaded yet.
+     *
+     * @param position - accessed position, usually the position that is being bound
+     */
+    public void loadAround(int position) {
+        if (mSize == 0) {
+            // the first page failed to load, so the size is still unknown
+            if (mStarted && !isLoading(0)) {
+                loadPage(0);
+            }
+            return;
+        }
+        final int pageSize = mConfig.mPageSize;
+        mLastAccessedPosition = position;
+        mLastAccessedPage = position / pageSize;
+        final int firstPage = Math.max(0, position - mConfig.mPrefetchDistance) / pageSize;
+        final int lastPage = Math.min(mSize - 1, position + mConfig.mPrefetchDistance) / pageSize;
+        for (int page = firstPage; page <= lastPage; page++) {
+            if (findSlot(page) == -1 && !isLoading(page)) {
+                loadPage(page);
+            }
+        }
+    }
+
+    /**
+     * @return number of pages currently in memory
+     */
+    public int getLoadedPageCount() {
+        int count = 0;
+        for (int slotPage : mSlotPages) {
+            if (slotPage != NO_PAGE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private T get(int position, boolean access) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + mSize);
+        }
+        final int page = position / mConfig.mPageSize;
+        final int slot = findSlot(page);
+        if (slot == -1) {
+            return null;
+        }
+        if (access) {
+            mSlotAccess[slot] = ++mAccessClock;
+        }
+        final List<T> items = (List<T>) mSlotItems[slot];
+        final int offset = position - page * mConfig.mPageSize;
+        // a page shorter than the page size leaves placeholders at its end
+        return offset < items.size() ? items.get(offset) : null;
+    }
+
+    private void loadPage(final int page) {
+        addLoading(page);
+        mLoadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                PageLoader.Page<T> result;
+                try {
+                    result = mLoader.loadPage(page, mConfig.mPageSize);
+                } catch (Exception e) {
+                    LOG.e(e, "Failed to load page %d", page);
+                    result = null;
+                }
+                final PageLoader.Page<T> loaded = result;
+                mNotifyExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        onPageLoaded(page, loaded);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onPageLoaded(int page, @Nullable PageLoader.Page<T> result) {
+        removeLoading(page);
+        if (result == null) {
+            return;
+        }
+        final int pageSize = mConfig.mPageSize;
+        if (result.mTotalCount != mSize) {
+            final int oldSize = mSize;
+            mSize = result.mTotalCount;
+            dropPagesBeyondSize();
+            if (mCallback != null) {
+                mCallback.onSizeChanged(oldSize, mSize);
+            }
+        }
+        final int pageStart = page * pageSize;
+        if (pageStart >= mSize) {
+            return;
+        }
+
+        int slot = findSlot(page);
+        if (slot == -1) {
+            if (!isInPrefetchWindow(page)) {
+                LOG.d("Dropped page %d loaded after position %d moved away", page, mLastAccessedPosition);
+                return;
+            }
+            slot = obtainSlot(Math.abs(page - mLastAccessedPage));
+            if (slot == -1) {
+                LOG.d("Dropped page %d, farther from position %d than all loaded pages", page,
+                        mLastAccessedPosition);
+                return;
+            }
+        }
+        mSlotPages[slot] = page;
+        mSlotItems[slot] = result.mItems;
+        mSlotAccess[slot] = ++mAccessClock;
+        if (mCallback != null) {
+            mCallback.onItemRangeChanged(pageStart, Math.min(pageSize, mSize - pageStart));
+        }
+    }
+
+    private boolean isInPrefetchWindow(int page) {
+        final int pageSize = mConfig.mPageSize;
+        final int firstPage = Math.max(0, mLastAccessedPosition - mConfig.mPrefetchDistance) / pageSize;
+        final int lastPage = Math.min(mSize - 1, mLastAccessedPosition + mConfig.mPrefetchDistance) / pageSize;
+        return page >= firstPage && page <= lastPage;
+    }
+
+    /**
+     * Returns an empty slot, or evicts the page farthest from the last accessed page if it is not closer than the
+     * page that needs the slot. Ties are broken by evicting the least recently accessed page.
+     *
+     * @param distance - distance of the page that needs the slot from the last accessed page
+     * @return slot, -1 if every loaded page is closer than the distance
+     */
+    private int obtainSlot(int distance) {
+        int evictSlot = -1;
+        int evictDistance = -1;
+        for (int slot = 0; slot < mSlotPages.length; slot++) {
+            if (mSlotPages[slot] == NO_PAGE) {
+                return slot;
+            }
+            final int slotDistance = Math.abs(mSlotPages[slot] - mLastAccessedPage);
+            if (slotDistance > evictDistance
+                    || (slotDistance == evictDistance && mSlotAccess[slot] < mSlotAccess[evictSlot])) {
+                evictSlot = slot;
+                evictDistance = slotDistance;
+            }
+        }
+        if (evictDistance < distance) {
+            return -1;
+        }
+        evict(evictSlot);
+        return evictSlot;
+    }
+
+    private void evict(int slot) {
+        final int page = mSlotPages[slot];
+        mSlotPages[slot] = NO_PAGE;
+        mSlotItems[slot] = null;
+        final int pageStart = page * mConfig.mPageSize;
+        if (mCallback != null && pageStart < mSize) {
+            mCallback.onItemRangeChanged(pageStart, Math.min(mConfig.mPageSize, mSize - pageStart));
+        }
+    }
+
+    private void dropPagesBeyondSize() {
+        for (int slot = 0; slot < mSlotPages.length; slot++) {
+            if (mSlotPages[slot] != NO_PAGE && mSlotPages[slot] * mConfig.mPageSize >= mSize) {
+                mSlotPages[slot] = NO_PAGE;
+                mSlotItems[slot] = null;
+            }
+        }
+    }
+
+    private int findSlot(int page) {
+        final int[] slotPages = mSlotPages;
+        for (int slot = 0; slot < slotPages.length; slot++) {
+            if (slotPages[slot] == page) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isLoading(int page) {
+        for (int i = 0; i < mLoadingCount; i++) {
+            if (mLoadingPages[i] == page) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addLoading(int page) {
+        if (mLoadingCount == mLoadingPages.length) {
+            mLoadingPages = Arrays.copyOf(mLoadingPages, mLoadingCount * 2);
+        }
+        mLoadingPages[mLoadingCount++] = page;
+    }
+
+    private void removeLoading(int page) {
+        for (int i = 0; i < mLoadingCount; i++) {
+            if (mLoadingPages[i] == page) {
+                mLoadingPages[i] = mLoadingPages[--mLoadingCount];
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+
+/**
+ * {@link PresenterAdapter} backed by a {@link PagedList}. Binding a position loads the pages around it,
+ * positions whose page is not loaded yet are bound by the placeholder presenter with a null model.
+ *
+ * @param <T> type of the items
+ */
+public abstract class PagedPresenterAdapter<T> extends PresenterAdapter implements PagedList.Callback {
+
+    @Nullable
+    private PagedList<T> mPagedList;
+
+    private int mPlaceholderViewType = PresenterRegistry.INVALID_TYPE;
+
+    /**
+     * Sets the presenter that binds placeholders, it is given a null model.
+     *
+     * @param presenter - presenter for positions whose page is not loaded
+     */
+    public void setPlaceholderPresenter(ViewHolderPresenter presenter) {
+        mPlaceholderViewType = addPresenter(presenter);
+    }
+
+    /**
+     * Replaces the current list and starts loading it.
+     *
+     * @param pagedList - new list, null to clear the adapter
+     */
+    @MainThread
+    public void setPagedList(@Nullable PagedList<T> pagedList) {
+        if (mPagedList != null) {
+            mPagedList.setCallback(null);
+        }
+        mPagedList = pagedList;
+        mStableIdKeys.clear();
+        if (pagedList != null) {
+            pagedList.setCallback(this);
+            pagedList.start();
+        }
+        notifyDataSetChanged();
+    }
+
+    @Nullable
+    public PagedList<T> getPagedList() {
+        return mPagedList;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mPagedList == null ? 0 : mPagedList.size();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        final T item = mPagedList.peek(position);
+        if (item == null) {
+            if (mPlaceholderViewType == PresenterRegistry.INVALID_TYPE) {
+                throw new IllegalStateException("Position " + position + " is a placeholder, but no placeholder presenter was set");
+            }
+            return mPlaceholderViewType;
+        }
+        return getViewTypeForItem(item);
+    }
+
+    /**
+     * Returns the view type of a loaded item.
+     *
+     * @param item - loaded item
+     * @return view type of a presenter added to this adapter
+     */
+    public abstract int getViewTypeForItem(T item);
+
+    @Nullable
+    @Override
+    public Object getDataForPosition(int position) {
+        mPagedList.loadAround(position);
+        return mPagedList.get(position);
+    }
+
+    /**
+     * Returns the item without loading pages or marking it as accessed.
+     */
+    @Nullable
+    @Override
+    public Object peekDataForPosition(int position) {
+        return mPagedList.peek(position);
+    }
+
+    @Override
+    public void onSizeChanged(int oldSize, int newSize) {
+        if (newSize > oldSize) {
+            notifyItemRangeInserted(oldSize, newSize - oldSize);
+        } else {
+            notifyItemRangeRemoved(newSize, oldSize - newSize);
+        }
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        notifyItemRangeChanged(positionStart, itemCount);
+    }
+}
@@ -0,0 +1,34 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * {@link ViewHolderPresenter} that supports partial rebinds. When only some fields of a model change,
+ * the presenter describes the change with a payload and only updates the views that depend on it.
+ *
+ * @param <M> model type
+ */
+public interface PayloadViewHolderPresenter<M> extends ViewHolderPresenter<M> {
+
+    /**
+     * Computes the change between two models that represent the same item.
+     *
+     * @param oldModel - model that is currently bound
+     * @param newModel - model that replaces it
+     * @return payload describing the change, e.g. a {@link ChangePayload}, or null for a full rebind
+     */
+    @Nullable
+    Object getChangePayload(M oldModel, M newModel);
+
+    /**
+     * Called instead of {@link #onBindViewHolder(BaseViewHolder, Object)} when the holder is already bound
+     * to the same item and only the given payloads need to be applied.
+     *
+     * @param holder   - holder that is bound to a previous version of the model
+     * @param model    - new model
+     * @param payloads - non empty list of payloads returned by {@link #getChangePayload(Object, Object)}
+     */
+    void onBindViewHolder(BaseViewHolder holder, M model, List<Object> payloads);
+}
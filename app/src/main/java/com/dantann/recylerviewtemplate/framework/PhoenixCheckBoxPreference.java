@@ -3,34 +3,61 @@ package com.dantann.recylerviewtemplate.framework;
 
 import android.annotation.TargetApi;
 import android.content.Context;
-import android.content.SharedPreferences;
+import android.content.res.TypedArray;
 import android.os.Build;
 import android.os.Handler;
 import android.preference.CheckBoxPreference;
 import android.util.AttributeSet;
 
+import com.dantann.recylerviewtemplate.R;
 import com.jakewharton.processphoenix.ProcessPhoenix;
 
 /**
- * {@link CheckBoxPreference} that when checked/unchecked will restart the app.
+ * {@link CheckBoxPreference} that when checked/unchecked applies the change live through the
+ * {@link Reconfigurator}, or restarts the app if no component handles it or {@code requiresRestart} is set.
  */
 public class PhoenixCheckBoxPreference extends CheckBoxPreference {
 
+    /**
+     * Whether a change always restarts the app
+     */
+    private boolean mRequiresRestart;
+
     public PhoenixCheckBoxPreference(Context context) {
         super(context);
     }
 
     public PhoenixCheckBoxPreference(Context context, AttributeSet attrs) {
         super(context, attrs);
+        readAttributes(context, attrs);
     }
 
     public PhoenixCheckBoxPreference(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
+        readAttributes(context, attrs);
     }
 
     @TargetApi(Build.VERSION_CODES.LOLLIPOP)
     public PhoenixCheckBoxPreference(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         super(context, attrs, defStyleAttr, defStyleRes);
+        readAttributes(context, attrs);
+    }
+
+    private void readAttributes(Context context, AttributeSet attrs) {
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.PhoenixPreference);
+        mRequiresRestart = a.getBoolean(R.styleable.PhoenixPreference_requiresRestart, false);
+        a.recycle();
+    }
+
+    public boolean isRequiresRestart() {
+        return mRequiresRestart;
+    }
+
+    /**
+     * @param requiresRestart - true if a change always restarts the app instead of being applied live
+     */
+    public void setRequiresRestart(boolean requiresRestart) {
+        mRequiresRestart = requiresRestart;
     }
 
     @Override
@@ -41,16 +68,34 @@ public class PhoenixCheckBoxPreference extends CheckBoxPreference {
                 return true;
             }
 
-            SharedPreferences.Editor editor = getEditor();
-            editor.putBoolean(getKey(), value).commit();
+            PreferenceWriter.get(getSharedPreferences()).put(getKey(), value);
             return true;
         }
         return false;
     }
 
+    @Override
+    protected boolean getPersistedBoolean(boolean defaultReturnValue) {
+        if (!shouldPersist()) {
+            return defaultReturnValue;
+        }
+        return PreferenceWriter.get(getSharedPreferences()).getBoolean(getKey(), defaultReturnValue);
+    }
+
     @Override
     protected void onClick() {
         super.onClick();
+        applyChange();
+    }
+
+    /**
+     * Applies the change live if possible, restarts the app otherwise.
+     */
+    protected void applyChange() {
+        final BaseApplication application = BaseApplication.from(getContext());
+        if (!mRequiresRestart && application != null && application.getReconfigurator().applyLive(getKey())) {
+            return;
+        }
         performAppRestart();
     }
 
@@ -59,7 +104,14 @@ public class PhoenixCheckBoxPreference extends CheckBoxPreference {
         new Handler().post(new Runnable() {
             @Override
             public void run() {
-                ProcessPhoenix.triggerRebirth(getContext());
+                final BaseApplication application = BaseApplication.from(getContext());
+                if (application != null) {
+                    application.getReconfigurator().restart(getContext(), getKey());
+                } else {
+                    // the new process must read the value that triggered the restart
+                    PreferenceWriter.flushAll();
+                    ProcessPhoenix.triggerRebirth(getContext());
+                }
             }
         });
     }
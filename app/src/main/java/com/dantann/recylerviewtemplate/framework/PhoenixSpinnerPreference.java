@@ -18,7 +18,8 @@ import com.jakewharton.processphoenix.ProcessPhoenix;
 
 /**
  * {@link Preference} that contains a spinner for selecting different options.
- * After selecting an option will result in restarting the app.
+ * Selecting an option applies the change live through the {@link Reconfigurator}, or restarts the app
+ * if no component handles it or {@code requiresRestart} is set.
  *
  * @param <T> {@link BindableAdapter} that provides options for spinner
  */
@@ -36,20 +37,28 @@ public abstract class PhoenixSpinnerPreference<T extends BindableAdapter> extend
 
     protected String mDefaultValue;
 
+    /**
+     * Whether a change always restarts the app
+     */
+    private boolean mRequiresRestart;
+
     @TargetApi(Build.VERSION_CODES.LOLLIPOP)
     public PhoenixSpinnerPreference(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         super(context, attrs, defStyleAttr, defStyleRes);
         initialize();
+        readAttributes(context, attrs);
     }
 
     public PhoenixSpinnerPreference(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
         initialize();
+        readAttributes(context, attrs);
     }
 
     public PhoenixSpinnerPreference(Context context, AttributeSet attrs) {
         super(context, attrs);
         initialize();
+        readAttributes(context, attrs);
     }
 
     public PhoenixSpinnerPreference(Context context) {
@@ -85,16 +94,73 @@ public abstract class PhoenixSpinnerPreference<T extends BindableAdapter> extend
         }
     }
 
+    private void readAttributes(Context context, AttributeSet attrs) {
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.PhoenixPreference);
+        mRequiresRestart = a.getBoolean(R.styleable.PhoenixPreference_requiresRestart, false);
+        a.recycle();
+    }
+
+    public boolean isRequiresRestart() {
+        return mRequiresRestart;
+    }
+
+    /**
+     * @param requiresRestart - true if a change always restarts the app instead of being applied live
+     */
+    public void setRequiresRestart(boolean requiresRestart) {
+        mRequiresRestart = requiresRestart;
+    }
+
+    /**
+     * Applies the change live if possible, restarts the app otherwise.
+     */
+    protected void applyChange() {
+        final BaseApplication application = BaseApplication.from(getContext());
+        if (!mRequiresRestart && application != null && application.getReconfigurator().applyLive(getKey())) {
+            return;
+        }
+        performAppRestart();
+    }
+
     protected void performAppRestart() {
         setEnabled(false);
         new Handler().post(new Runnable() {
             @Override
             public void run() {
-                ProcessPhoenix.triggerRebirth(getContext());
+                final BaseApplication application = BaseApplication.from(getContext());
+                if (application != null) {
+                    application.getReconfigurator().restart(getContext(), getKey());
+                } else {
+                    // the new process must read the value that triggered the restart
+                    PreferenceWriter.flushAll();
+                    ProcessPhoenix.triggerRebirth(getContext());
+                }
             }
         });
     }
 
+    @Override
+    protected boolean persistString(String value) {
+        if (shouldPersist()) {
+            if (TextUtils.equals(value, getPersistedString(null))) {
+                // It's already there, so the same as persisting
+                return true;
+            }
+
+            PreferenceWriter.get(getSharedPreferences()).put(getKey(), value);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected String getPersistedString(String defaultReturnValue) {
+        if (!shouldPersist()) {
+            return defaultReturnValue;
+        }
+        return PreferenceWriter.get(getSharedPreferences()).getString(getKey(), defaultReturnValue);
+    }
+
     /**
      * Called to create the adapter
      *
@@ -137,7 +203,7 @@ public abstract class PhoenixSpinnerPreference<T extends BindableAdapter> extend
                 mSelection = position;
                 persistString(getStringForPosition(mSelection));
                 PhoenixSpinnerPreference.this.onItemSelected(mSelection, oldPosition);
-                performAppRestart();
+                applyChange();
             }
         }
 
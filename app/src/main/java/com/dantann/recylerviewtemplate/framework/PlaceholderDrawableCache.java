@@ -0,0 +1,255 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.support.annotation.ColorInt;
+import android.text.TextPaint;
+import android.util.LongSparseArray;
+import android.util.LruCache;
+
+import com.dantann.recylerviewtemplate.util.MaterialColorPalette;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Cache of placeholder drawables of {@link MaterialColorPalette} colors, and of letter avatars.
+ * <p>
+ * Each placeholder is created once per color, shape and corner radius, and each letter avatar is rendered once
+ * into a bitmap kept in a bounded LRU cache. Drawables are handed out from the shared constant state, so a bind
+ * allocates neither a drawable state nor a bitmap. The returned drawables share their state and must not be
+ * mutated, call {@link Drawable#mutate()} first to change one.
+ * <p>
+ * Not thread safe, all methods are expected to be called on the main thread.
+ */
+public final class PlaceholderDrawableCache {
+
+    private static final Logger LOG = Logger.forClass(PlaceholderDrawableCache.class);
+
+    public static final int SHAPE_RECTANGLE = 0;
+    public static final int SHAPE_OVAL = 1;
+
+    /**
+     * Placeholders kept before the cache is cleared, more than the colors of the palette in a few shapes
+     */
+    private static final int MAX_PLACEHOLDERS = 1024;
+
+    private static final float LETTER_SIZE_RATIO = 0.45f;
+
+    @ColorInt
+    private static final int DARK_TEXT_COLOR = 0xff212121;
+
+    private final Resources mResources;
+    private final MaterialColorPalette mPalette;
+
+    private final LongSparseArray<Drawable.ConstantState> mPlaceholders = new LongSparseArray<>();
+    private final LruCache<AvatarKey, BitmapDrawable> mAvatars;
+
+    /**
+     * Key reused for lookups, so cache hits do not allocate
+     */
+    private final AvatarKey mLookupKey = new AvatarKey();
+
+    private final TextPaint mLetterPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mShapePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF mShapeBounds = new RectF();
+
+    private int mHitCount;
+    private int mMissCount;
+
+    /**
+     * @param resources      - resources the drawables are created for
+     * @param palette        - palette of the colors of keys, e.g. only colors white text is readable on
+     * @param maxAvatarBytes - maximum size of the cached avatar bitmaps in bytes
+     */
+    public PlaceholderDrawableCache(Resources resources, MaterialColorPalette palette, int maxAvatarBytes) {
+        mResources = checkNotNull(resources, "resources == null");
+        mPalette = checkNotNull(palette, "palette == null");
+        mAvatars = new LruCache<AvatarKey, BitmapDrawable>(maxAvatarBytes) {
+            @Override
+            protected int sizeOf(AvatarKey key, BitmapDrawable value) {
+                return value.getBitmap().getByteCount();
+            }
+        };
+        mLetterPaint.setTextAlign(Paint.Align.CENTER);
+        mLetterPaint.setTypeface(Typeface.DEFAULT_BOLD);
+    }
+
+    /**
+     * Returns a placeholder filled with a color.
+     *
+     * @param color        - fill color
+     * @param shape        - {@link #SHAPE_RECTANGLE} or {@link #SHAPE_OVAL}
+     * @param cornerRadius - corner radius of a rectangle in pixels
+     * @return drawable sharing its state with the other placeholders of the same color, shape and radius
+     */
+    public Drawable getPlaceholder(@ColorInt int color, int shape, int cornerRadius) {
+        if (shape == SHAPE_OVAL) {
+            cornerRadius = 0;
+        }
+        final long key = ((long) color << 32) | ((long) shape << 24) | (cornerRadius & 0xffffff);
+        Drawable.ConstantState state = mPlaceholders.get(key);
+        if (state == null) {
+            if (mPlaceholders.size() >= MAX_PLACEHOLDERS) {
+                mPlaceholders.clear();
+            }
+            state = createPlaceholder(color, shape, cornerRadius).getConstantState();
+            mPlaceholders.put(key, state);
+        }
+        return state.newDrawable(mResources);
+    }
+
+    /**
+     * Returns a placeholder in the color of a key, e.g. while the picture of a user is loading.
+     *
+     * @param key          - key whose color is used, see {@link MaterialColorPalette#colorFor(String)}
+     * @param shape        - {@link #SHAPE_RECTANGLE} or {@link #SHAPE_OVAL}
+     * @param cornerRadius - corner radius of a rectangle in pixels
+     */
+    public Drawable getPlaceholder(String key, int shape, int cornerRadius) {
+        return getPlaceholder(mPalette.colorFor(key), shape, cornerRadius);
+    }
+
+    /**
+     * Returns the avatar of a name: its first letter on the color of the name.
+     *
+     * @param name  - name, e.g. of a user
+     * @param shape - {@link #SHAPE_RECTANGLE} or {@link #SHAPE_OVAL}
+     * @param size  - width and height of the avatar in pixels
+     * @return drawable sharing its bitmap with the other avatars of the same letter, color, shape and size
+     */
+    public Drawable getLetterAvatar(String name, int shape, int size) {
+        checkNotNull(name, "name == null");
+        return getLetterAvatar(firstLetter(name), mPalette.colorFor(name), shape, size);
+    }
+
+    /**
+     * @param letter - code point of the letter, 0 for none
+     * @param color  - background color
+     * @param shape  - {@link #SHAPE_RECTANGLE} or {@link #SHAPE_OVAL}
+     * @param size   - width and height of the avatar in pixels
+     * @return drawable sharing its bitmap with the other avatars of the same letter, color, shape and size
+     */
+    public Drawable getLetterAvatar(int letter, @ColorInt int color, int shape, int size) {
+        mLookupKey.set(letter, color, shape, size);
+        BitmapDrawable avatar = mAvatars.get(mLookupKey);
+        if (avatar != null) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+            avatar = new BitmapDrawable(mResources, renderLetterAvatar(letter, color, shape, size));
+            final AvatarKey key = new AvatarKey();
+            key.set(letter, color, shape, size);
+            mAvatars.put(key, avatar);
+        }
+        return avatar.getConstantState().newDrawable(mResources);
+    }
+
+    public int getHitCount() {
+        return mHitCount;
+    }
+
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Drops all cached placeholders and avatars, e.g. when the app is trimming memory.
+     */
+    public void clear() {
+        mPlaceholders.clear();
+        mAvatars.evictAll();
+    }
+
+    public void logStats() {
+        LOG.d("Placeholders= %d, avatars= %d bytes of %d, hits= %d, misses= %d, evictions= %d",
+                mPlaceholders.size(), mAvatars.size(), mAvatars.maxSize(), mHitCount, mMissCount,
+                mAvatars.evictionCount());
+    }
+
+    private static Drawable createPlaceholder(@ColorInt int color, int shape, int cornerRadius) {
+        if (shape == SHAPE_RECTANGLE && cornerRadius == 0) {
+            return new ColorDrawable(color);
+        }
+        final GradientDrawable drawable = new GradientDrawable();
+        drawable.setShape(shape == SHAPE_OVAL ? GradientDrawable.OVAL : GradientDrawable.RECTANGLE);
+        drawable.setCornerRadius(cornerRadius);
+        drawable.setColor(color);
+        return drawable;
+    }
+
+    private Bitmap renderLetterAvatar(int letter, @ColorInt int color, int shape, int size) {
+        final Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        mShapePaint.setColor(color);
+        if (shape == SHAPE_OVAL) {
+            mShapeBounds.set(0, 0, size, size);
+            canvas.drawOval(mShapeBounds, mShapePaint);
+        } else {
+            canvas.drawColor(color);
+        }
+        if (letter != 0) {
+            final boolean whiteText = MaterialColorPalette.contrastRatio(color, Color.WHITE)
+                    >= MaterialColorPalette.contrastRatio(color, DARK_TEXT_COLOR);
+            mLetterPaint.setColor(whiteText ? Color.WHITE : DARK_TEXT_COLOR);
+            mLetterPaint.setTextSize(size * LETTER_SIZE_RATIO);
+            final float baseline = (size - mLetterPaint.ascent() - mLetterPaint.descent()) / 2f;
+            canvas.drawText(new String(Character.toChars(letter)), size / 2f, baseline, mLetterPaint);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @return upper case code point of the first letter or digit of a name, 0 if it has none
+     */
+    private static int firstLetter(String name) {
+        for (int i = 0, length = name.length(); i < length; ) {
+            final int codePoint = name.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                return Character.toUpperCase(codePoint);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return 0;
+    }
+
+    private static final class AvatarKey {
+        int mLetter;
+        int mColor;
+        int mShape;
+        int mSize;
+
+        void set(int letter, int color, int shape, int size) {
+            mLetter = letter;
+            mColor = color;
+            mShape = shape;
+            mSize = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AvatarKey)) {
+                return false;
+            }
+            AvatarKey other = (AvatarKey) o;
+            return mLetter == other.mLetter && mColor == other.mColor && mShape == other.mShape
+                    && mSize == other.mSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * mLetter + mColor) + mShape) + mSize;
+        }
+    }
+}
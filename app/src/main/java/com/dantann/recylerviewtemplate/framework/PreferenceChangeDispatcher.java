@@ -0,0 +1,207 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Dispatches changes of a {@link CachedPreference} to its listeners.
+ * <p>
+ * Changes are debounced per listener: a listener is called once its debounce time passed without another change,
+ * with the value current at that time, and only if the value differs from the one it received last.
+ * Listeners are referenced weakly, so the subscriber has to keep a reference to its listener.
+ * Dispatching iterates an array snapshot and reuses a runnable per subscription, so it does not allocate.
+ *
+ * @param <T> type of the value
+ */
+final class PreferenceChangeDispatcher<T> {
+
+    private static final Handler sDebounceHandler = new Handler(Looper.getMainLooper());
+
+    private final CachedPreference<T> mPreference;
+
+    /**
+     * Replaced on every change of the subscriptions, so dispatching can iterate it without a lock
+     */
+    private volatile Subscription<?>[] mSubscriptions = new Subscription<?>[0];
+
+    PreferenceChangeDispatcher(CachedPreference<T> preference) {
+        mPreference = preference;
+    }
+
+    synchronized void addListener(CachedPreference.OnChangeListener<T> listener, Executor executor, long debounceMillis) {
+        checkNotNull(listener, "listener == null");
+        checkNotNull(executor, "executor == null");
+        if (debounceMillis < 0) {
+            throw new IllegalArgumentException("debounceMillis must not be negative, was " + debounceMillis);
+        }
+        if (indexOf(listener) != -1) {
+            return;
+        }
+        final Subscription<?>[] subscriptions = Arrays.copyOf(mSubscriptions, mSubscriptions.length + 1);
+        subscriptions[subscriptions.length - 1] = new Subscription<>(mPreference, listener, executor, debounceMillis);
+        mSubscriptions = subscriptions;
+    }
+
+    synchronized void removeListener(CachedPreference.OnChangeListener<T> listener) {
+        final int index = indexOf(listener);
+        if (index != -1) {
+            remove(index);
+        }
+    }
+
+    /**
+     * Called on any thread when the value of the preference may have changed.
+     */
+    void dispatchChange() {
+        final Subscription<?>[] subscriptions = mSubscriptions;
+        boolean hasCleared = false;
+        for (int i = 0; i < subscriptions.length; i++) {
+            final Subscription<?> subscription = subscriptions[i];
+            if (subscription.mListener.get() == null) {
+                hasCleared = true;
+                continue;
+            }
+            sDebounceHandler.removeCallbacks(subscription.mDebounced);
+            sDebounceHandler.postDelayed(subscription.mDebounced, subscription.mDebounceMillis);
+        }
+        if (hasCleared) {
+            removeCleared();
+        }
+    }
+
+    int getListenerCount() {
+        return mSubscriptions.length;
+    }
+
+    private synchronized void removeCleared() {
+        for (int i = mSubscriptions.length - 1; i >= 0; i--) {
+            if (mSubscriptions[i].mListener.get() == null) {
+                remove(i);
+            }
+        }
+    }
+
+    private int indexOf(CachedPreference.OnChangeListener<T> listener) {
+        final Subscription<?>[] subscriptions = mSubscriptions;
+        for (int i = 0; i < subscriptions.length; i++) {
+            if (subscriptions[i].mListener.get() == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void remove(int index) {
+        final Subscription<?>[] old = mSubscriptions;
+        sDebounceHandler.removeCallbacks(old[index].mDebounced);
+        final Subscription<?>[] subscriptions = new Subscription<?>[old.length - 1];
+        System.arraycopy(old, 0, subscriptions, 0, index);
+        System.arraycopy(old, index + 1, subscriptions, index, old.length - index - 1);
+        mSubscriptions = subscriptions;
+    }
+
+    private static final class Subscription<T> {
+        final CachedPreference<T> mPreference;
+        final WeakReference<CachedPreference.OnChangeListener<T>> mListener;
+        final Executor mExecutor;
+        final long mDebounceMillis;
+
+        /**
+         * Last value handed to the listener, guarded by the subscription
+         */
+        T mLastValue;
+
+        /**
+         * True while a thread calls the listener, guarded by the subscription
+         */
+        boolean mDelivering;
+
+        /**
+         * True if {@link #mLastValue} changed while the listener was called, guarded by the subscription
+         */
+        boolean mPendingDelivery;
+
+        /**
+         * Runs on the debounce handler once no change happened for the debounce time
+         */
+        final Runnable mDebounced = new Runnable() {
+            @Override
+            public void run() {
+                mExecutor.execute(mDeliver);
+            }
+        };
+
+        final Runnable mDeliver = new Runnable() {
+            @Override
+            public void run() {
+                final CachedPreference.OnChangeListener<T> listener = mListener.get();
+                if (listener == null) {
+                    return;
+                }
+                // the executor may run deliveries on several threads. The value is compared against the last one
+                // under the lock, but the listener is called outside it, so it can use other preferences or wait
+                // for other threads. Only one thread calls the listener at a time, a delivery that finds it busy
+                // leaves its value to that thread, so listeners receive the values in order
+                final T value;
+                synchronized (Subscription.this) {
+                    value = mPreference.get();
+                    if (value == null ? mLastValue == null : value.equals(mLastValue)) {
+                        return;
+                    }
+                    mLastValue = value;
+                    if (mDelivering) {
+                        mPendingDelivery = true;
+                        return;
+                    }
+                    mDelivering = true;
+                }
+                deliver(listener, value);
+            }
+        };
+
+        Subscription(CachedPreference<T> preference, CachedPreference.OnChangeListener<T> listener, Executor executor,
+                long debounceMillis) {
+            mPreference = preference;
+            mListener = new WeakReference<>(listener);
+            mExecutor = executor;
+            mDebounceMillis = debounceMillis;
+            // only changes after subscribing are delivered
+            mLastValue = mPreference.get();
+        }
+
+        /**
+         * Calls the listener with the value, then with the values that were handed over meanwhile.
+         */
+        private void deliver(CachedPreference.OnChangeListener<T> listener, T value) {
+            boolean done = false;
+            try {
+                while (!done) {
+                    listener.onPreferenceChanged(mPreference, value);
+                    synchronized (this) {
+                        if (mPendingDelivery) {
+                            mPendingDelivery = false;
+                            value = mLastValue;
+                        } else {
+                            mDelivering = false;
+                            done = true;
+                        }
+                    }
+                }
+            } finally {
+                if (!done) {
+                    // the listener threw, the next change starts a new delivery
+                    synchronized (this) {
+                        mDelivering = false;
+                        mPendingDelivery = false;
+                    }
+                }
+            }
+        }
+    }
+}
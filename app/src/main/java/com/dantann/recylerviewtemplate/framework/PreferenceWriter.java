@@ -0,0 +1,370 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Writes values to {@link SharedPreferences} asynchronously. Writes made within {@link #BATCH_DELAY_MS} are
+ * coalesced, only the last value of a key is kept, and committed in a single batch on a dedicated writer thread,
+ * so callers never wait for the disk.
+ * <p>
+ * Reads through the writer see pending values, so a value is visible right after it was written.
+ * {@link #flush()} blocks until everything written before it is on disk, it must be called before the process
+ * is killed, e.g. before restarting the app.
+ * <p>
+ * There is one writer per preference file, obtained through {@link #get(SharedPreferences)}. Writers live as long as
+ * the process, like the preferences they write to.
+ */
+public final class PreferenceWriter {
+
+    private static final Logger LOG = Logger.forClass(PreferenceWriter.class);
+
+    /**
+     * Time writes are collected before they are committed
+     */
+    public static final long BATCH_DELAY_MS = 100;
+
+    /**
+     * Default time {@link #flush()} waits for the writer thread
+     */
+    public static final long FLUSH_TIMEOUT_MS = 2000;
+
+    /**
+     * Marks a pending removal
+     */
+    private static final Object REMOVED = new Object();
+
+    /**
+     * Writers of each preference file. The framework keeps one {@link SharedPreferences} instance per file for the
+     * lifetime of the process, so an instance stands for its file name, and the map holds one writer per file.
+     * A weak map would not help, its values would keep their key reachable.
+     */
+    private static final Map<SharedPreferences, PreferenceWriter> sWriters = new HashMap<>();
+
+    private static Handler sWriterHandler;
+
+    private final SharedPreferences mPreferences;
+    private final Handler mHandler;
+    private final Object mLock = new Object();
+
+    /**
+     * Values written since the last batch was taken
+     */
+    private HashMap<String, Object> mPending = new HashMap<>();
+
+    /**
+     * Batch that is being committed, read until the commit is visible in the preferences
+     */
+    @Nullable
+    private HashMap<String, Object> mCommitting;
+
+    private boolean mScheduled;
+
+    private int mWriteCount;
+    private int mCommitCount;
+
+    private final Runnable mCommitRunnable = new Runnable() {
+        @Override
+        public void run() {
+            commitPending();
+        }
+    };
+
+    private PreferenceWriter(SharedPreferences preferences, Handler handler) {
+        mPreferences = preferences;
+        mHandler = handler;
+    }
+
+    /**
+     * @param preferences - preferences to write to
+     * @return the writer of the preferences
+     */
+    public static PreferenceWriter get(SharedPreferences preferences) {
+        checkNotNull(preferences, "preferences == null");
+        synchronized (sWriters) {
+            PreferenceWriter writer = sWriters.get(preferences);
+            if (writer == null) {
+                writer = new PreferenceWriter(preferences, getWriterHandler());
+                sWriters.put(preferences, writer);
+            }
+            return writer;
+        }
+    }
+
+    /**
+     * Flushes the writers of all preferences.
+     *
+     * @return true if all pending values were committed in time
+     * @see #flush()
+     */
+    public static boolean flushAll() {
+        final PreferenceWriter[] writers;
+        synchronized (sWriters) {
+            writers = sWriters.values().toArray(new PreferenceWriter[sWriters.size()]);
+        }
+        boolean flushed = true;
+        for (PreferenceWriter writer : writers) {
+            flushed &= writer.flush();
+        }
+        return flushed;
+    }
+
+    /**
+     * Commits pending values of all writers without waiting for them, e.g. when the app goes to the background.
+     */
+    public static void commitAllAsync() {
+        synchronized (sWriters) {
+            for (PreferenceWriter writer : sWriters.values()) {
+                writer.commitAsync();
+            }
+        }
+    }
+
+    private static synchronized Handler getWriterHandler() {
+        if (sWriterHandler == null) {
+            HandlerThread thread = new HandlerThread("PreferenceWriter", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            sWriterHandler = new Handler(thread.getLooper());
+        }
+        return sWriterHandler;
+    }
+
+    public SharedPreferences getPreferences() {
+        return mPreferences;
+    }
+
+    /**
+     * Writes a value. Supported values are the ones {@link SharedPreferences} can hold:
+     * String, Boolean, Integer, Long, Float and Set of String.
+     *
+     * @param key   - preference key
+     * @param value - new value, null removes the key
+     */
+    public void put(String key, @Nullable Object value) {
+        checkNotNull(key, "key == null");
+        if (value != null && !(value instanceof String) && !(value instanceof Boolean) && !(value instanceof Integer)
+                && !(value instanceof Long) && !(value instanceof Float) && !(value instanceof Set)) {
+            throw new IllegalArgumentException("Unsupported preference value " + value.getClass().getName());
+        }
+        synchronized (mLock) {
+            mPending.put(key, value == null ? REMOVED : value);
+            mWriteCount++;
+            scheduleLocked(BATCH_DELAY_MS);
+        }
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key - preference key
+     */
+    public void remove(String key) {
+        put(key, null);
+    }
+
+    @Nullable
+    public String getString(String key, @Nullable String defaultValue) {
+        final Object pending = getPending(key);
+        if (pending == null) {
+            return mPreferences.getString(key, defaultValue);
+        }
+        return pending == REMOVED ? defaultValue : (String) pending;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        final Object pending = getPending(key);
+        if (pending == null) {
+            return mPreferences.getBoolean(key, defaultValue);
+        }
+        return pending == REMOVED ? defaultValue : (Boolean) pending;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        final Object pending = getPending(key);
+        if (pending == null) {
+            return mPreferences.getInt(key, defaultValue);
+        }
+        return pending == REMOVED ? defaultValue : (Integer) pending;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        final Object pending = getPending(key);
+        if (pending == null) {
+            return mPreferences.getLong(key, defaultValue);
+        }
+        return pending == REMOVED ? defaultValue : (Long) pending;
+    }
+
+    public float getFloat(String key, float defaultValue) {
+        final Object pending = getPending(key);
+        if (pending == null) {
+            return mPreferences.getFloat(key, defaultValue);
+        }
+        return pending == REMOVED ? defaultValue : (Float) pending;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public Set<String> getStringSet(String key, @Nullable Set<String> defaultValue) {
+        final Object pending = getPending(key);
+        if (pending == null) {
+            return mPreferences.getStringSet(key, defaultValue);
+        }
+        return pending == REMOVED ? defaultValue : (Set<String>) pending;
+    }
+
+    public boolean contains(String key) {
+        final Object pending = getPending(key);
+        if (pending == null) {
+            return mPreferences.contains(key);
+        }
+        return pending != REMOVED;
+    }
+
+    /**
+     * Blocks until all values written before this call are committed, waiting at most {@link #FLUSH_TIMEOUT_MS}.
+     *
+     * @return true if all values were committed in time
+     */
+    public boolean flush() {
+        return flush(FLUSH_TIMEOUT_MS);
+    }
+
+    /**
+     * Blocks until all values written before this call are committed.
+     *
+     * @param timeoutMillis - maximum time to wait
+     * @return true if all values were committed in time
+     */
+    public boolean flush(long timeoutMillis) {
+        if (Looper.myLooper() == mHandler.getLooper()) {
+            commitPending();
+            return true;
+        }
+        final CountDownLatch latch = new CountDownLatch(1);
+        mHandler.postAtFrontOfQueue(new Runnable() {
+            @Override
+            public void run() {
+                commitPending();
+                latch.countDown();
+            }
+        });
+        try {
+            if (latch.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.w("Preference flush timed out after %d ms", timeoutMillis);
+        return false;
+    }
+
+    /**
+     * Commits pending values as soon as possible without waiting for them.
+     */
+    public void commitAsync() {
+        synchronized (mLock) {
+            if (!mPending.isEmpty()) {
+                mHandler.removeCallbacks(mCommitRunnable);
+                mScheduled = false;
+                scheduleLocked(0);
+            }
+        }
+    }
+
+    /**
+     * @return number of values written through this writer
+     */
+    public int getWriteCount() {
+        synchronized (mLock) {
+            return mWriteCount;
+        }
+    }
+
+    /**
+     * @return number of batches committed to the preferences
+     */
+    public int getCommitCount() {
+        synchronized (mLock) {
+            return mCommitCount;
+        }
+    }
+
+    /**
+     * @return pending value of the key, {@link #REMOVED} for a pending removal, null if nothing is pending
+     */
+    @Nullable
+    private Object getPending(String key) {
+        synchronized (mLock) {
+            Object value = mPending.get(key);
+            if (value == null && mCommitting != null) {
+                value = mCommitting.get(key);
+            }
+            return value;
+        }
+    }
+
+    private void scheduleLocked(long delayMillis) {
+        if (!mScheduled) {
+            mScheduled = true;
+            mHandler.postDelayed(mCommitRunnable, delayMillis);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void commitPending() {
+        final HashMap<String, Object> batch;
+        synchronized (mLock) {
+            mHandler.removeCallbacks(mCommitRunnable);
+            mScheduled = false;
+            if (mPending.isEmpty()) {
+                return;
+            }
+            batch = mPending;
+            mPending = new HashMap<>();
+            mCommitting = batch;
+        }
+
+        final SharedPreferences.Editor editor = mPreferences.edit();
+        for (Map.Entry<String, Object> entry : batch.entrySet()) {
+            final String key = entry.getKey();
+            final Object value = entry.getValue();
+            if (value == REMOVED) {
+                editor.remove(key);
+            } else if (value instanceof String) {
+                editor.putString(key, (String) value);
+            } else if (value instanceof Boolean) {
+                editor.putBoolean(key, (Boolean) value);
+            } else if (value instanceof Integer) {
+                editor.putInt(key, (Integer) value);
+            } else if (value instanceof Long) {
+                editor.putLong(key, (Long) value);
+            } else if (value instanceof Float) {
+                editor.putFloat(key, (Float) value);
+            } else {
+                editor.putStringSet(key, (Set<String>) value);
+            }
+        }
+        if (!editor.commit()) {
+            LOG.w("Failed to commit %d preferences", batch.size());
+        }
+
+        synchronized (mLock) {
+            mCommitting = null;
+            mCommitCount++;
+        }
+    }
+}
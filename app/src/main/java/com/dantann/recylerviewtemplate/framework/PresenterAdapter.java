@@ -2,23 +2,44 @@ package com.dantann.recylerviewtemplate.framework;
 
 
 import android.support.annotation.Nullable;
-import android.support.v4.util.ArrayMap;
 import android.support.v7.widget.RecyclerView;
 import android.view.ViewGroup;
 
-import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+import java.util.List;
 
 
 /**
  * An abstract Adapter that uses {@link ViewHolderPresenter} to handle creating and binding its views.
- * Presenters are stored in a map for quick reference.
+ * Presenters are stored in a {@link PresenterRegistry} for quick, allocation free reference.
+ * <p>
+ * Stable ids are opt-in through {@link #setHasStableIds(boolean)}. Ids are taken from {@link Identifiable} and
+ * {@link KeyIdentifiable} models, or from the model's presenter if it is a {@link StableIdPresenter}. The ids of
+ * string keys are assigned by the adapter's {@link StableIdKeys}, which subclasses trim to the keys of the current
+ * list whenever it is replaced.
  */
 public abstract class PresenterAdapter extends RecyclerView.Adapter<BaseViewHolder>{
 
     /**
-     * Map of current {@link ViewHolderPresenter} that is mapped by an integer.
+     * Registry of current {@link ViewHolderPresenter} keyed by view type.
      */
-    protected ArrayMap<Integer, ViewHolderPresenter> mPresenterMap = new ArrayMap<>();
+    protected final PresenterRegistry mPresenterRegistry = new PresenterRegistry();
+
+    /**
+     * Ids of the {@link KeyIdentifiable} models of the current list.
+     */
+    protected final StableIdKeys mStableIdKeys = new StableIdKeys();
+
+    /**
+     * Optional source of holders inflated off the main thread.
+     */
+    @Nullable
+    private AsyncViewHolderInflater mAsyncInflater;
+
+    /**
+     * Optional latency metrics of create, bind and recycle calls.
+     */
+    @Nullable
+    private PresenterMetrics mMetrics;
 
     /**
      * Adds a Presenter to the Adapter
@@ -26,7 +47,25 @@ public abstract class PresenterAdapter extends RecyclerView.Adapter<BaseViewHold
      * @param presenter - Presenter that handles binding views of given type
      */
     public void addViewTypePresenter(int viewType, ViewHolderPresenter presenter) {
-        mPresenterMap.put(viewType, presenter);
+        mPresenterRegistry.put(viewType, presenter);
+    }
+
+    /**
+     * Adds a Presenter to the Adapter and assigns it a view type. Presenters of the same class share a view type.
+     * @param presenter - Presenter that handles binding views
+     * @return view type assigned to the presenter, to be returned from {@link #getItemViewType(int)}
+     */
+    public int addPresenter(ViewHolderPresenter presenter) {
+        return mPresenterRegistry.register(presenter);
+    }
+
+    /**
+     * Gets the view type assigned by {@link #addPresenter(ViewHolderPresenter)}
+     * @param presenterClass - class of an added presenter
+     * @return view type, {@link PresenterRegistry#INVALID_TYPE} if the class was not added
+     */
+    public int getViewType(Class<? extends ViewHolderPresenter> presenterClass) {
+        return mPresenterRegistry.getViewType(presenterClass);
     }
 
     /**
@@ -36,36 +75,133 @@ public abstract class PresenterAdapter extends RecyclerView.Adapter<BaseViewHold
      */
     @Nullable
     public ViewHolderPresenter getPresenter(int viewType) {
-        return mPresenterMap.get(viewType);
+        return mPresenterRegistry.get(viewType);
+    }
+
+    /**
+     * Sets the inflater whose buffered holders are used before inflating on the main thread.
+     * @param asyncInflater - inflater with registered {@link AsyncViewHolderPresenter}s, null to always inflate synchronously
+     */
+    public void setAsyncInflater(@Nullable AsyncViewHolderInflater asyncInflater) {
+        mAsyncInflater = asyncInflater;
+    }
+
+    /**
+     * Sets the metrics that record the latency of create, bind and recycle calls per view type.
+     * @param metrics - metrics to record to, null to disable recording
+     */
+    public void setMetrics(@Nullable PresenterMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    @Nullable
+    public PresenterMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Logs the recorded metrics, naming view types after their presenter.
+     */
+    public void logMetrics() {
+        if (mMetrics != null) {
+            mMetrics.log(mPresenterRegistry);
+        }
     }
 
     @Override
     public BaseViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
-        ViewHolderPresenter presenter = getPresenter(viewType);
-        checkNotNull(presenter, "Could not find Presenter for ViewType= "
-                + viewType + " , Was a presenter added for this ViewType?");
+        final PresenterMetrics metrics = mMetrics;
+        final long start = metrics != null ? System.nanoTime() : 0L;
+
+        ViewHolderPresenter presenter = mPresenterRegistry.getOrThrow(viewType);
 
-        return presenter.onCreateViewHolder(parent, viewType);
+        BaseViewHolder holder = mAsyncInflater != null ? mAsyncInflater.poll(viewType) : null;
+        if (holder == null) {
+            holder = presenter.onCreateViewHolder(parent, viewType);
+        }
+
+        if (metrics != null) {
+            metrics.record(viewType, PresenterMetrics.PHASE_CREATE, System.nanoTime() - start);
+        }
+        return holder;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public void onBindViewHolder(BaseViewHolder holder, int position) {
-        ViewHolderPresenter presenter = getPresenter(holder.getItemViewType());
-        checkNotNull(presenter, "Could not find Presenter for ViewType= "
-                + holder.getItemViewType() + " , Was a presenter added for this ViewType?");
+        final PresenterMetrics metrics = mMetrics;
+        final long start = metrics != null ? System.nanoTime() : 0L;
+
+        ViewHolderPresenter presenter = mPresenterRegistry.getOrThrow(holder.getItemViewType());
 
         presenter.onBindViewHolder(holder, getDataForPosition(position));
+
+        if (metrics != null) {
+            metrics.record(holder.getItemViewType(), PresenterMetrics.PHASE_BIND, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Routes non empty payloads to {@link PayloadViewHolderPresenter#onBindViewHolder(BaseViewHolder, Object, List)},
+     * falls back to a full bind otherwise.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onBindViewHolder(BaseViewHolder holder, int position, List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        final PresenterMetrics metrics = mMetrics;
+        final long start = metrics != null ? System.nanoTime() : 0L;
+
+        ViewHolderPresenter presenter = mPresenterRegistry.getOrThrow(holder.getItemViewType());
+
+        if (presenter instanceof PayloadViewHolderPresenter) {
+            ((PayloadViewHolderPresenter) presenter).onBindViewHolder(holder, peekDataForPosition(position), payloads);
+        } else {
+            presenter.onBindViewHolder(holder, getDataForPosition(position));
+        }
+
+        if (metrics != null) {
+            metrics.record(holder.getItemViewType(), PresenterMetrics.PHASE_BIND, System.nanoTime() - start);
+        }
     }
 
     @Override
     public void onViewRecycled(BaseViewHolder holder) {
-        ViewHolderPresenter presenter = getPresenter(holder.getItemViewType());
-        checkNotNull(presenter, "Could not find Presenter for ViewType= "
-                + holder.getItemViewType() + " , Was a presenter added for this ViewType?");
+        final PresenterMetrics metrics = mMetrics;
+        final long start = metrics != null ? System.nanoTime() : 0L;
+
+        ViewHolderPresenter presenter = mPresenterRegistry.getOrThrow(holder.getItemViewType());
 
         presenter.onUnbindViewHolder(holder);
         super.onViewRecycled(holder);
+
+        if (metrics != null) {
+            metrics.record(holder.getItemViewType(), PresenterMetrics.PHASE_RECYCLE, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long getItemId(int position) {
+        if (!hasStableIds()) {
+            return RecyclerView.NO_ID;
+        }
+        Object model = peekDataForPosition(position);
+        if (model instanceof Identifiable) {
+            return ((Identifiable) model).getStableId();
+        }
+        if (model instanceof KeyIdentifiable) {
+            return mStableIdKeys.getId(((KeyIdentifiable) model).getStableKey());
+        }
+        ViewHolderPresenter presenter = mPresenterRegistry.getOrThrow(getItemViewType(position));
+        if (presenter instanceof StableIdPresenter) {
+            return ((StableIdPresenter) presenter).getItemId(model);
+        }
+        return RecyclerView.NO_ID;
     }
 
     /**
@@ -76,6 +212,17 @@ public abstract class PresenterAdapter extends RecyclerView.Adapter<BaseViewHold
     @Nullable
     public abstract Object getDataForPosition(int position);
 
+    /**
+     * Returns the data at adapter position without side effects such as loading pages. Used for the item ids and
+     * partial binds, which RecyclerView also requests for positions that are not being shown.
+     * @param position - adapter position
+     * @return data model for specified adapter position, same as {@link #getDataForPosition(int)} by default
+     */
+    @Nullable
+    public Object peekDataForPosition(int position) {
+        return getDataForPosition(position);
+    }
+
     @Override
     public abstract int getItemViewType(int position);
 }
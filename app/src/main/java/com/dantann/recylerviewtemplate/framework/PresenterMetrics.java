@@ -0,0 +1,138 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Latencies of {@link PresenterAdapter} create, bind and recycle calls per view type.
+ * <p>
+ * Set on an adapter with {@link PresenterAdapter#setMetrics(PresenterMetrics)}. When no metrics are set the adapter
+ * only pays a null check per call. Recording is lock-free and metrics can be queried from any thread.
+ */
+public final class PresenterMetrics {
+
+    private static final Logger LOG = Logger.forClass(PresenterMetrics.class);
+
+    public static final int PHASE_CREATE = 0;
+    public static final int PHASE_BIND = 1;
+    public static final int PHASE_RECYCLE = 2;
+
+    private static final String[] PHASE_NAMES = {"create", "bind", "recycle"};
+
+    /**
+     * Immutable table of view types to histograms, replaced when a view type is seen for the first time
+     */
+    private volatile Table mTable = new Table(new int[0], new LatencyHistogram[0][]);
+
+    /**
+     * Records the latency of a call.
+     *
+     * @param viewType - view type of the holder
+     * @param phase    - one of {@link #PHASE_CREATE}, {@link #PHASE_BIND} or {@link #PHASE_RECYCLE}
+     * @param nanos    - latency in nanoseconds
+     */
+    public void record(int viewType, int phase, long nanos) {
+        getHistograms(viewType)[phase].record(nanos);
+    }
+
+    /**
+     * @param viewType - view type
+     * @param phase    - one of {@link #PHASE_CREATE}, {@link #PHASE_BIND} or {@link #PHASE_RECYCLE}
+     * @return histogram of the phase for the view type, empty if nothing was recorded
+     */
+    public LatencyHistogram getHistogram(int viewType, int phase) {
+        return getHistograms(viewType)[phase];
+    }
+
+    /**
+     * @return view types that have recorded latencies
+     */
+    public int[] getViewTypes() {
+        final int[] viewTypes = mTable.mViewTypes;
+        return Arrays.copyOf(viewTypes, viewTypes.length);
+    }
+
+    /**
+     * Clears all recorded latencies.
+     */
+    public void reset() {
+        final Table table = mTable;
+        for (LatencyHistogram[] histograms : table.mHistograms) {
+            for (LatencyHistogram histogram : histograms) {
+                histogram.reset();
+            }
+        }
+    }
+
+    /**
+     * Logs count, p50, p95, p99 and max of every phase and view type.
+     */
+    public void log() {
+        log(null);
+    }
+
+    /**
+     * Logs count, p50, p95, p99 and max of every phase and view type.
+     *
+     * @param registry - registry used to name view types after their presenter, may be null
+     */
+    public void log(PresenterRegistry registry) {
+        final Table table = mTable;
+        for (int i = 0; i < table.mViewTypes.length; i++) {
+            final int viewType = table.mViewTypes[i];
+            final ViewHolderPresenter presenter = registry != null ? registry.get(viewType) : null;
+            final String name = presenter != null ? presenter.getClass().getSimpleName() : "ViewType " + viewType;
+            for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+                final LatencyHistogram histogram = table.mHistograms[i][phase];
+                if (histogram.getCount() == 0) {
+                    continue;
+                }
+                LOG.d("%s %s: count= %d, p50= %s, p95= %s, p99= %s, max= %s", name, PHASE_NAMES[phase],
+                        histogram.getCount(), formatMillis(histogram.getPercentileNanos(50)),
+                        formatMillis(histogram.getPercentileNanos(95)), formatMillis(histogram.getPercentileNanos(99)),
+                        formatMillis(histogram.getMaxNanos()));
+            }
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.US, "%.3fms", nanos / 1e6);
+    }
+
+    private LatencyHistogram[] getHistograms(int viewType) {
+        Table table = mTable;
+        int index = Arrays.binarySearch(table.mViewTypes, viewType);
+        if (index >= 0) {
+            return table.mHistograms[index];
+        }
+        synchronized (this) {
+            table = mTable;
+            index = Arrays.binarySearch(table.mViewTypes, viewType);
+            if (index >= 0) {
+                return table.mHistograms[index];
+            }
+            index = ~index;
+            final int length = table.mViewTypes.length;
+            final int[] viewTypes = new int[length + 1];
+            final LatencyHistogram[][] histograms = new LatencyHistogram[length + 1][];
+            System.arraycopy(table.mViewTypes, 0, viewTypes, 0, index);
+            System.arraycopy(table.mHistograms, 0, histograms, 0, index);
+            System.arraycopy(table.mViewTypes, index, viewTypes, index + 1, length - index);
+            System.arraycopy(table.mHistograms, index, histograms, index + 1, length - index);
+            viewTypes[index] = viewType;
+            histograms[index] = new LatencyHistogram[]{new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram()};
+            mTable = new Table(viewTypes, histograms);
+            return histograms[index];
+        }
+    }
+
+    private static final class Table {
+        final int[] mViewTypes;
+        final LatencyHistogram[][] mHistograms;
+
+        Table(int[] viewTypes, LatencyHistogram[][] histograms) {
+            mViewTypes = viewTypes;
+            mHistograms = histograms;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Registry of {@link ViewHolderPresenter} keyed by view type.
+ * <p>
+ * Small non negative view types are stored in a direct indexed table, any other view type falls back to
+ * sorted primitive arrays that are binary searched. Lookups never box the view type nor allocate.
+ * Presenters can also be registered without a view type, in which case one is assigned per presenter class.
+ */
+public final class PresenterRegistry {
+
+    /**
+     * View types in [0, MAX_DIRECT_VIEW_TYPE) are stored in the direct table
+     */
+    static final int MAX_DIRECT_VIEW_TYPE = 256;
+
+    /**
+     * Returned by {@link #getViewType(Class)} if no view type was assigned, same as {@code RecyclerView.INVALID_TYPE}
+     */
+    public static final int INVALID_TYPE = -1;
+
+    private static final String MISSING_PRESENTER_MESSAGE =
+            "Could not find Presenter for ViewType= %s , Was a presenter added for this ViewType?";
+
+    private ViewHolderPresenter[] mDirectPresenters = new ViewHolderPresenter[8];
+
+    private int[] mSparseViewTypes = new int[0];
+    private ViewHolderPresenter[] mSparsePresenters = new ViewHolderPresenter[0];
+
+    /**
+     * Presenter classes in the order their view types were assigned
+     */
+    private Class<?>[] mAssignedClasses = new Class<?>[0];
+    private int[] mAssignedViewTypes = new int[0];
+
+    private int mSize;
+
+    /**
+     * Registers a presenter for the given view type, replacing any previous presenter for it.
+     *
+     * @param viewType  - view type the presenter should handle
+     * @param presenter - presenter that handles creating and binding views of the given type
+     */
+    public void put(int viewType, ViewHolderPresenter presenter) {
+        checkNotNull(presenter, "presenter == null");
+        if (viewType >= 0 && viewType < MAX_DIRECT_VIEW_TYPE) {
+            if (viewType >= mDirectPresenters.length) {
+                int newLength = mDirectPresenters.length;
+                while (newLength <= viewType) {
+                    newLength *= 2;
+                }
+                mDirectPresenters = Arrays.copyOf(mDirectPresenters, Math.min(newLength, MAX_DIRECT_VIEW_TYPE));
+            }
+            if (mDirectPresenters[viewType] == null) {
+                mSize++;
+            }
+            mDirectPresenters[viewType] = presenter;
+            return;
+        }
+
+        int index = Arrays.binarySearch(mSparseViewTypes, viewType);
+        if (index >= 0) {
+            mSparsePresenters[index] = presenter;
+            return;
+        }
+        index = ~index;
+        mSparseViewTypes = insert(mSparseViewTypes, index, viewType);
+        ViewHolderPresenter[] presenters = new ViewHolderPresenter[mSparsePresenters.length + 1];
+        System.arraycopy(mSparsePresenters, 0, presenters, 0, index);
+        presenters[index] = presenter;
+        System.arraycopy(mSparsePresenters, index, presenters, index + 1, mSparsePresenters.length - index);
+        mSparsePresenters = presenters;
+        mSize++;
+    }
+
+    /**
+     * Registers a presenter and assigns it a view type. Presenters of the same class share a view type,
+     * so registering another instance of a class replaces the previous one.
+     *
+     * @param presenter - presenter that handles creating and binding views
+     * @return view type assigned to the presenter's class
+     */
+    public int register(ViewHolderPresenter presenter) {
+        checkNotNull(presenter, "presenter == null");
+        final Class<? extends ViewHolderPresenter> presenterClass = presenter.getClass();
+        int viewType = getViewType(presenterClass);
+        if (viewType == INVALID_TYPE) {
+            viewType = nextFreeViewType();
+            final int length = mAssignedClasses.length;
+            mAssignedClasses = Arrays.copyOf(mAssignedClasses, length + 1);
+            mAssignedClasses[length] = presenterClass;
+            mAssignedViewTypes = Arrays.copyOf(mAssignedViewTypes, length + 1);
+            mAssignedViewTypes[length] = viewType;
+        }
+        put(viewType, presenter);
+        return viewType;
+    }
+
+    /**
+     * Returns the view type assigned by {@link #register(ViewHolderPresenter)} to a presenter class.
+     *
+     * @param presenterClass - class of a registered presenter
+     * @return the assigned view type, {@link #INVALID_TYPE} if none was assigned
+     */
+    public int getViewType(Class<? extends ViewHolderPresenter> presenterClass) {
+        final Class<?>[] classes = mAssignedClasses;
+        for (int i = 0; i < classes.length; i++) {
+            if (classes[i] == presenterClass) {
+                return mAssignedViewTypes[i];
+            }
+        }
+        return INVALID_TYPE;
+    }
+
+    /**
+     * @param viewType - view type
+     * @return presenter registered for the view type, null if there is none
+     */
+    @Nullable
+    public ViewHolderPresenter get(int viewType) {
+        if (viewType >= 0 && viewType < mDirectPresenters.length) {
+            return mDirectPresenters[viewType];
+        }
+        if (viewType >= 0 && viewType < MAX_DIRECT_VIEW_TYPE) {
+            return null;
+        }
+        final int index = Arrays.binarySearch(mSparseViewTypes, viewType);
+        return index >= 0 ? mSparsePresenters[index] : null;
+    }
+
+    /**
+     * @param viewType - view type
+     * @return presenter registered for the view type
+     * @throws NullPointerException if no presenter was registered for the view type
+     */
+    public ViewHolderPresenter getOrThrow(int viewType) {
+        return checkNotNull(get(viewType), MISSING_PRESENTER_MESSAGE, viewType);
+    }
+
+    /**
+     * @return number of registered view types
+     */
+    public int size() {
+        return mSize;
+    }
+
+    private int nextFreeViewType() {
+        for (int viewType = 0; viewType < MAX_DIRECT_VIEW_TYPE; viewType++) {
+            if (get(viewType) == null) {
+                return viewType;
+            }
+        }
+        throw new IllegalStateException("No free view type left, at most " + MAX_DIRECT_VIEW_TYPE
+                + " presenters can be registered without a view type");
+    }
+
+    private static int[] insert(int[] array, int index, int value) {
+        int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+}
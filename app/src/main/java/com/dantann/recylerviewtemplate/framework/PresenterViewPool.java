@@ -0,0 +1,353 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * {@link RecyclerView.RecycledViewPool} that is shared by all {@link PresenterAdapter}s of the application,
+ * so holders inflated by one screen are reused by the next one.
+ * <p>
+ * View types are assigned by the pool per presenter class, so a view type means the same presenter in every
+ * adapter that uses the pool. The capacity of each view type grows with the observed peak number of holders in use.
+ * Holders can be pre-warmed while the main thread is idle, before a screen is shown.
+ * <p>
+ * Holders keep a reference to the context they were inflated with, so {@link BaseApplication} removes the holders
+ * of an activity when it is destroyed, and the pool refuses holders of that activity recycled afterwards. The
+ * holders of the other screens stay pooled, the whole pool is only cleared when memory is trimmed.
+ */
+public class PresenterViewPool extends RecyclerView.RecycledViewPool {
+
+    private static final Logger LOG = Logger.forClass(PresenterViewPool.class);
+
+    /**
+     * Same as the default capacity of {@link RecyclerView.RecycledViewPool}
+     */
+    public static final int DEFAULT_CAPACITY = 5;
+
+    /**
+     * Upper bound for the capacity of a single view type
+     */
+    public static final int MAX_CAPACITY = 32;
+
+    /**
+     * Holds the presenters of the pool and creates pre-warmed holders, so their view type is set.
+     */
+    private final WarmUpAdapter mWarmUpAdapter = new WarmUpAdapter();
+
+    private final SparseArray<TypeStats> mTypeStats = new SparseArray<>();
+
+    /**
+     * Destroyed activities whose holders must not be pooled, weakly referenced
+     */
+    private final Set<Context> mDestroyedContexts = Collections.newSetFromMap(new WeakHashMap<Context, Boolean>());
+
+    /**
+     * Holders kept while the holders of a destroyed context are removed
+     */
+    private final ArrayList<RecyclerView.ViewHolder> mKeptHolders = new ArrayList<>();
+
+    private int mHitCount;
+    private int mMissCount;
+    private int mPreWarmedCount;
+    private int mDroppedCount;
+
+    /**
+     * Adds a presenter to an adapter using the view type assigned to the presenter's class by this pool.
+     *
+     * @param adapter   - adapter that uses this pool
+     * @param presenter - presenter to add
+     * @return view type of the presenter, to be returned from {@link PresenterAdapter#getItemViewType(int)}
+     */
+    @MainThread
+    public int addPresenter(PresenterAdapter adapter, ViewHolderPresenter presenter) {
+        final int viewType = mWarmUpAdapter.addPresenter(presenter);
+        adapter.addViewTypePresenter(viewType, presenter);
+        return viewType;
+    }
+
+    /**
+     * Gets the view type assigned to a presenter class.
+     *
+     * @param presenterClass - presenter class added with {@link #addPresenter(PresenterAdapter, ViewHolderPresenter)}
+     * @return view type, {@link PresenterRegistry#INVALID_TYPE} if the class was never added
+     */
+    public int getViewType(Class<? extends ViewHolderPresenter> presenterClass) {
+        return mWarmUpAdapter.getViewType(presenterClass);
+    }
+
+    /**
+     * Makes the recycler view use this pool. Linear layout managers are set to recycle their children on detach,
+     * so the holders of a screen that goes away are returned to the pool.
+     *
+     * @param recyclerView - recycler view whose adapter added its presenters through this pool
+     */
+    @MainThread
+    public void attach(RecyclerView recyclerView) {
+        recyclerView.setRecycledViewPool(this);
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) layoutManager).setRecycleChildrenOnDetach(true);
+        }
+    }
+
+    /**
+     * Inflates holders of the given view type while the main thread is idle, one holder per idle pass.
+     *
+     * @param parent   - parent the holders are inflated for, ideally the recycler view that will show them
+     * @param viewType - view type assigned by {@link #addPresenter(PresenterAdapter, ViewHolderPresenter)}
+     * @param count    - number of holders that should be pooled
+     */
+    @MainThread
+    public void preWarm(final ViewGroup parent, final int viewType, final int count) {
+        final TypeStats stats = getStats(viewType);
+        if (count > stats.mCapacity) {
+            setCapacity(viewType, count);
+        }
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                if (stats.mPooled >= Math.min(count, stats.mCapacity)) {
+                    return false;
+                }
+                RecyclerView.ViewHolder holder = mWarmUpAdapter.createViewHolder(parent, viewType);
+                mPreWarmedCount++;
+                stats.mPooled++;
+                PresenterViewPool.super.putRecycledView(holder);
+                return stats.mPooled < Math.min(count, stats.mCapacity);
+            }
+        });
+    }
+
+    /**
+     * Pre-warms holders for a presenter class.
+     *
+     * @see #preWarm(ViewGroup, int, int)
+     */
+    @MainThread
+    public void preWarm(ViewGroup parent, Class<? extends ViewHolderPresenter> presenterClass, int count) {
+        final int viewType = getViewType(presenterClass);
+        if (viewType == PresenterRegistry.INVALID_TYPE) {
+            throw new IllegalArgumentException("Presenter " + presenterClass.getName() + " was not added to the pool");
+        }
+        preWarm(parent, viewType, count);
+    }
+
+    @Override
+    public RecyclerView.ViewHolder getRecycledView(int viewType) {
+        final RecyclerView.ViewHolder holder = super.getRecycledView(viewType);
+        final TypeStats stats = getStats(viewType);
+        if (holder != null) {
+            mHitCount++;
+            stats.mPooled--;
+        } else {
+            // the recycler view inflates a new holder
+            mMissCount++;
+            stats.mCreated++;
+        }
+        stats.mInUse++;
+        if (stats.mInUse > stats.mPeakInUse) {
+            stats.mPeakInUse = stats.mInUse;
+            if (stats.mPeakInUse > stats.mCapacity && stats.mCapacity < MAX_CAPACITY) {
+                setCapacity(viewType, stats.mPeakInUse);
+            }
+        }
+        return holder;
+    }
+
+    @Override
+    public void putRecycledView(RecyclerView.ViewHolder scrap) {
+        final TypeStats stats = getStats(scrap.getItemViewType());
+        if (stats.mInUse > 0) {
+            stats.mInUse--;
+        }
+        if (isFromDestroyedContext(scrap)) {
+            // recycled when the views of the destroyed activity are detached
+            mDroppedCount++;
+            return;
+        }
+        if (stats.mPooled < stats.mCapacity) {
+            stats.mPooled++;
+        } else {
+            mDroppedCount++;
+        }
+        super.putRecycledView(scrap);
+    }
+
+    @Override
+    public void setMaxRecycledViews(int viewType, int max) {
+        getStats(viewType).mCapacity = max;
+        super.setMaxRecycledViews(viewType, max);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        for (int i = 0, size = mTypeStats.size(); i < size; i++) {
+            TypeStats stats = mTypeStats.valueAt(i);
+            stats.mPooled = 0;
+            stats.mInUse = 0;
+        }
+    }
+
+    /**
+     * Removes the pooled holders inflated with a context that is destroyed, and refuses its holders from now on.
+     * The holders of other contexts stay pooled.
+     *
+     * @param context - destroyed context, usually an activity
+     */
+    @MainThread
+    public void removeHolders(Context context) {
+        mDestroyedContexts.add(context);
+        for (int i = 0, size = mTypeStats.size(); i < size; i++) {
+            final int viewType = mTypeStats.keyAt(i);
+            final TypeStats stats = mTypeStats.valueAt(i);
+            RecyclerView.ViewHolder holder;
+            while ((holder = super.getRecycledView(viewType)) != null) {
+                if (isFromDestroyedContext(holder)) {
+                    stats.mPooled--;
+                } else {
+                    mKeptHolders.add(holder);
+                }
+            }
+            for (int j = 0, kept = mKeptHolders.size(); j < kept; j++) {
+                super.putRecycledView(mKeptHolders.get(j));
+            }
+            mKeptHolders.clear();
+        }
+    }
+
+    /**
+     * @return number of holders handed out from the pool
+     */
+    public int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return number of holders the recycler views had to inflate because the pool was empty
+     */
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return number of holders inflated by {@link #preWarm(ViewGroup, int, int)}
+     */
+    public int getPreWarmedCount() {
+        return mPreWarmedCount;
+    }
+
+    /**
+     * @return number of holders that were dropped because the pool was full
+     */
+    public int getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * @param viewType - view type
+     * @return number of holders of the view type inflated by recycler views
+     */
+    public int getCreatedCount(int viewType) {
+        final TypeStats stats = mTypeStats.get(viewType);
+        return stats == null ? 0 : stats.mCreated;
+    }
+
+    /**
+     * @param viewType - view type
+     * @return peak number of holders of the view type that were in use at the same time
+     */
+    public int getPeakInUse(int viewType) {
+        final TypeStats stats = mTypeStats.get(viewType);
+        return stats == null ? 0 : stats.mPeakInUse;
+    }
+
+    /**
+     * @param viewType - view type
+     * @return current capacity of the view type
+     */
+    public int getCapacity(int viewType) {
+        final TypeStats stats = mTypeStats.get(viewType);
+        return stats == null ? DEFAULT_CAPACITY : stats.mCapacity;
+    }
+
+    /**
+     * Logs the counters of the pool.
+     */
+    public void logStats() {
+        LOG.d("Pool hits= %d, misses= %d, pre-warmed= %d, dropped= %d",
+                mHitCount, mMissCount, mPreWarmedCount, mDroppedCount);
+        for (int i = 0, size = mTypeStats.size(); i < size; i++) {
+            TypeStats stats = mTypeStats.valueAt(i);
+            LOG.d("ViewType= %d created= %d, peak in use= %d, pooled= %d, capacity= %d", mTypeStats.keyAt(i),
+                    stats.mCreated, stats.mPeakInUse, stats.mPooled, stats.mCapacity);
+        }
+    }
+
+    private boolean isFromDestroyedContext(RecyclerView.ViewHolder holder) {
+        if (mDestroyedContexts.isEmpty()) {
+            return false;
+        }
+        Context context = holder.itemView.getContext();
+        while (context instanceof ContextWrapper) {
+            if (mDestroyedContexts.contains(context)) {
+                return true;
+            }
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return mDestroyedContexts.contains(context);
+    }
+
+    private void setCapacity(int viewType, int capacity) {
+        setMaxRecycledViews(viewType, Math.min(capacity, MAX_CAPACITY));
+    }
+
+    private TypeStats getStats(int viewType) {
+        TypeStats stats = mTypeStats.get(viewType);
+        if (stats == null) {
+            stats = new TypeStats();
+            mTypeStats.put(viewType, stats);
+        }
+        return stats;
+    }
+
+    private static final class TypeStats {
+        int mCapacity = DEFAULT_CAPACITY;
+        int mPooled;
+        int mInUse;
+        int mPeakInUse;
+        int mCreated;
+    }
+
+    private static final class WarmUpAdapter extends PresenterAdapter {
+
+        @Nullable
+        @Override
+        public Object getDataForPosition(int position) {
+            return null;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return PresenterRegistry.INVALID_TYPE;
+        }
+
+        @Override
+        public int getItemCount() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.MainThread;
+
+/**
+ * Component that rebuilds the objects affected by a preference change in-process, so the app does not have to be
+ * restarted. Registered through {@link BaseApplication#registerReconfigurable(Reconfigurable)}.
+ */
+public interface Reconfigurable {
+
+    /**
+     * Called after the value of a preference changed.
+     *
+     * @param key - key of the changed preference
+     * @return true if the change was applied, false if this component does not depend on the key
+     */
+    @MainThread
+    boolean onReconfigure(String key);
+}
@@ -0,0 +1,136 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+
+import com.jakewharton.processphoenix.ProcessPhoenix;
+
+import java.util.ArrayList;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Applies preference changes either live, by notifying the registered {@link Reconfigurable}s, or by restarting
+ * the process as a fallback. Owned by {@link BaseApplication}.
+ * <p>
+ * The time to apply is tracked for both paths: live changes are recorded in a histogram, restarts are measured
+ * from the restart request to the first activity resumed in the new process.
+ * <p>
+ * Components are notified right after the change, while the value may still be pending in the
+ * {@link PreferenceWriter}, so they must read through it or a {@link CachedPreference}.
+ */
+public final class Reconfigurator {
+
+    private static final Logger LOG = Logger.forClass(Reconfigurator.class);
+
+    private static final String PREFERENCES_NAME = "reconfigurator";
+    private static final String KEY_RESTART_KEY = "restart_key";
+    private static final String KEY_RESTART_TIME = "restart_time";
+
+    private final ArrayList<Reconfigurable> mComponents = new ArrayList<>();
+    private final LatencyHistogram mLiveApplyHistogram = new LatencyHistogram();
+    private final PreferenceWriter mWriter;
+
+    private long mLastRestartMillis = -1;
+    @Nullable
+    private String mLastRestartKey;
+
+    Reconfigurator(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        mWriter = PreferenceWriter.get(preferences);
+    }
+
+    @MainThread
+    public void register(Reconfigurable component) {
+        checkNotNull(component, "component == null");
+        if (!mComponents.contains(component)) {
+            mComponents.add(component);
+        }
+    }
+
+    @MainThread
+    public void unregister(Reconfigurable component) {
+        mComponents.remove(component);
+    }
+
+    /**
+     * Notifies all registered components of a changed preference.
+     *
+     * @param key - key of the changed preference
+     * @return true if at least one component applied the change, false if it needs a restart
+     */
+    @MainThread
+    public boolean applyLive(String key) {
+        final long start = System.nanoTime();
+        boolean applied = false;
+        for (int i = 0; i < mComponents.size(); i++) {
+            applied |= mComponents.get(i).onReconfigure(key);
+        }
+        if (applied) {
+            final long nanos = System.nanoTime() - start;
+            mLiveApplyHistogram.record(nanos);
+            LOG.d("Applied %s live in %d us", key, nanos / 1000);
+        }
+        return applied;
+    }
+
+    /**
+     * Restarts the process after flushing all pending preference writes.
+     *
+     * @param context - context used to restart
+     * @param key     - key of the preference that requires the restart
+     */
+    @MainThread
+    public void restart(Context context, String key) {
+        mWriter.put(KEY_RESTART_KEY, key);
+        mWriter.put(KEY_RESTART_TIME, SystemClock.elapsedRealtime());
+        PreferenceWriter.flushAll();
+        ProcessPhoenix.triggerRebirth(context);
+    }
+
+    /**
+     * Completes the measurement of a restart requested by the previous process.
+     */
+    @MainThread
+    void onFirstActivityResumed() {
+        final long restartTime = mWriter.getLong(KEY_RESTART_TIME, -1);
+        if (restartTime == -1) {
+            return;
+        }
+        mLastRestartMillis = SystemClock.elapsedRealtime() - restartTime;
+        mLastRestartKey = mWriter.getString(KEY_RESTART_KEY, null);
+        mWriter.remove(KEY_RESTART_TIME);
+        mWriter.remove(KEY_RESTART_KEY);
+        LOG.d("Applied %s by restarting in %d ms", mLastRestartKey, mLastRestartMillis);
+    }
+
+    /**
+     * @return time to apply of changes applied live
+     */
+    public LatencyHistogram getLiveApplyHistogram() {
+        return mLiveApplyHistogram;
+    }
+
+    /**
+     * @return time from the restart request to the first resumed activity, -1 if this process was not restarted
+     */
+    public long getLastRestartMillis() {
+        return mLastRestartMillis;
+    }
+
+    @Nullable
+    public String getLastRestartKey() {
+        return mLastRestartKey;
+    }
+
+    public void logStats() {
+        LOG.d("Live changes= %d, p50= %d us, max= %d us", mLiveApplyHistogram.getCount(),
+                mLiveApplyHistogram.getPercentileNanos(50) / 1000, mLiveApplyHistogram.getMaxNanos() / 1000);
+        if (mLastRestartMillis != -1) {
+            LOG.d("Last restart for %s took %d ms", mLastRestartKey, mLastRestartMillis);
+        }
+    }
+}
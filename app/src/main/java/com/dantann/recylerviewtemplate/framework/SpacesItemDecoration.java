@@ -5,7 +5,8 @@ import android.support.v7.widget.RecyclerView;
 import android.view.View;
 
 /**
- * Custom {@link RecyclerView.ItemDecoration} to add spacing between items.
+ * Custom {@link RecyclerView.ItemDecoration} to add spacing between items. Every item gets the same offsets, use
+ * {@link GridSpacingItemDecoration} for equal gutters in grids.
  */
 public final class SpacesItemDecoration extends RecyclerView.ItemDecoration {
 
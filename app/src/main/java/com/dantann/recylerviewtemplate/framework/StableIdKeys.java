@@ -0,0 +1,70 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Maps the string keys of an adapter to stable ids. Unlike hashing the key, every distinct key gets its own id, so
+ * ids never collide. Ids are assigned counting up from {@link Long#MIN_VALUE}, which keeps them apart from typical
+ * database ids returned by {@link Identifiable} models.
+ * <p>
+ * Only the keys of the current list are kept: the adapter calls {@link #retain(List)} when a list is submitted, so
+ * the map does not grow with every key a feed goes through, and keys that stay in the list keep their ids.
+ */
+public final class StableIdKeys {
+
+    private HashMap<String, Long> mIds = new HashMap<>();
+    private long mNextId = Long.MIN_VALUE;
+
+    /**
+     * @param key - string key of an entity
+     * @return id of the key, the same key returns the same id until it is dropped, never {@link RecyclerView#NO_ID}
+     */
+    public long getId(String key) {
+        Long id = mIds.get(key);
+        if (id == null) {
+            id = mNextId++;
+            mIds.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * Drops the ids of the keys that are not in the new list, the other keys keep their ids.
+     *
+     * @param models - models of the new list, {@link KeyIdentifiable} ones are looked at
+     */
+    public void retain(List<?> models) {
+        if (mIds.isEmpty()) {
+            return;
+        }
+        final HashMap<String, Long> retained = new HashMap<>();
+        for (int i = 0, size = models.size(); i < size; i++) {
+            final Object model = models.get(i);
+            if (model instanceof KeyIdentifiable) {
+                final String key = ((KeyIdentifiable) model).getStableKey();
+                final Long id = mIds.get(key);
+                if (id != null) {
+                    retained.put(key, id);
+                }
+            }
+        }
+        mIds = retained;
+    }
+
+    /**
+     * Drops all ids, e.g. when the adapter is given an unrelated list.
+     */
+    public void clear() {
+        mIds.clear();
+    }
+
+    /**
+     * @return number of keys that have an id
+     */
+    public int size() {
+        return mIds.size();
+    }
+}
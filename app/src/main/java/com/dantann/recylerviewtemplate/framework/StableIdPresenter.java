@@ -0,0 +1,15 @@
+package com.dantann.recylerviewtemplate.framework;
+
+/**
+ * {@link ViewHolderPresenter} that provides stable ids for models that are not {@link Identifiable}.
+ *
+ * @param <M> model type
+ */
+public interface StableIdPresenter<M> extends ViewHolderPresenter<M> {
+
+    /**
+     * @param model - model at the adapter position
+     * @return id that is unique within the adapter and does not change for the same entity
+     */
+    long getItemId(M model);
+}
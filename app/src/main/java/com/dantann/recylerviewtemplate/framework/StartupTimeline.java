@@ -0,0 +1,184 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
+
+/**
+ * Timeline of the cold start of the process. Records milestones, points in time such as the first resumed
+ * activity, and phases, named spans such as init tasks. All times are relative to the start of the process,
+ * which is approximated by the loading of this class.
+ * <p>
+ * Events are recorded by {@link BaseApplication}, and the init tasks added through
+ * {@link BaseApplication#addInitTask(InitTask)} by the {@link AppInitializer}.
+ */
+public final class StartupTimeline {
+
+    private static final Logger LOG = Logger.forClass(StartupTimeline.class);
+
+    public static final String PROCESS_START = "Process start";
+    public static final String APPLICATION_CREATE = "Application.onCreate";
+    public static final String FIRST_ACTIVITY_CREATED = "First activity created";
+    public static final String FIRST_ACTIVITY_RESUMED = "First activity resumed";
+    public static final String FIRST_LAYOUT = "First layout";
+    public static final String FIRST_FRAME_DRAWN = "First frame drawn";
+
+    /**
+     * Loaded with the application class, the earliest point application code can observe before API 24
+     */
+    private static final long sProcessStartNanos = System.nanoTime();
+
+    /**
+     * Milestone or phase of the timeline.
+     */
+    public static final class Event {
+        private final String mName;
+        private final long mStartNanos;
+        private final long mDurationNanos;
+        @Nullable
+        private final String mThreadName;
+
+        Event(String name, long startNanos, long durationNanos, @Nullable String threadName) {
+            mName = name;
+            mStartNanos = startNanos;
+            mDurationNanos = durationNanos;
+            mThreadName = threadName;
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * @return start of the event in nanoseconds since the process start
+         */
+        public long getStartNanos() {
+            return mStartNanos;
+        }
+
+        /**
+         * @return duration of a phase in nanoseconds, 0 for milestones
+         */
+        public long getDurationNanos() {
+            return mDurationNanos;
+        }
+
+        public boolean isPhase() {
+            return mThreadName != null;
+        }
+
+        /**
+         * @return thread a phase ran on, null for milestones
+         */
+        @Nullable
+        public String getThreadName() {
+            return mThreadName;
+        }
+    }
+
+    private final long mOriginNanos;
+    private final ArrayList<Event> mEvents = new ArrayList<>();
+
+    public StartupTimeline() {
+        this(sProcessStartNanos);
+    }
+
+    /**
+     * @param originNanos - {@link System#nanoTime()} the timeline starts at
+     */
+    StartupTimeline(long originNanos) {
+        mOriginNanos = originNanos;
+        mEvents.add(new Event(PROCESS_START, 0, 0, null));
+    }
+
+    /**
+     * Records a milestone at the current time, unless a milestone of that name was recorded already.
+     *
+     * @param name - name of the milestone
+     * @return true if the milestone was recorded
+     */
+    public synchronized boolean mark(String name) {
+        checkNotNull(name, "name == null");
+        if (find(name) != null) {
+            return false;
+        }
+        mEvents.add(new Event(name, System.nanoTime() - mOriginNanos, 0, null));
+        return true;
+    }
+
+    /**
+     * Runs a task and records its duration as a phase.
+     *
+     * @param name - name of the phase
+     * @param task - task to run on the calling thread
+     */
+    public void trace(String name, Runnable task) {
+        checkNotNull(name, "name == null");
+        final long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            addPhase(name, start, System.nanoTime());
+        }
+    }
+
+    /**
+     * Records a phase that was timed by the caller.
+     *
+     * @param name       - name of the phase
+     * @param startNanos - {@link System#nanoTime()} at the start of the phase
+     * @param endNanos   - {@link System#nanoTime()} at the end of the phase
+     */
+    public synchronized void addPhase(String name, long startNanos, long endNanos) {
+        mEvents.add(new Event(name, startNanos - mOriginNanos, endNanos - startNanos,
+                Thread.currentThread().getName()));
+    }
+
+    /**
+     * @param name - name of a milestone or phase
+     * @return the first event of that name, null if none was recorded
+     */
+    @Nullable
+    public synchronized Event find(String name) {
+        for (int i = 0, size = mEvents.size(); i < size; i++) {
+            if (mEvents.get(i).mName.equals(name)) {
+                return mEvents.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return all events ordered by their start
+     */
+    public synchronized List<Event> getEvents() {
+        final ArrayList<Event> events = new ArrayList<>(mEvents);
+        // phases are added when they end, so they can be out of order
+        Collections.sort(events, new Comparator<Event>() {
+            @Override
+            public int compare(Event lhs, Event rhs) {
+                return lhs.mStartNanos < rhs.mStartNanos ? -1 : (lhs.mStartNanos == rhs.mStartNanos ? 0 : 1);
+            }
+        });
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * Logs the timeline, one event per line.
+     */
+    public void dump() {
+        for (Event event : getEvents()) {
+            if (event.isPhase()) {
+                LOG.d("Startup %6.1f ms  %s took %.1f ms on %s", event.mStartNanos / 1e6, event.mName,
+                        event.mDurationNanos / 1e6, event.mThreadName);
+            } else {
+                LOG.d("Startup %6.1f ms  %s", event.mStartNanos / 1e6, event.mName);
+            }
+        }
+    }
+}
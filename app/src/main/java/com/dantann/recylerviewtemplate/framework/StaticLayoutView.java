@@ -0,0 +1,69 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.support.annotation.Nullable;
+import android.text.Layout;
+import android.util.AttributeSet;
+import android.view.View;
+
+/**
+ * View that draws a precomputed text {@link Layout}, usually taken from a {@link TextLayoutCache}.
+ * Unlike a TextView it does no measuring or layout of text itself, so assigning a layout is cheap.
+ */
+public class StaticLayoutView extends View {
+
+    @Nullable
+    private Layout mLayout;
+
+    public StaticLayoutView(Context context) {
+        super(context);
+    }
+
+    public StaticLayoutView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public StaticLayoutView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    /**
+     * @param layout - layout to draw, null to draw nothing
+     */
+    public void setLayout(@Nullable Layout layout) {
+        if (mLayout == layout) {
+            return;
+        }
+        final boolean sizeChanged = mLayout == null || layout == null
+                || mLayout.getWidth() != layout.getWidth() || mLayout.getHeight() != layout.getHeight();
+        mLayout = layout;
+        if (sizeChanged) {
+            requestLayout();
+        }
+        invalidate();
+    }
+
+    @Nullable
+    public Layout getLayout() {
+        return mLayout;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int width = (mLayout == null ? 0 : mLayout.getWidth()) + getPaddingLeft() + getPaddingRight();
+        final int height = (mLayout == null ? 0 : mLayout.getHeight()) + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (mLayout != null) {
+            canvas.save();
+            canvas.translate(getPaddingLeft(), getPaddingTop());
+            mLayout.draw(canvas);
+            canvas.restore();
+        }
+    }
+}
@@ -1,41 +1,28 @@
 package com.dantann.recylerviewtemplate.framework;
 
-import android.annotation.SuppressLint;
 import android.content.SharedPreferences;
 
 /**
- * Class encapsulates setting/getting values in shared preferences
+ * Class encapsulates setting/getting values in shared preferences.
+ * Values are cached in memory and written asynchronously, see {@link CachedPreference}.
  */
-public class StringPreference {
-  private final SharedPreferences mPreference;
-  private final String mKey;
-  private final String mDefaultValue;
+public class StringPreference extends CachedPreference<String> {
 
   public StringPreference(SharedPreferences preferences, String key) {
     this(preferences, key, null);
   }
 
   public StringPreference(SharedPreferences preferences, String key, String defaultValue) {
-    mPreference = preferences;
-    mKey = key;
-    mDefaultValue = defaultValue;
+    super(preferences, key, defaultValue);
   }
 
-  public String get() {
-    return mPreference.getString(mKey, mDefaultValue);
+  @Override
+  protected String read(PreferenceWriter writer, String key, String defaultValue) {
+    return writer.getString(key, defaultValue);
   }
 
-  public boolean isSet() {
-    return mPreference.contains(mKey);
-  }
-
-  @SuppressLint("CommitPrefEdits")
-  public void set(String value) {
-    mPreference.edit().putString(mKey, value).commit();
-  }
-
-  @SuppressLint("CommitPrefEdits")
-  public void delete() {
-    mPreference.edit().remove(mKey).commit();
+  @Override
+  protected Object write(String value) {
+    return value;
   }
 }
@@ -0,0 +1,39 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.SharedPreferences;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Preference holding a set of strings, cached in memory, see {@link CachedPreference}.
+ * Returned sets are unmodifiable, written sets are copied.
+ */
+public class StringSetPreference extends CachedPreference<Set<String>> {
+
+    public StringSetPreference(SharedPreferences preferences, String key) {
+        this(preferences, key, Collections.<String>emptySet());
+    }
+
+    public StringSetPreference(SharedPreferences preferences, String key, Set<String> defaultValue) {
+        super(preferences, key, defaultValue);
+    }
+
+    @Override
+    public void set(Set<String> value) {
+        super.set(value == null ? null : Collections.unmodifiableSet(new HashSet<>(value)));
+    }
+
+    @Override
+    protected Set<String> read(PreferenceWriter writer, String key, Set<String> defaultValue) {
+        final Set<String> value = writer.getStringSet(key, null);
+        // the preferences own the returned set, it must not be modified
+        return value == null ? defaultValue : Collections.unmodifiableSet(value);
+    }
+
+    @Override
+    protected Object write(Set<String> value) {
+        return value;
+    }
+}
@@ -0,0 +1,171 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.LruCache;
+
+/**
+ * Bounded cache of {@link StaticLayout}s keyed by text, width and text paint.
+ * <p>
+ * Layouts are precomputed on a background thread when data arrives, so binding a row only assigns a ready layout
+ * to a {@link StaticLayoutView}. Text paints are compared by identity and must not be modified once used, since
+ * they are kept by the cached layouts. Background threads lay out with their own copy of the paint, see
+ * {@link #precompute(CharSequence, TextPaint, TextPaint, int)}.
+ */
+public final class TextLayoutCache {
+
+    private static final Logger LOG = Logger.forClass(TextLayoutCache.class);
+
+    private final LruCache<Key, Layout> mLayouts;
+
+    /**
+     * Key reused for lookups on the main thread, so cache hits do not allocate
+     */
+    private final Key mLookupKey = new Key();
+
+    private int mHitCount;
+    private int mMissCount;
+
+    /**
+     * @param maxLayouts - maximum number of layouts kept, the least recently used one is evicted first
+     */
+    public TextLayoutCache(int maxLayouts) {
+        mLayouts = new LruCache<>(maxLayouts);
+    }
+
+    /**
+     * @return maximum number of layouts kept
+     */
+    public int maxSize() {
+        return mLayouts.maxSize();
+    }
+
+    /**
+     * Builds the layout of a text if it is not cached yet.
+     *
+     * @param text  - text to lay out
+     * @param paint - paint of the text
+     * @param width - width available to the text in pixels
+     */
+    @WorkerThread
+    public void precompute(CharSequence text, TextPaint paint, int width) {
+        precompute(text, paint, paint, width);
+    }
+
+    /**
+     * Builds the layout of a text with a copy of its paint if it is not cached yet. The layout is cached for the
+     * original paint, so the main thread finds it, while the background thread never uses a paint the main thread
+     * draws with.
+     *
+     * @param text        - text to lay out
+     * @param paint       - paint of the text, the key of the layout
+     * @param layoutPaint - copy of the paint owned by the calling thread, kept by the layout
+     * @param width       - width available to the text in pixels
+     */
+    @WorkerThread
+    public void precompute(CharSequence text, TextPaint paint, TextPaint layoutPaint, int width) {
+        final Key key = new Key();
+        key.set(text, paint, width);
+        if (mLayouts.get(key) == null) {
+            mLayouts.put(key, createLayout(text, layoutPaint, width));
+        }
+    }
+
+    /**
+     * Returns the cached layout of a text, or builds and caches it on a miss.
+     *
+     * @param text  - text to lay out
+     * @param paint - paint of the text
+     * @param width - width available to the text in pixels
+     * @return layout of the text
+     */
+    @MainThread
+    public Layout get(CharSequence text, TextPaint paint, int width) {
+        mLookupKey.set(text, paint, width);
+        Layout layout = mLayouts.get(mLookupKey);
+        mLookupKey.set(null, null, 0);
+        if (layout != null) {
+            mHitCount++;
+            return layout;
+        }
+        mMissCount++;
+        layout = createLayout(text, paint, width);
+        final Key key = new Key();
+        key.set(text, paint, width);
+        mLayouts.put(key, layout);
+        return layout;
+    }
+
+    /**
+     * @return cached layout of a text, null if it is not cached
+     */
+    @MainThread
+    @Nullable
+    public Layout peek(CharSequence text, TextPaint paint, int width) {
+        mLookupKey.set(text, paint, width);
+        final Layout layout = mLayouts.get(mLookupKey);
+        mLookupKey.set(null, null, 0);
+        return layout;
+    }
+
+    public int getHitCount() {
+        return mHitCount;
+    }
+
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Drops all cached layouts.
+     */
+    public void clear() {
+        mLayouts.evictAll();
+    }
+
+    public void logStats() {
+        LOG.d("Text layouts cached= %d/%d, hits= %d, misses= %d, evictions= %d",
+                mLayouts.size(), mLayouts.maxSize(), mHitCount, mMissCount, mLayouts.evictionCount());
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Layout createLayout(CharSequence text, TextPaint paint, int width) {
+        return new StaticLayout(text, paint, Math.max(0, width), Layout.Alignment.ALIGN_NORMAL, 1f, 0f, false);
+    }
+
+    private static final class Key {
+        CharSequence mText;
+        TextPaint mPaint;
+        int mWidth;
+        int mHash;
+
+        void set(CharSequence text, TextPaint paint, int width) {
+            mText = text;
+            mPaint = paint;
+            mWidth = width;
+            mHash = text == null ? 0 : 31 * (31 * text.hashCode() + System.identityHashCode(paint)) + width;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return mWidth == other.mWidth && mPaint == other.mPaint
+                    && (mText == null ? other.mText == null : mText.equals(other.mText));
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+    }
+}
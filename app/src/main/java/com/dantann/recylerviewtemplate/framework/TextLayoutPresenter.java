@@ -0,0 +1,44 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.text.TextPaint;
+
+/**
+ * {@link ViewHolderPresenter} that declares the text fields of its rows, so their layouts can be precomputed
+ * into a {@link TextLayoutCache} on a background thread when data arrives.
+ * All methods are called on a background thread.
+ *
+ * @param <M> model type
+ */
+public interface TextLayoutPresenter<M> extends ViewHolderPresenter<M> {
+
+    /**
+     * @return number of text fields in a row
+     */
+    @WorkerThread
+    int getTextFieldCount();
+
+    /**
+     * @param model - model of the row
+     * @param field - index of the text field
+     * @return text of the field, null if the field is empty
+     */
+    @WorkerThread
+    @Nullable
+    CharSequence getText(M model, int field);
+
+    /**
+     * @param field - index of the text field
+     * @return paint of the field, the same instance is expected for every call
+     */
+    @WorkerThread
+    TextPaint getTextPaint(int field);
+
+    /**
+     * @param field - index of the text field
+     * @return width available to the field in pixels
+     */
+    @WorkerThread
+    int getTextWidth(int field);
+}
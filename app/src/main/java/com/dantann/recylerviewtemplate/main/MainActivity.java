@@ -7,6 +7,7 @@ import android.view.Menu;
 import android.view.MenuItem;
 
 import com.dantann.recylerviewtemplate.R;
+import com.dantann.recylerviewtemplate.framework.BaseApplication;
 
 import butterknife.Bind;
 import butterknife.ButterKnife;
@@ -21,6 +22,9 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
         ButterKnife.bind(this);
+        BaseApplication application = (BaseApplication) getApplication();
+        application.trackFirstLayout(recyclerView);
+        application.getIdleWorkScheduler().attach(recyclerView);
 
 
         //TODO: Setup recyclerView
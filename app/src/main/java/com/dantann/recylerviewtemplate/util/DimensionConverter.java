@@ -0,0 +1,116 @@
+package com.dantann.recylerviewtemplate.util;
+
+/**
+ * Converts dp and sp to pixels with a snapshot of the display density and font scale, so a conversion is a
+ * multiplication instead of a lookup of the display metrics.
+ * <p>
+ * Conversions to pixel sizes and offsets round like {@link android.content.res.Resources#getDimensionPixelSize(int)}
+ * and {@link android.content.res.Resources#getDimensionPixelOffset(int)}. A converter is immutable and does not
+ * follow configuration changes, get the current one from
+ * {@link ResourceUtils#getConverter(android.content.res.Resources)} instead of keeping it across a configuration change.
+ */
+public final class DimensionConverter {
+
+    private final float mDensity;
+    private final float mScaledDensity;
+
+    /**
+     * @param density       - pixels per dp, {@link android.util.DisplayMetrics#density}
+     * @param scaledDensity - pixels per sp, {@link android.util.DisplayMetrics#scaledDensity}
+     */
+    public DimensionConverter(float density, float scaledDensity) {
+        mDensity = density;
+        mScaledDensity = scaledDensity;
+    }
+
+    public float getDensity() {
+        return mDensity;
+    }
+
+    public float getScaledDensity() {
+        return mScaledDensity;
+    }
+
+    /**
+     * @return true if the converter was created for the density and font scale
+     */
+    public boolean matches(float density, float scaledDensity) {
+        return mDensity == density && mScaledDensity == scaledDensity;
+    }
+
+    public float dpToPx(float dp) {
+        return dp * mDensity;
+    }
+
+    /**
+     * @return pixels rounded to the nearest integer, at least one pixel for a dimension that is not 0
+     */
+    public int dpToPxSize(float dp) {
+        return toSize(dp, dp * mDensity);
+    }
+
+    /**
+     * @return pixels truncated towards 0
+     */
+    public int dpToPxOffset(float dp) {
+        return (int) (dp * mDensity);
+    }
+
+    public float spToPx(float sp) {
+        return sp * mScaledDensity;
+    }
+
+    /**
+     * @return pixels rounded to the nearest integer, at least one pixel for a dimension that is not 0
+     */
+    public int spToPxSize(float sp) {
+        return toSize(sp, sp * mScaledDensity);
+    }
+
+    public float pxToDp(float px) {
+        return px / mDensity;
+    }
+
+    public float pxToSp(float px) {
+        return px / mScaledDensity;
+    }
+
+    /**
+     * Converts a table of dp dimensions at once, e.g. the spacings of a screen when it is created.
+     *
+     * @param dps - dimensions in dp
+     * @return pixel sizes of the dimensions, see {@link #dpToPxSize(float)}
+     */
+    public int[] dpToPxSizes(float... dps) {
+        final int[] sizes = new int[dps.length];
+        dpToPxSizes(dps, sizes);
+        return sizes;
+    }
+
+    /**
+     * @param dps - dimensions in dp
+     * @param out - receives the pixel sizes of the dimensions, at least as long as {@code dps}
+     */
+    public void dpToPxSizes(float[] dps, int[] out) {
+        if (out.length < dps.length) {
+            throw new IllegalArgumentException("out.length " + out.length + " < dps.length " + dps.length);
+        }
+        for (int i = 0; i < dps.length; i++) {
+            out[i] = dpToPxSize(dps[i]);
+        }
+    }
+
+    /**
+     * Same rounding as {@link android.util.TypedValue#complexToDimensionPixelSize(int, android.util.DisplayMetrics)}
+     */
+    private static int toSize(float value, float px) {
+        final int size = (int) (px >= 0 ? px + 0.5f : px - 0.5f);
+        if (size != 0) {
+            return size;
+        }
+        if (value == 0) {
+            return 0;
+        }
+        return value > 0 ? 1 : -1;
+    }
+}
@@ -16,343 +16,399 @@ package com.dantann.recylerviewtemplate.util;
  * limitations under the License.
  */
 
-import android.graphics.Color;
+import android.support.annotation.ColorInt;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.dantann.recylerviewtemplate.util.Preconditions.checkNotNull;
 
 /**
  * Random color generator from the new Material Design Color Palette,
  * http://www.google.com/design/spec/style/color.html#color-ui-color-palette
+ * <p>
+ * The colors are stored as ints grouped by hue and shade, picking a color does not parse or allocate.
+ * {@link #colorForKey(String)} always returns the same color for the same key, e.g. for the avatar of a user.
+ * Subsets of the palette, such as only the 500 shades or only colors that white text is readable on,
+ * are created once with {@link #withShades(int...)}, {@link #withHues(int...)} and {@link #withContrast(int, double)}.
+ * Palettes are immutable and thread safe.
  *
  * @author Mostafa Gazar <eng.mostafa.gazar@gmail.com>
  */
-public class MaterialColorPalette {
-
-    private static List<String> mMaterialColors = new ArrayList<String>();
-
-    static {
-        // Red
-        // mMaterialColors.add("#e51c23");
-        mMaterialColors.add("#fde0dc");
-        mMaterialColors.add("#f9bdbb");
-        mMaterialColors.add("#f69988");
-        mMaterialColors.add("#f36c60");
-        mMaterialColors.add("#e84e40");
-        mMaterialColors.add("#e51c23");
-        mMaterialColors.add("#dd191d");
-        mMaterialColors.add("#d01716");
-        mMaterialColors.add("#c41411");
-        mMaterialColors.add("#b0120a");
-        mMaterialColors.add("#ff7997");
-        mMaterialColors.add("#ff5177");
-        mMaterialColors.add("#ff2d6f");
-        mMaterialColors.add("#e00032");
-
-        // Pink
-        // mMaterialColors.add("#e91e63");
-        mMaterialColors.add("#fce4ec");
-        mMaterialColors.add("#f8bbd0");
-        mMaterialColors.add("#f48fb1");
-        mMaterialColors.add("#f06292");
-        mMaterialColors.add("#ec407a");
-        mMaterialColors.add("#e91e63");
-        mMaterialColors.add("#d81b60");
-        mMaterialColors.add("#c2185b");
-        mMaterialColors.add("#ad1457");
-        mMaterialColors.add("#880e4f");
-        mMaterialColors.add("#ff80ab");
-        mMaterialColors.add("#ff4081");
-        mMaterialColors.add("#f50057");
-        mMaterialColors.add("#c51162");
-
-        // Purple
-        // mMaterialColors.add("#9c27b0");
-        mMaterialColors.add("#f3e5f5");
-        mMaterialColors.add("#e1bee7");
-        mMaterialColors.add("#ce93d8");
-        mMaterialColors.add("#ba68c8");
-        mMaterialColors.add("#ab47bc");
-        mMaterialColors.add("#9c27b0");
-        mMaterialColors.add("#8e24aa");
-        mMaterialColors.add("#7b1fa2");
-        mMaterialColors.add("#6a1b9a");
-        mMaterialColors.add("#4a148c");
-        mMaterialColors.add("#ea80fc");
-        mMaterialColors.add("#e040fb");
-        mMaterialColors.add("#d500f9");
-        mMaterialColors.add("#aa00ff");
-
-        // Deep Purple
-        // mMaterialColors.add("#673ab7");
-        mMaterialColors.add("#ede7f6");
-        mMaterialColors.add("#d1c4e9");
-        mMaterialColors.add("#b39ddb");
-        mMaterialColors.add("#9575cd");
-        mMaterialColors.add("#7e57c2");
-        mMaterialColors.add("#673ab7");
-        mMaterialColors.add("#5e35b1");
-        mMaterialColors.add("#512da8");
-        mMaterialColors.add("#4527a0");
-        mMaterialColors.add("#311b92");
-        mMaterialColors.add("#b388ff");
-        mMaterialColors.add("#7c4dff");
-        mMaterialColors.add("#651fff");
-        mMaterialColors.add("#6200ea");
-
-        // Indigo
-        // mMaterialColors.add("#3f51b5");
-        mMaterialColors.add("#e8eaf6");
-        mMaterialColors.add("#c5cae9");
-        mMaterialColors.add("#9fa8da");
-        mMaterialColors.add("#7986cb");
-        mMaterialColors.add("#5c6bc0");
-        mMaterialColors.add("#3f51b5");
-        mMaterialColors.add("#3949ab");
-        mMaterialColors.add("#303f9f");
-        mMaterialColors.add("#283593");
-        mMaterialColors.add("#1a237e");
-        mMaterialColors.add("#8c9eff");
-        mMaterialColors.add("#536dfe");
-        mMaterialColors.add("#3d5afe");
-        mMaterialColors.add("#304ffe");
-
-        // Blue
-        // mMaterialColors.add("#5677fc");
-        mMaterialColors.add("#e7e9fd");
-        mMaterialColors.add("#d0d9ff");
-        mMaterialColors.add("#afbfff");
-        mMaterialColors.add("#91a7ff");
-        mMaterialColors.add("#738ffe");
-        mMaterialColors.add("#5677fc");
-        mMaterialColors.add("#4e6cef");
-        mMaterialColors.add("#455ede");
-        mMaterialColors.add("#3b50ce");
-        mMaterialColors.add("#2a36b1");
-        mMaterialColors.add("#a6baff");
-        mMaterialColors.add("#6889ff");
-        mMaterialColors.add("#4d73ff");
-        mMaterialColors.add("#4d69ff");
-
-        // Light Blue
-        // mMaterialColors.add("#03a9f4");
-        mMaterialColors.add("#e1f5fe");
-        mMaterialColors.add("#b3e5fc");
-        mMaterialColors.add("#81d4fa");
-        mMaterialColors.add("#4fc3f7");
-        mMaterialColors.add("#29b6f6");
-        mMaterialColors.add("#03a9f4");
-        mMaterialColors.add("#039be5");
-        mMaterialColors.add("#0288d1");
-        mMaterialColors.add("#0277bd");
-        mMaterialColors.add("#01579b");
-        mMaterialColors.add("#80d8ff");
-        mMaterialColors.add("#40c4ff");
-        mMaterialColors.add("#00b0ff");
-        mMaterialColors.add("#0091ea");
-
-        // Cyan
-        // mMaterialColors.add("#00bcd4");
-        mMaterialColors.add("#e0f7fa");
-        mMaterialColors.add("#b2ebf2");
-        mMaterialColors.add("#80deea");
-        mMaterialColors.add("#4dd0e1");
-        mMaterialColors.add("#26c6da");
-        mMaterialColors.add("#00bcd4");
-        mMaterialColors.add("#00acc1");
-        mMaterialColors.add("#0097a7");
-        mMaterialColors.add("#00838f");
-        mMaterialColors.add("#006064");
-        mMaterialColors.add("#84ffff");
-        mMaterialColors.add("#18ffff");
-        mMaterialColors.add("#00e5ff");
-        mMaterialColors.add("#00b8d4");
-
-        // Teal
-        // mMaterialColors.add("#009688");
-        mMaterialColors.add("#e0f2f1");
-        mMaterialColors.add("#b2dfdb");
-        mMaterialColors.add("#80cbc4");
-        mMaterialColors.add("#4db6ac");
-        mMaterialColors.add("#26a69a");
-        mMaterialColors.add("#009688");
-        mMaterialColors.add("#00897b");
-        mMaterialColors.add("#00796b");
-        mMaterialColors.add("#00695c");
-        mMaterialColors.add("#004d40");
-        mMaterialColors.add("#a7ffeb");
-        mMaterialColors.add("#64ffda");
-        mMaterialColors.add("#1de9b6");
-        mMaterialColors.add("#00bfa5");
-
-        // Green
-        // mMaterialColors.add("#259b24");
-        mMaterialColors.add("#d0f8ce");
-        mMaterialColors.add("#a3e9a4");
-        mMaterialColors.add("#72d572");
-        mMaterialColors.add("#42bd41");
-        mMaterialColors.add("#2baf2b");
-        mMaterialColors.add("#259b24");
-        mMaterialColors.add("#0a8f08");
-        mMaterialColors.add("#0a7e07");
-        mMaterialColors.add("#056f00");
-        mMaterialColors.add("#0d5302");
-        mMaterialColors.add("#a2f78d");
-        mMaterialColors.add("#5af158");
-        mMaterialColors.add("#14e715");
-        mMaterialColors.add("#12c700");
-
-        // Light Green
-        // mMaterialColors.add("#8bc34a");
-        mMaterialColors.add("#f1f8e9");
-        mMaterialColors.add("#dcedc8");
-        mMaterialColors.add("#c5e1a5");
-        mMaterialColors.add("#aed581");
-        mMaterialColors.add("#9ccc65");
-        mMaterialColors.add("#8bc34a");
-        mMaterialColors.add("#7cb342");
-        mMaterialColors.add("#689f38");
-        mMaterialColors.add("#558b2f");
-        mMaterialColors.add("#33691e");
-        mMaterialColors.add("#ccff90");
-        mMaterialColors.add("#b2ff59");
-        mMaterialColors.add("#76ff03");
-        mMaterialColors.add("#64dd17");
-
-        // Lime
-        // mMaterialColors.add("#cddc39");
-        mMaterialColors.add("#f9fbe7");
-        mMaterialColors.add("#f0f4c3");
-        mMaterialColors.add("#e6ee9c");
-        mMaterialColors.add("#dce775");
-        mMaterialColors.add("#d4e157");
-        mMaterialColors.add("#cddc39");
-        mMaterialColors.add("#c0ca33");
-        mMaterialColors.add("#afb42b");
-        mMaterialColors.add("#9e9d24");
-        mMaterialColors.add("#827717");
-        mMaterialColors.add("#f4ff81");
-        mMaterialColors.add("#eeff41");
-        mMaterialColors.add("#c6ff00");
-        mMaterialColors.add("#aeea00");
-
-        // Yellow
-        // mMaterialColors.add("#ffeb3b");
-        mMaterialColors.add("#fffde7");
-        mMaterialColors.add("#fff9c4");
-        mMaterialColors.add("#fff59d");
-        mMaterialColors.add("#fff176");
-        mMaterialColors.add("#ffee58");
-        mMaterialColors.add("#ffeb3b");
-        mMaterialColors.add("#fdd835");
-        mMaterialColors.add("#fbc02d");
-        mMaterialColors.add("#f9a825");
-        mMaterialColors.add("#f57f17");
-        mMaterialColors.add("#ffff8d");
-        mMaterialColors.add("#ffff00");
-        mMaterialColors.add("#ffea00");
-        mMaterialColors.add("#ffd600");
-
-        // Amber
-        // mMaterialColors.add("#ffc107");
-        mMaterialColors.add("#fff8e1");
-        mMaterialColors.add("#ffecb3");
-        mMaterialColors.add("#ffe082");
-        mMaterialColors.add("#ffd54f");
-        mMaterialColors.add("#ffca28");
-        mMaterialColors.add("#ffc107");
-        mMaterialColors.add("#ffb300");
-        mMaterialColors.add("#ffa000");
-        mMaterialColors.add("#ff8f00");
-        mMaterialColors.add("#ff6f00");
-        mMaterialColors.add("#ffe57f");
-        mMaterialColors.add("#ffd740");
-        mMaterialColors.add("#ffc400");
-        mMaterialColors.add("#ffab00");
-
-        // Orange
-        // mMaterialColors.add("#ff9800");
-        mMaterialColors.add("#fff3e0");
-        mMaterialColors.add("#ffe0b2");
-        mMaterialColors.add("#ffcc80");
-        mMaterialColors.add("#ffb74d");
-        mMaterialColors.add("#ffa726");
-        mMaterialColors.add("#ff9800");
-        mMaterialColors.add("#fb8c00");
-        mMaterialColors.add("#f57c00");
-        mMaterialColors.add("#ef6c00");
-        mMaterialColors.add("#e65100");
-        mMaterialColors.add("#ffd180");
-        mMaterialColors.add("#ffab40");
-        mMaterialColors.add("#ff9100");
-        mMaterialColors.add("#ff6d00");
-
-        // Deep Orange
-        // mMaterialColors.add("#ff5722");
-        mMaterialColors.add("#fbe9e7");
-        mMaterialColors.add("#ffccbc");
-        mMaterialColors.add("#ffab91");
-        mMaterialColors.add("#ff8a65");
-        mMaterialColors.add("#ff7043");
-        mMaterialColors.add("#ff5722");
-        mMaterialColors.add("#f4511e");
-        mMaterialColors.add("#e64a19");
-        mMaterialColors.add("#d84315");
-        mMaterialColors.add("#bf360c");
-        mMaterialColors.add("#ff9e80");
-        mMaterialColors.add("#ff6e40");
-        mMaterialColors.add("#ff3d00");
-        mMaterialColors.add("#dd2c00");
-
-        // Brown
-        // mMaterialColors.add("#795548");
-        mMaterialColors.add("#efebe9");
-        mMaterialColors.add("#d7ccc8");
-        mMaterialColors.add("#bcaaa4");
-        mMaterialColors.add("#a1887f");
-        mMaterialColors.add("#8d6e63");
-        mMaterialColors.add("#795548");
-        mMaterialColors.add("#6d4c41");
-        mMaterialColors.add("#5d4037");
-        mMaterialColors.add("#4e342e");
-        mMaterialColors.add("#3e2723");
-
-        // Grey
-        // mMaterialColors.add("#9e9e9e");
-        mMaterialColors.add("#fafafa");
-        mMaterialColors.add("#f5f5f5");
-        mMaterialColors.add("#eeeeee");
-        mMaterialColors.add("#e0e0e0");
-        mMaterialColors.add("#bdbdbd");
-        mMaterialColors.add("#9e9e9e");
-        mMaterialColors.add("#757575");
-        mMaterialColors.add("#616161");
-        mMaterialColors.add("#424242");
-        mMaterialColors.add("#212121");
-        mMaterialColors.add("#000000");
-        mMaterialColors.add("#ffffff");
-
-        // Blue Grey
-        // mMaterialColors.add("#607d8b");
-        mMaterialColors.add("#eceff1");
-        mMaterialColors.add("#cfd8dc");
-        mMaterialColors.add("#b0bec5");
-        mMaterialColors.add("#90a4ae");
-        mMaterialColors.add("#78909c");
-        mMaterialColors.add("#607d8b");
-        mMaterialColors.add("#546e7a");
-        mMaterialColors.add("#455a64");
-        mMaterialColors.add("#37474f");
-        mMaterialColors.add("#263238");
+public final class MaterialColorPalette {
+
+    public static final int HUE_RED = 0;
+    public static final int HUE_PINK = 1;
+    public static final int HUE_PURPLE = 2;
+    public static final int HUE_DEEP_PURPLE = 3;
+    public static final int HUE_INDIGO = 4;
+    public static final int HUE_BLUE = 5;
+    public static final int HUE_LIGHT_BLUE = 6;
+    public static final int HUE_CYAN = 7;
+    public static final int HUE_TEAL = 8;
+    public static final int HUE_GREEN = 9;
+    public static final int HUE_LIGHT_GREEN = 10;
+    public static final int HUE_LIME = 11;
+    public static final int HUE_YELLOW = 12;
+    public static final int HUE_AMBER = 13;
+    public static final int HUE_ORANGE = 14;
+    public static final int HUE_DEEP_ORANGE = 15;
+    public static final int HUE_BROWN = 16;
+    public static final int HUE_GREY = 17;
+    public static final int HUE_BLUE_GREY = 18;
+    /**
+     * Black and white, which have no shades
+     */
+    public static final int HUE_BLACK_AND_WHITE = 19;
+
+    public static final int SHADE_NONE = -1;
+    public static final int SHADE_50 = 0;
+    public static final int SHADE_100 = 1;
+    public static final int SHADE_200 = 2;
+    public static final int SHADE_300 = 3;
+    public static final int SHADE_400 = 4;
+    public static final int SHADE_500 = 5;
+    public static final int SHADE_600 = 6;
+    public static final int SHADE_700 = 7;
+    public static final int SHADE_800 = 8;
+    public static final int SHADE_900 = 9;
+    public static final int SHADE_A100 = 10;
+    public static final int SHADE_A200 = 11;
+    public static final int SHADE_A400 = 12;
+    public static final int SHADE_A700 = 13;
+
+    /**
+     * Minimum contrast ratio of normal text recommended by WCAG 2.0
+     */
+    public static final double MIN_TEXT_CONTRAST = 4.5;
+
+    /**
+     * Colors of each hue, indexed by shade. Brown, grey and blue grey have no accent shades.
+     */
+    private static final int[][] COLORS_BY_HUE = {
+            // Red
+            {0xfffde0dc, 0xfff9bdbb, 0xfff69988, 0xfff36c60, 0xffe84e40,
+                    0xffe51c23, 0xffdd191d, 0xffd01716, 0xffc41411, 0xffb0120a,
+                    0xffff7997, 0xffff5177, 0xffff2d6f, 0xffe00032},
+            // Pink
+            {0xfffce4ec, 0xfff8bbd0, 0xfff48fb1, 0xfff06292, 0xffec407a,
+                    0xffe91e63, 0xffd81b60, 0xffc2185b, 0xffad1457, 0xff880e4f,
+                    0xffff80ab, 0xffff4081, 0xfff50057, 0xffc51162},
+            // Purple
+            {0xfff3e5f5, 0xffe1bee7, 0xffce93d8, 0xffba68c8, 0xffab47bc,
+                    0xff9c27b0, 0xff8e24aa, 0xff7b1fa2, 0xff6a1b9a, 0xff4a148c,
+                    0xffea80fc, 0xffe040fb, 0xffd500f9, 0xffaa00ff},
+            // Deep Purple
+            {0xffede7f6, 0xffd1c4e9, 0xffb39ddb, 0xff9575cd, 0xff7e57c2,
+                    0xff673ab7, 0xff5e35b1, 0xff512da8, 0xff4527a0, 0xff311b92,
+                    0xffb388ff, 0xff7c4dff, 0xff651fff, 0xff6200ea},
+            // Indigo
+            {0xffe8eaf6, 0xffc5cae9, 0xff9fa8da, 0xff7986cb, 0xff5c6bc0,
+                    0xff3f51b5, 0xff3949ab, 0xff303f9f, 0xff283593, 0xff1a237e,
+                    0xff8c9eff, 0xff536dfe, 0xff3d5afe, 0xff304ffe},
+            // Blue
+            {0xffe7e9fd, 0xffd0d9ff, 0xffafbfff, 0xff91a7ff, 0xff738ffe,
+                    0xff5677fc, 0xff4e6cef, 0xff455ede, 0xff3b50ce, 0xff2a36b1,
+                    0xffa6baff, 0xff6889ff, 0xff4d73ff, 0xff4d69ff},
+            // Light Blue
+            {0xffe1f5fe, 0xffb3e5fc, 0xff81d4fa, 0xff4fc3f7, 0xff29b6f6,
+                    0xff03a9f4, 0xff039be5, 0xff0288d1, 0xff0277bd, 0xff01579b,
+                    0xff80d8ff, 0xff40c4ff, 0xff00b0ff, 0xff0091ea},
+            // Cyan
+            {0xffe0f7fa, 0xffb2ebf2, 0xff80deea, 0xff4dd0e1, 0xff26c6da,
+                    0xff00bcd4, 0xff00acc1, 0xff0097a7, 0xff00838f, 0xff006064,
+                    0xff84ffff, 0xff18ffff, 0xff00e5ff, 0xff00b8d4},
+            // Teal
+            {0xffe0f2f1, 0xffb2dfdb, 0xff80cbc4, 0xff4db6ac, 0xff26a69a,
+                    0xff009688, 0xff00897b, 0xff00796b, 0xff00695c, 0xff004d40,
+                    0xffa7ffeb, 0xff64ffda, 0xff1de9b6, 0xff00bfa5},
+            // Green
+            {0xffd0f8ce, 0xffa3e9a4, 0xff72d572, 0xff42bd41, 0xff2baf2b,
+                    0xff259b24, 0xff0a8f08, 0xff0a7e07, 0xff056f00, 0xff0d5302,
+                    0xffa2f78d, 0xff5af158, 0xff14e715, 0xff12c700},
+            // Light Green
+            {0xfff1f8e9, 0xffdcedc8, 0xffc5e1a5, 0xffaed581, 0xff9ccc65,
+                    0xff8bc34a, 0xff7cb342, 0xff689f38, 0xff558b2f, 0xff33691e,
+                    0xffccff90, 0xffb2ff59, 0xff76ff03, 0xff64dd17},
+            // Lime
+            {0xfff9fbe7, 0xfff0f4c3, 0xffe6ee9c, 0xffdce775, 0xffd4e157,
+                    0xffcddc39, 0xffc0ca33, 0xffafb42b, 0xff9e9d24, 0xff827717,
+                    0xfff4ff81, 0xffeeff41, 0xffc6ff00, 0xffaeea00},
+            // Yellow
+            {0xfffffde7, 0xfffff9c4, 0xfffff59d, 0xfffff176, 0xffffee58,
+                    0xffffeb3b, 0xfffdd835, 0xfffbc02d, 0xfff9a825, 0xfff57f17,
+                    0xffffff8d, 0xffffff00, 0xffffea00, 0xffffd600},
+            // Amber
+            {0xfffff8e1, 0xffffecb3, 0xffffe082, 0xffffd54f, 0xffffca28,
+                    0xffffc107, 0xffffb300, 0xffffa000, 0xffff8f00, 0xffff6f00,
+                    0xffffe57f, 0xffffd740, 0xffffc400, 0xffffab00},
+            // Orange
+            {0xfffff3e0, 0xffffe0b2, 0xffffcc80, 0xffffb74d, 0xffffa726,
+                    0xffff9800, 0xfffb8c00, 0xfff57c00, 0xffef6c00, 0xffe65100,
+                    0xffffd180, 0xffffab40, 0xffff9100, 0xffff6d00},
+            // Deep Orange
+            {0xfffbe9e7, 0xffffccbc, 0xffffab91, 0xffff8a65, 0xffff7043,
+                    0xffff5722, 0xfff4511e, 0xffe64a19, 0xffd84315, 0xffbf360c,
+                    0xffff9e80, 0xffff6e40, 0xffff3d00, 0xffdd2c00},
+            // Brown
+            {0xffefebe9, 0xffd7ccc8, 0xffbcaaa4, 0xffa1887f, 0xff8d6e63,
+                    0xff795548, 0xff6d4c41, 0xff5d4037, 0xff4e342e, 0xff3e2723},
+            // Grey
+            {0xfffafafa, 0xfff5f5f5, 0xffeeeeee, 0xffe0e0e0, 0xffbdbdbd,
+                    0xff9e9e9e, 0xff757575, 0xff616161, 0xff424242, 0xff212121},
+            // Blue Grey
+            {0xffeceff1, 0xffcfd8dc, 0xffb0bec5, 0xff90a4ae, 0xff78909c,
+                    0xff607d8b, 0xff546e7a, 0xff455a64, 0xff37474f, 0xff263238}
+    };
+
+    private static final int[] BLACK_AND_WHITE = {0xff000000, 0xffffffff};
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
 
+    /**
+     * State of the random generator shared by all threads, advanced without locking
+     */
+    private static final AtomicLong sRandomState = new AtomicLong(System.nanoTime());
+
+    private static final MaterialColorPalette DEFAULT = createDefault();
+
+    private final int[] mColors;
+    private final int[] mHues;
+    private final int[] mShades;
+
+    private MaterialColorPalette(int[] colors, int[] hues, int[] shades) {
+        mColors = colors;
+        mHues = hues;
+        mShades = shades;
     }
 
+    /**
+     * @return palette of all colors
+     */
+    public static MaterialColorPalette getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return random color of the whole palette
+     */
+    @ColorInt
     public static int randomColor() {
-        Random randomGenerator = new Random();
-        int randomIndex = randomGenerator.nextInt(mMaterialColors.size());
+        return DEFAULT.nextColor();
+    }
+
+    /**
+     * @param key - key, e.g. the name of a user
+     * @return color of the whole palette that is always the same for the key
+     */
+    @ColorInt
+    public static int colorForKey(String key) {
+        return DEFAULT.colorFor(key);
+    }
+
+    /**
+     * @param key - key, e.g. the id of a user
+     * @return color of the whole palette that is always the same for the key
+     */
+    @ColorInt
+    public static int colorForKey(long key) {
+        return DEFAULT.colorFor(key);
+    }
+
+    /**
+     * @param hue   - one of the HUE constants
+     * @param shade - one of the SHADE constants
+     * @return the color of the hue and shade
+     * @throws IllegalArgumentException if the hue does not have the shade
+     */
+    @ColorInt
+    public static int getColor(int hue, int shade) {
+        if (hue == HUE_BLACK_AND_WHITE || hue < 0 || hue >= COLORS_BY_HUE.length
+                || shade < 0 || shade >= COLORS_BY_HUE[hue].length) {
+            throw new IllegalArgumentException("No color of hue " + hue + " and shade " + shade);
+        }
+        return COLORS_BY_HUE[hue][shade];
+    }
+
+    /**
+     * @return number of colors of the palette
+     */
+    public int size() {
+        return mColors.length;
+    }
+
+    @ColorInt
+    public int getColorAt(int index) {
+        return mColors[index];
+    }
+
+    /**
+     * @return copy of the colors of the palette
+     */
+    public int[] getColors() {
+        return mColors.clone();
+    }
 
-        return Color.parseColor(mMaterialColors.get(randomIndex));
+    /**
+     * @return random color of the palette
+     */
+    @ColorInt
+    public int nextColor() {
+        return mColors[index(mix(sRandomState.addAndGet(GOLDEN_GAMMA)))];
     }
 
+    /**
+     * Returns the color of a key. The color of a key is the same across runs, but differs between palettes.
+     *
+     * @param key - key, e.g. the name of a user. The hash of a string is cached by the string,
+     *            so using the same instance again does not hash it again
+     * @return color of the palette that is always the same for the key
+     */
+    @ColorInt
+    public int colorFor(String key) {
+        return colorFor((long) checkNotNull(key, "key == null").hashCode());
+    }
+
+    /**
+     * @param key - key, e.g. the id of a user
+     * @return color of the palette that is always the same for the key
+     */
+    @ColorInt
+    public int colorFor(long key) {
+        return mColors[index(mix(key))];
+    }
+
+    /**
+     * @param shades - SHADE constants to keep
+     * @return palette of the colors of this palette with one of the shades
+     */
+    public MaterialColorPalette withShades(int... shades) {
+        final boolean[] keep = new boolean[mColors.length];
+        for (int i = 0; i < mColors.length; i++) {
+            keep[i] = contains(shades, mShades[i]);
+        }
+        return filter(keep);
+    }
+
+    /**
+     * @param hues - HUE constants to keep
+     * @return palette of the colors of this palette with one of the hues
+     */
+    public MaterialColorPalette withHues(int... hues) {
+        final boolean[] keep = new boolean[mColors.length];
+        for (int i = 0; i < mColors.length; i++) {
+            keep[i] = contains(hues, mHues[i]);
+        }
+        return filter(keep);
+    }
+
+    /**
+     * @param foreground  - color drawn on the colors, e.g. the text color
+     * @param minContrast - minimum contrast ratio, e.g. {@link #MIN_TEXT_CONTRAST}
+     * @return palette of the colors of this palette that have enough contrast with the foreground color
+     */
+    public MaterialColorPalette withContrast(@ColorInt int foreground, double minContrast) {
+        final boolean[] keep = new boolean[mColors.length];
+        for (int i = 0; i < mColors.length; i++) {
+            keep[i] = contrastRatio(mColors[i], foreground) >= minContrast;
+        }
+        return filter(keep);
+    }
+
+    /**
+     * @return contrast ratio of two opaque colors as defined by WCAG 2.0, from 1 to 21
+     */
+    public static double contrastRatio(@ColorInt int color1, @ColorInt int color2) {
+        final double luminance1 = luminance(color1);
+        final double luminance2 = luminance(color2);
+        return (Math.max(luminance1, luminance2) + 0.05) / (Math.min(luminance1, luminance2) + 0.05);
+    }
+
+    /**
+     * @return relative luminance of an opaque color as defined by WCAG 2.0, from 0 for black to 1 for white
+     */
+    public static double luminance(@ColorInt int color) {
+        return 0.2126 * linearChannel((color >> 16) & 0xff)
+                + 0.7152 * linearChannel((color >> 8) & 0xff)
+                + 0.0722 * linearChannel(color & 0xff);
+    }
+
+    private static double linearChannel(int channel) {
+        final double value = channel / 255.0;
+        return value <= 0.03928 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
+    }
+
+    private MaterialColorPalette filter(boolean[] keep) {
+        int count = 0;
+        for (boolean kept : keep) {
+            if (kept) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("No color matches the filter");
+        }
+        final int[] colors = new int[count];
+        final int[] hues = new int[count];
+        final int[] shades = new int[count];
+        for (int i = 0, j = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                colors[j] = mColors[i];
+                hues[j] = mHues[i];
+                shades[j] = mShades[i];
+                j++;
+            }
+        }
+        return new MaterialColorPalette(colors, hues, shades);
+    }
+
+    /**
+     * Maps a random 64 bit value to an index of the palette, without the bias of a modulo of small values.
+     */
+    private int index(long random) {
+        return (int) (((random >>> 32) * mColors.length) >>> 32);
+    }
+
+    /**
+     * Finalizer of SplitMix64, spreads the bits of keys that differ little, such as sequential ids.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int candidate : values) {
+            if (candidate == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static MaterialColorPalette createDefault() {
+        int count = BLACK_AND_WHITE.length;
+        for (int[] shades : COLORS_BY_HUE) {
+            count += shades.length;
+        }
+        final int[] colors = new int[count];
+        final int[] hues = new int[count];
+        final int[] shades = new int[count];
+        int index = 0;
+        for (int hue = 0; hue < COLORS_BY_HUE.length; hue++) {
+            for (int shade = 0; shade < COLORS_BY_HUE[hue].length; shade++) {
+                colors[index] = COLORS_BY_HUE[hue][shade];
+                hues[index] = hue;
+                shades[index] = shade;
+                index++;
+            }
+        }
+        for (int color : BLACK_AND_WHITE) {
+            colors[index] = color;
+            hues[index] = HUE_BLACK_AND_WHITE;
+            shades[index] = SHADE_NONE;
+            index++;
+        }
+        return new MaterialColorPalette(colors, hues, shades);
+    }
 }
@@ -48,4 +48,57 @@ public final class Preconditions {
 
         return reference;
     }
+
+    /**
+     * Ensures that an object reference passed as a parameter to the calling method is not null.
+     * The exception message is only built if the check fails, so no string is concatenated or
+     * argument boxed on success.
+     *
+     * @param reference            an object reference
+     * @param errorMessageTemplate a template for the exception message, the argument is substituted for {@code %s}
+     * @param p1                   argument to be substituted into the message template
+     * @return the non-null reference that was validated
+     * @throws NullPointerException if {@code reference} is null
+     */
+    public static <T> T checkNotNull(T reference, String errorMessageTemplate, int p1) {
+        if (reference == null) {
+            throw new NullPointerException(format(errorMessageTemplate, p1));
+        }
+
+        return reference;
+    }
+
+    /**
+     * Substitutes each {@code %s} in {@code template} with an argument. Unlike {@link String#format},
+     * only {@code %s} is supported and unmatched arguments are appended in square brackets.
+     */
+    static String format(String template, Object... args) {
+        template = String.valueOf(template);
+
+        StringBuilder builder = new StringBuilder(template.length() + 16 * args.length);
+        int templateStart = 0;
+        int i = 0;
+        while (i < args.length) {
+            int placeholderStart = template.indexOf("%s", templateStart);
+            if (placeholderStart == -1) {
+                break;
+            }
+            builder.append(template, templateStart, placeholderStart);
+            builder.append(args[i++]);
+            templateStart = placeholderStart + 2;
+        }
+        builder.append(template, templateStart, template.length());
+
+        if (i < args.length) {
+            builder.append(" [");
+            builder.append(args[i++]);
+            while (i < args.length) {
+                builder.append(", ");
+                builder.append(args[i++]);
+            }
+            builder.append(']');
+        }
+
+        return builder.toString();
+    }
 }
@@ -2,11 +2,82 @@ package com.dantann.recylerviewtemplate.util;
 
 
 import android.content.res.Resources;
-import android.util.TypedValue;
+import android.support.annotation.VisibleForTesting;
+import android.util.DisplayMetrics;
 
 public class ResourceUtils {
 
+    /**
+     * Converter of the current display metrics of the application, replaced when they change
+     */
+    private static volatile DimensionConverter sConverter;
+
+    /**
+     * Converts with the display metrics of the given resources. The shared converter is used if it matches them,
+     * otherwise the density of the resources is used directly.
+     *
+     * @param resources - resources of the application or of an activity
+     * @param dp        - dimension in dp
+     * @return pixels
+     */
     public static float convertDpToPx(Resources resources, float dp) {
-        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dp, resources.getDisplayMetrics());
+        final DisplayMetrics metrics = resources.getDisplayMetrics();
+        final DimensionConverter converter = sConverter;
+        if (converter != null && converter.matches(metrics.density, metrics.scaledDensity)) {
+            return converter.dpToPx(dp);
+        }
+        return dp * metrics.density;
+    }
+
+    /**
+     * Returns a unit converter of the display metrics of the given resources. The converter of the application's
+     * metrics is shared and replaced after {@link #onConfigurationChanged(Resources)} reported a change of the
+     * density or font scale. Resources with other metrics, e.g. of an activity with an override configuration or
+     * read before the application was told about a change, get a converter of their own.
+     *
+     * @param resources - resources of the application or of an activity
+     * @return {@link DimensionConverter}
+     */
+    public static DimensionConverter getConverter(Resources resources) {
+        final DisplayMetrics metrics = resources.getDisplayMetrics();
+        return getConverter(metrics.density, metrics.scaledDensity);
+    }
+
+    /**
+     * Replaces the converter if the density or font scale changed, called by the application on every
+     * configuration change.
+     *
+     * @param resources - resources of the application
+     */
+    public static void onConfigurationChanged(Resources resources) {
+        final DisplayMetrics metrics = resources.getDisplayMetrics();
+        updateConverter(metrics.density, metrics.scaledDensity);
+    }
+
+    @VisibleForTesting
+    static DimensionConverter getConverter(float density, float scaledDensity) {
+        final DimensionConverter converter = sConverter;
+        if (converter == null) {
+            return updateConverter(density, scaledDensity);
+        }
+        if (converter.matches(density, scaledDensity)) {
+            return converter;
+        }
+        return new DimensionConverter(density, scaledDensity);
+    }
+
+    @VisibleForTesting
+    static DimensionConverter updateConverter(float density, float scaledDensity) {
+        DimensionConverter converter = sConverter;
+        if (converter == null || !converter.matches(density, scaledDensity)) {
+            converter = new DimensionConverter(density, scaledDensity);
+            sConverter = converter;
+        }
+        return converter;
+    }
+
+    @VisibleForTesting
+    static void resetConverter() {
+        sConverter = null;
     }
 }
@@ -0,0 +1,199 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class AppInitializerTest {
+
+    /**
+     * Main thread tasks are run by start and require in these tests
+     */
+    private static final Executor IGNORING_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+        }
+    };
+
+    private ExecutorService mBackgroundExecutor;
+    private AppInitializer mInitializer;
+    private List<String> mRan;
+
+    @Before
+    public void setUp() throws Exception {
+        mBackgroundExecutor = Executors.newFixedThreadPool(4);
+        mInitializer = new AppInitializer(null, new StartupTimeline(System.nanoTime()), mBackgroundExecutor,
+                IGNORING_EXECUTOR);
+        mRan = new CopyOnWriteArrayList<>();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mBackgroundExecutor.shutdownNow();
+    }
+
+    @Test
+    public void start_runsDependenciesFirst() throws Exception {
+        mInitializer.add(new RecordingTask("network", false, false));
+        mInitializer.add(new RecordingTask("analytics", false, false, "network"));
+        mInitializer.add(new RecordingTask("ui", true, false, "analytics"));
+
+        mInitializer.start();
+
+        // the main thread task completes before start returns, so all of its dependencies did
+        assertEquals(3, mRan.size());
+        assertTrue(mRan.indexOf("network") < mRan.indexOf("analytics"));
+        assertTrue(mRan.indexOf("analytics") < mRan.indexOf("ui"));
+    }
+
+    @Test
+    public void start_runsIndependentTasksInParallel() throws Exception {
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+        for (String name : new String[]{"first", "second"}) {
+            mInitializer.add(new InitTask(name) {
+                @Override
+                protected void onInitialize(Context context) throws Exception {
+                    bothRunning.countDown();
+                    assertTrue(bothRunning.await(1, TimeUnit.SECONDS));
+                }
+            });
+        }
+
+        mInitializer.start();
+        mInitializer.require("first");
+        mInitializer.require("second");
+
+        assertEquals(null, mInitializer.getFailure("first"));
+        assertEquals(null, mInitializer.getFailure("second"));
+    }
+
+    @Test
+    public void deferredTask_notRunByStart() throws Exception {
+        mInitializer.add(new RecordingTask("lazy", false, true));
+        mInitializer.add(new RecordingTask("lazyMain", true, true, "lazy"));
+
+        mInitializer.start();
+        mBackgroundExecutor.shutdown();
+        mBackgroundExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        assertTrue(mRan.isEmpty());
+    }
+
+    @Test
+    public void require_runsDeferredTaskAndDependencies() throws Exception {
+        mInitializer.add(new RecordingTask("lazy", false, true));
+        mInitializer.add(new RecordingTask("lazyMain", true, true, "lazy"));
+
+        mInitializer.start();
+        mInitializer.require("lazyMain");
+
+        assertEquals(2, mRan.size());
+        assertTrue(mInitializer.isCompleted("lazy"));
+        assertTrue(mInitializer.isCompleted("lazyMain"));
+    }
+
+    @Test
+    public void deferredDependencyOfEagerTask_isNotDeferred() throws Exception {
+        mInitializer.add(new RecordingTask("lazy", false, true));
+        mInitializer.add(new RecordingTask("eager", true, false, "lazy"));
+
+        mInitializer.start();
+
+        assertEquals(2, mRan.size());
+    }
+
+    @Test
+    public void failedTask_stillRunsDependents() throws Exception {
+        mInitializer.add(new InitTask("failing") {
+            @Override
+            protected void onInitialize(Context context) throws Exception {
+                throw new IllegalStateException("expected");
+            }
+        });
+        mInitializer.add(new RecordingTask("dependent", true, false, "failing"));
+
+        mInitializer.start();
+
+        assertNotNull(mInitializer.getFailure("failing"));
+        assertEquals(Collections.singletonList("dependent"), mRan);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void start_rejectsCycles() throws Exception {
+        mInitializer.add(new RecordingTask("a", false, false, "b"));
+        mInitializer.add(new RecordingTask("b", false, false, "a"));
+
+        mInitializer.start();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void start_rejectsMissingDependency() throws Exception {
+        mInitializer.add(new RecordingTask("a", false, false, "missing"));
+
+        mInitializer.start();
+    }
+
+    @Test
+    public void mainThreadTasks_runOnStartingThread() throws Exception {
+        final Thread thread = Thread.currentThread();
+        final boolean[] onStartingThread = new boolean[1];
+        mInitializer.add(new RecordingTask("background", false, false));
+        mInitializer.add(new InitTask("main", "background") {
+            @Override
+            public boolean requiresMainThread() {
+                return true;
+            }
+
+            @Override
+            protected void onInitialize(Context context) {
+                onStartingThread[0] = Thread.currentThread() == thread;
+            }
+        });
+
+        mInitializer.start();
+
+        assertTrue(onStartingThread[0]);
+        assertFalse(mInitializer.isCompleted("unknown"));
+    }
+
+    private class RecordingTask extends InitTask {
+        private final boolean mMainThread;
+        private final boolean mDeferrable;
+
+        RecordingTask(String name, boolean mainThread, boolean deferrable, String... dependencies) {
+            super(name, dependencies);
+            mMainThread = mainThread;
+            mDeferrable = deferrable;
+        }
+
+        @Override
+        public boolean requiresMainThread() {
+            return mMainThread;
+        }
+
+        @Override
+        public boolean isDeferrable() {
+            return mDeferrable;
+        }
+
+        @Override
+        protected void onInitialize(Context context) {
+            mRan.add(getName());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CallbackRegistryTest {
+
+    @Test
+    public void addAndRemove_keepCallbacksDense() throws Exception {
+        CallbackRegistry<String> registry = new CallbackRegistry<>();
+        String[] callbacks = new String[10];
+        for (int i = 0; i < callbacks.length; i++) {
+            callbacks[i] = "callback" + i;
+            assertTrue(registry.add(callbacks[i]));
+        }
+        assertFalse(registry.add(callbacks[3]));
+
+        assertTrue(registry.remove(callbacks[0]));
+        assertTrue(registry.remove(callbacks[5]));
+        assertFalse(registry.remove(callbacks[5]));
+
+        List<Object> dispatched = collect(registry);
+        assertEquals(8, registry.size());
+        assertEquals(8, dispatched.size());
+        assertFalse(dispatched.contains(callbacks[0]));
+        assertFalse(dispatched.contains(callbacks[5]));
+    }
+
+    @Test
+    public void changesDuringDispatch_applyToNextDispatch() throws Exception {
+        CallbackRegistry<String> registry = new CallbackRegistry<>();
+        registry.add("a");
+        registry.add("b");
+        registry.add("c");
+
+        List<Object> dispatched = new ArrayList<>();
+        Object[] callbacks = registry.beginDispatch();
+        for (Object callback : callbacks) {
+            if (callback == null) {
+                break;
+            }
+            dispatched.add(callback);
+            if ("a".equals(callback)) {
+                registry.remove("a");
+                registry.add("d");
+            }
+        }
+        registry.endDispatch();
+
+        assertEquals(3, dispatched.size());
+        List<Object> next = collect(registry);
+        assertEquals(3, next.size());
+        assertTrue(next.contains("d"));
+        assertFalse(next.contains("a"));
+    }
+
+    @Test
+    public void dispatch_doesNotAllocate() throws Exception {
+        CallbackRegistry<String> registry = new CallbackRegistry<>();
+        for (int i = 0; i < 16; i++) {
+            registry.add("callback" + i);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        int count = 0;
+        for (int warmUp = 0; warmUp < 10000; warmUp++) {
+            count += dispatchCount(registry);
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10000; i++) {
+            count += dispatchCount(registry);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(count > 0);
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    private static int dispatchCount(CallbackRegistry<String> registry) {
+        int count = 0;
+        Object[] callbacks = registry.beginDispatch();
+        for (Object callback : callbacks) {
+            if (callback == null) {
+                break;
+            }
+            count++;
+        }
+        registry.endDispatch();
+        return count;
+    }
+
+    private static List<Object> collect(CallbackRegistry<String> registry) {
+        List<Object> result = new ArrayList<>();
+        Object[] callbacks = registry.beginDispatch();
+        for (Object callback : callbacks) {
+            if (callback == null) {
+                break;
+            }
+            result.add(callback);
+        }
+        registry.endDispatch();
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local {@link PageLoader} that generates items for a data set of a given size and counts the loaded pages.
+ */
+public class FakePageLoader implements PageLoader<String> {
+
+    private final int mTotalCount;
+    private int mLoadCount;
+
+    public FakePageLoader(int totalCount) {
+        mTotalCount = totalCount;
+    }
+
+    @Override
+    public Page<String> loadPage(int pageIndex, int pageSize) throws Exception {
+        mLoadCount++;
+        final int start = pageIndex * pageSize;
+        final int end = Math.min(mTotalCount, start + pageSize);
+        List<String> items = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            items.add("Item " + i);
+        }
+        return new Page<>(items, mTotalCount);
+    }
+
+    public int getLoadCount() {
+        return mLoadCount;
+    }
+}
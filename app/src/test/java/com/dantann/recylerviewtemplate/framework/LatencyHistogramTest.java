@@ -0,0 +1,64 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsAreContiguous() throws Exception {
+        int previous = -1;
+        for (long value = 0; value < 1 << 16; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index == previous || index == previous + 1);
+            assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+            previous = index;
+        }
+    }
+
+    @Test
+    public void percentiles_withinBucketPrecision() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 10000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10000000, histogram.getMaxNanos());
+        assertWithinPrecision(5000000, histogram.getPercentileNanos(50));
+        assertWithinPrecision(9500000, histogram.getPercentileNanos(95));
+        assertWithinPrecision(9900000, histogram.getPercentileNanos(99));
+        assertEquals(10000000, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void reset_clearsValues() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(123);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(50));
+    }
+
+    @Test
+    public void metrics_recordPerViewTypeAndPhase() throws Exception {
+        PresenterMetrics metrics = new PresenterMetrics();
+        metrics.record(1000, PresenterMetrics.PHASE_BIND, 10);
+        metrics.record(2, PresenterMetrics.PHASE_BIND, 20);
+        metrics.record(2, PresenterMetrics.PHASE_CREATE, 30);
+
+        assertEquals(1, metrics.getHistogram(1000, PresenterMetrics.PHASE_BIND).getCount());
+        assertEquals(1, metrics.getHistogram(2, PresenterMetrics.PHASE_CREATE).getCount());
+        assertEquals(0, metrics.getHistogram(2, PresenterMetrics.PHASE_RECYCLE).getCount());
+        assertEquals(2, metrics.getViewTypes()[0]);
+        assertEquals(1000, metrics.getViewTypes()[1]);
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue("expected " + expected + " but was " + actual, error <= 1d / LatencyHistogram.SUB_BUCKETS);
+    }
+}
@@ -0,0 +1,279 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ListDifferTest {
+
+    @Test
+    public void emptyLists_noUpdates() throws Exception {
+        RecordingCallback recorder = dispatch(new ArrayList<Item>(), new ArrayList<Item>());
+        assertEquals(0, recorder.mEventCount);
+    }
+
+    @Test
+    public void insertionsAreBatched() throws Exception {
+        List<Item> oldList = items(0, 10);
+        List<Item> newList = new ArrayList<>(oldList);
+        newList.addAll(5, items(100, 3));
+
+        RecordingCallback recorder = dispatch(oldList, newList);
+        assertEquals(1, recorder.mEventCount);
+        assertEquals(3, recorder.mInserted);
+    }
+
+    @Test
+    public void removalsAreBatched() throws Exception {
+        List<Item> oldList = items(0, 10);
+        List<Item> newList = new ArrayList<>(oldList);
+        newList.subList(2, 6).clear();
+
+        RecordingCallback recorder = dispatch(oldList, newList);
+        assertEquals(1, recorder.mEventCount);
+        assertEquals(4, recorder.mRemoved);
+    }
+
+    @Test
+    public void contentChange_dispatchesChangeWithPayload() throws Exception {
+        List<Item> oldList = items(0, 10);
+        List<Item> newList = new ArrayList<>(oldList);
+        newList.set(4, new Item(4, 1));
+
+        RecordingCallback recorder = dispatch(oldList, newList);
+        assertEquals(1, recorder.mEventCount);
+        assertEquals(1, recorder.mChanged);
+        assertEquals(PAYLOAD, recorder.mLastPayload);
+    }
+
+    @Test
+    public void moveIsDetected() throws Exception {
+        List<Item> oldList = items(0, 10);
+        List<Item> newList = new ArrayList<>(oldList);
+        newList.add(8, newList.remove(1));
+
+        RecordingCallback recorder = dispatch(oldList, newList);
+        assertEquals(1, recorder.mMoved);
+        assertEquals(0, recorder.mInserted);
+        assertEquals(0, recorder.mRemoved);
+    }
+
+    @Test
+    public void randomEdits_applyToNewList() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            List<Item> oldList = items(0, random.nextInt(60));
+            List<Item> newList = mutate(oldList, random, 1 + random.nextInt(20));
+            dispatch(oldList, newList);
+        }
+    }
+
+    @Test
+    public void convertOldPositionToNew_followsKeptItems() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            List<Item> oldList = items(0, random.nextInt(60));
+            List<Item> newList = mutate(oldList, random, 1 + random.nextInt(20));
+            ListDiffer.DiffResult result = ListDiffer.calculateDiff(new ItemListCallback(oldList, newList));
+
+            Map<Integer, Integer> newPositions = new HashMap<>();
+            for (int position = 0; position < newList.size(); position++) {
+                newPositions.put(newList.get(position).mId, position);
+            }
+            for (int position = 0; position < oldList.size(); position++) {
+                Integer expected = newPositions.get(oldList.get(position).mId);
+                assertEquals(expected == null ? ListDiffer.DiffResult.NO_POSITION : expected.intValue(),
+                        result.convertOldPositionToNew(position));
+            }
+        }
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        for (int size : new int[]{1000, 10000, 100000}) {
+            Random random = new Random(size);
+            List<Item> oldList = items(0, size);
+            List<Item> newList = mutate(oldList, random, Math.max(10, size / 100));
+
+            long diffStart = System.nanoTime();
+            ListDiffer.DiffResult result = ListDiffer.calculateDiff(new ItemListCallback(oldList, newList));
+            long diffNanos = System.nanoTime() - diffStart;
+
+            // dispatching is the only part of a diff that runs on the main thread
+            RecordingCallback recorder = new RecordingCallback(oldList);
+            long dispatchStart = System.nanoTime();
+            result.dispatchUpdatesTo(recorder);
+            long dispatchNanos = System.nanoTime() - dispatchStart;
+
+            recorder.assertMatches(newList);
+            System.out.println(String.format("ListDiffer %d items: diff %.2f ms, main thread dispatch %.3f ms, %d events",
+                    size, diffNanos / 1e6, dispatchNanos / 1e6, recorder.mEventCount));
+        }
+    }
+
+    private static final Object PAYLOAD = new Object();
+
+    private static RecordingCallback dispatch(List<Item> oldList, List<Item> newList) {
+        ListDiffer.DiffResult result = ListDiffer.calculateDiff(new ItemListCallback(oldList, newList));
+        RecordingCallback recorder = new RecordingCallback(oldList);
+        result.dispatchUpdatesTo(recorder);
+        recorder.assertMatches(newList);
+        return recorder;
+    }
+
+    private static List<Item> items(int startId, int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(startId + i, 0));
+        }
+        return items;
+    }
+
+    private static List<Item> mutate(List<Item> list, Random random, int edits) {
+        List<Item> result = new ArrayList<>(list);
+        int nextId = 1000000;
+        for (int i = 0; i < edits; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 || result.isEmpty()) {
+                result.add(random.nextInt(result.size() + 1), new Item(nextId++, 0));
+            } else if (op == 1) {
+                result.remove(random.nextInt(result.size()));
+            } else if (op == 2) {
+                int index = random.nextInt(result.size());
+                result.set(index, new Item(result.get(index).mId, result.get(index).mVersion + 1));
+            } else {
+                Item item = result.remove(random.nextInt(result.size()));
+                result.add(random.nextInt(result.size() + 1), item);
+            }
+        }
+        return result;
+    }
+
+    private static final class Item {
+        final int mId;
+        final int mVersion;
+
+        Item(int id, int version) {
+            mId = id;
+            mVersion = version;
+        }
+    }
+
+    private static final class ItemListCallback extends ListDiffer.Callback {
+        private final List<Item> mOldList;
+        private final List<Item> mNewList;
+
+        ItemListCallback(List<Item> oldList, List<Item> newList) {
+            mOldList = oldList;
+            mNewList = newList;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldList.get(oldItemPosition).mId == mNewList.get(newItemPosition).mId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldList.get(oldItemPosition).mVersion == mNewList.get(newItemPosition).mVersion;
+        }
+
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return PAYLOAD;
+        }
+    }
+
+    /**
+     * Applies the dispatched updates to a copy of the old list, so the result can be compared to the new list.
+     * Positions that were inserted or changed are marked dirty, and must be exactly the new or changed items.
+     */
+    private static final class RecordingCallback implements ListDiffer.UpdateCallback {
+        private final Map<Integer, Integer> mOldVersions = new HashMap<>();
+        private final List<Integer> mIds = new ArrayList<>();
+        private final List<Boolean> mDirty = new ArrayList<>();
+        int mEventCount;
+        int mInserted;
+        int mRemoved;
+        int mMoved;
+        int mChanged;
+        Object mLastPayload;
+
+        RecordingCallback(List<Item> oldList) {
+            for (Item item : oldList) {
+                mOldVersions.put(item.mId, item.mVersion);
+                mIds.add(item.mId);
+                mDirty.add(false);
+            }
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            mEventCount++;
+            mInserted += count;
+            mIds.addAll(position, Collections.<Integer>nCopies(count, null));
+            mDirty.addAll(position, Collections.nCopies(count, true));
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            mEventCount++;
+            mRemoved += count;
+            mIds.subList(position, position + count).clear();
+            mDirty.subList(position, position + count).clear();
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            mEventCount++;
+            mMoved++;
+            mIds.add(toPosition, mIds.remove(fromPosition));
+            mDirty.add(toPosition, mDirty.remove(fromPosition));
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            mEventCount++;
+            mChanged += count;
+            mLastPayload = payload;
+            for (int i = position; i < position + count; i++) {
+                mDirty.set(i, true);
+            }
+        }
+
+        void assertMatches(List<Item> newList) {
+            assertEquals(newList.size(), mIds.size());
+            assertEquals(mIds.size(), mDirty.size());
+            for (int i = 0; i < newList.size(); i++) {
+                Item item = newList.get(i);
+                Integer id = mIds.get(i);
+                if (id == null) {
+                    assertFalse("inserted existing item " + item.mId + " at " + i,
+                            mOldVersions.containsKey(item.mId));
+                    continue;
+                }
+                assertEquals("id at " + i, item.mId, id.intValue());
+                boolean changed = mOldVersions.get(id) != item.mVersion;
+                assertEquals("changed at " + i, changed, mDirty.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.util.Log;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LogRingBufferTest {
+
+    private static final String TAG = "LogRingBufferTest";
+    private static final int BENCHMARK_LOGS = 1000000;
+
+    /**
+     * Plain drain threads, {@link AsyncTree#DEFAULT_THREAD_FACTORY} calls android.os.Process, which is not mocked
+     */
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, "AsyncTree");
+        }
+    };
+
+    @Test
+    public void capacity_isRoundedUpToPowerOfTwo() throws Exception {
+        assertEquals(8, new LogRingBuffer(5, LogRingBuffer.POLICY_DROP_NEWEST).capacity());
+        assertEquals(8, new LogRingBuffer(8, LogRingBuffer.POLICY_DROP_NEWEST).capacity());
+    }
+
+    @Test
+    public void drain_returnsRecordsInOrder() throws Exception {
+        LogRingBuffer buffer = new LogRingBuffer(4, LogRingBuffer.POLICY_DROP_NEWEST);
+        assertTrue(buffer.isEmpty());
+        for (int round = 0; round < 3; round++) {
+            buffer.offer(1, Log.DEBUG, "tag", "a" + round, null);
+            buffer.offer(2, Log.ERROR, null, "b" + round, null);
+            assertFalse(buffer.isEmpty());
+
+            List<String> messages = drain(buffer);
+            assertEquals(2, messages.size());
+            assertEquals("a" + round, messages.get(0));
+            assertEquals("b" + round, messages.get(1));
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    @Test
+    public void full_dropNewest_keepsOldestRecords() throws Exception {
+        LogRingBuffer buffer = new LogRingBuffer(4, LogRingBuffer.POLICY_DROP_NEWEST);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i < 4, buffer.offer(i, Log.DEBUG, "tag", "m" + i, null));
+        }
+        assertEquals(2, buffer.getDroppedCount());
+        List<String> messages = drain(buffer);
+        assertEquals(4, messages.size());
+        assertEquals("m0", messages.get(0));
+        assertEquals("m3", messages.get(3));
+    }
+
+    @Test
+    public void full_overwriteOldest_keepsNewestRecords() throws Exception {
+        LogRingBuffer buffer = new LogRingBuffer(4, LogRingBuffer.POLICY_OVERWRITE_OLDEST);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(buffer.offer(i, Log.DEBUG, "tag", "m" + i, null));
+        }
+        assertEquals(2, buffer.getDroppedCount());
+        List<String> messages = drain(buffer);
+        assertEquals(4, messages.size());
+        assertEquals("m2", messages.get(0));
+        assertEquals("m5", messages.get(3));
+    }
+
+    @Test
+    public void asyncTree_writesAllRecordsOfConcurrentThreads() throws Exception {
+        final AtomicLong written = new AtomicLong();
+        final AsyncTree tree = new AsyncTree(64, LogRingBuffer.POLICY_DROP_NEWEST, Log.VERBOSE,
+                new LogRingBuffer.Consumer() {
+                    @Override
+                    public void accept(long timeMillis, int priority, String tag, String message, Throwable t) {
+                        written.incrementAndGet();
+                    }
+                }, THREAD_FACTORY);
+        final int threads = 4;
+        final int logsPerThread = 10000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < logsPerThread; j++) {
+                        tree.log(Log.DEBUG, null, "message", null);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        assertTrue(tree.flush());
+
+        assertEquals(threads * logsPerThread, written.get() + tree.getDroppedCount());
+        assertEquals(written.get(), tree.getWrittenCount());
+        tree.close();
+    }
+
+    @Test
+    public void asyncTree_usesCallerClassTagWithoutExplicitTag() throws Exception {
+        final List<String> tags = new ArrayList<>();
+        final AsyncTree tree = new AsyncTree(8, LogRingBuffer.POLICY_DROP_NEWEST, Log.VERBOSE,
+                new LogRingBuffer.Consumer() {
+                    @Override
+                    public void accept(long timeMillis, int priority, String tag, String message, Throwable t) {
+                        synchronized (tags) {
+                            tags.add(tag);
+                        }
+                    }
+                }, THREAD_FACTORY);
+        tree.log(Log.DEBUG, null, "message", null);
+        tree.log(Log.DEBUG, "Explicit", "message", null);
+        new Runnable() {
+            @Override
+            public void run() {
+                tree.log(Log.DEBUG, null, "message", null);
+            }
+        }.run();
+        assertTrue(tree.flush());
+        tree.close();
+
+        assertEquals("LogRingBufferTest", tags.get(0));
+        assertEquals("Explicit", tags.get(1));
+        assertEquals("LogRingBufferTest", tags.get(2));
+    }
+
+    @Test
+    public void asyncTree_rejectsRecordsBelowMinPriority() throws Exception {
+        final List<Integer> priorities = new ArrayList<>();
+        AsyncTree tree = new AsyncTree(2, LogRingBuffer.POLICY_DROP_NEWEST, Log.INFO,
+                new LogRingBuffer.Consumer() {
+                    @Override
+                    public void accept(long timeMillis, int priority, String tag, String message, Throwable t) {
+                        synchronized (priorities) {
+                            priorities.add(priority);
+                        }
+                    }
+                }, THREAD_FACTORY);
+        assertFalse(tree.isLoggable(Log.DEBUG));
+        assertTrue(tree.isLoggable(Log.INFO));
+        for (int i = 0; i < 10; i++) {
+            tree.log(Log.DEBUG, TAG, "message", null);
+        }
+        tree.log(Log.WARN, TAG, "message", null);
+        assertTrue(tree.flush());
+        tree.close();
+
+        assertEquals(1, priorities.size());
+        assertEquals(Log.WARN, priorities.get(0).intValue());
+        assertEquals(0, tree.getDroppedCount());
+    }
+
+    /**
+     * Measures the cost of a tagged log call, as made by {@link Logger}, on the calling thread and the throughput
+     * of the drain thread, with a sink that does not write anywhere.
+     */
+    @Test
+    public void benchmark_asyncTree() throws Exception {
+        final AsyncTree tree = new AsyncTree(AsyncTree.DEFAULT_CAPACITY, LogRingBuffer.POLICY_DROP_NEWEST, Log.VERBOSE,
+                new LogRingBuffer.Consumer() {
+                    @Override
+                    public void accept(long timeMillis, int priority, String tag, String message, Throwable t) {
+                    }
+                }, THREAD_FACTORY);
+        // warm up
+        for (int i = 0; i < BENCHMARK_LOGS / 10; i++) {
+            tree.log(Log.DEBUG, TAG, "bind position", null);
+        }
+        tree.flush();
+
+        final long writtenBefore = tree.getWrittenCount();
+        final long droppedBefore = tree.getDroppedCount();
+        final long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_LOGS; i++) {
+            tree.log(Log.DEBUG, TAG, "bind position", null);
+        }
+        final long enqueued = System.nanoTime();
+        tree.flush();
+        final long drained = System.nanoTime();
+        tree.close();
+
+        final long written = tree.getWrittenCount() - writtenBefore;
+        System.out.println(String.format("AsyncTree: %.1f ns per call on the calling thread, %.0f logs/sec written,"
+                        + " %d of %d dropped", (enqueued - start) / (double) BENCHMARK_LOGS,
+                written * 1e9 / (drained - start), tree.getDroppedCount() - droppedBefore, BENCHMARK_LOGS));
+        assertEquals(BENCHMARK_LOGS, written + tree.getDroppedCount() - droppedBefore);
+    }
+
+    private static List<String> drain(LogRingBuffer buffer) {
+        final List<String> messages = new ArrayList<>();
+        buffer.drainTo(new LogRingBuffer.Consumer() {
+            @Override
+            public void accept(long timeMillis, int priority, String tag, String message, Throwable t) {
+                messages.add(message);
+            }
+        }, Integer.MAX_VALUE);
+        return messages;
+    }
+}
@@ -0,0 +1,90 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.util.Log;
+
+import com.dantann.recylerviewtemplate.BuildConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import timber.log.Timber;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that verbose and debug calls through {@link Logger} are stripped from release builds, and measures a debug
+ * call when it is enabled or stripped, and when the minimum priority disables it. The unit tests run once per build
+ * type, {@code ./gradlew testReleaseUnitTest} reports the stripped case.
+ */
+public class LoggerStrippingTest {
+
+    private static final int CALL_COUNT = 1000000;
+
+    private static final Logger LOG = Logger.forClass(LoggerStrippingTest.class);
+
+    private CountingTree mTree;
+    private int mPreviousMinPriority;
+
+    @Before
+    public void setUp() throws Exception {
+        mPreviousMinPriority = Logger.getMinPriority();
+        mTree = new CountingTree();
+        Timber.plant(mTree);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Timber.uproot(mTree);
+        Logger.setMinPriority(mPreviousMinPriority);
+    }
+
+    @Test
+    public void debugCalls_areOnlyStrippedFromRelease() throws Exception {
+        Logger.setMinPriority(Log.VERBOSE);
+        LOG.v("Bound position %d", 1);
+        LOG.d("Bound position %d", 2);
+        LOG.i("Bound position %d", 3);
+
+        assertEquals(BuildConfig.LOG_DEBUG ? 3 : 1, mTree.mCount);
+        assertEquals(BuildConfig.LOG_DEBUG, LOG.isLoggable(Log.DEBUG));
+        assertEquals(true, LOG.isLoggable(Log.INFO));
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        Logger.setMinPriority(Log.VERBOSE);
+        // warm up
+        logDebug(CALL_COUNT / 10);
+        final long debugNanos = logDebug(CALL_COUNT);
+
+        Logger.setMinPriority(Log.INFO);
+        logDebug(CALL_COUNT / 10);
+        final long disabledNanos = logDebug(CALL_COUNT);
+
+        System.out.println(String.format("Logger: %s= %.1f ns/call, disabled= %.1f ns/call",
+                BuildConfig.LOG_DEBUG ? "enabled" : "stripped", debugNanos / (double) CALL_COUNT,
+                disabledNanos / (double) CALL_COUNT));
+        assertEquals(BuildConfig.LOG_DEBUG ? CALL_COUNT * 11 / 10 : 0, mTree.mCount);
+    }
+
+    private static long logDebug(int count) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            LOG.d("Bound position %d", i);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Counts the logs instead of writing them
+     */
+    private static class CountingTree extends Timber.Tree {
+        int mCount;
+
+        @Override
+        protected void log(int priority, String tag, String message, Throwable t) {
+            mCount++;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MappedLogSinkTest {
+
+    private static final int FILE_SIZE = 4096;
+    private static final int FILE_COUNT = 3;
+
+    private File mDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        mDirectory = new File(System.getProperty("java.io.tmpdir"), "MappedLogSinkTest-" + System.nanoTime());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        final File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mDirectory.delete();
+    }
+
+    @Test
+    public void export_decodesRecordsInOrder() throws Exception {
+        MappedLogSink sink = new MappedLogSink(mDirectory, Log.INFO, FILE_SIZE, FILE_COUNT);
+        sink.accept(0, Log.DEBUG, "Tag", "filtered", null);
+        sink.accept(0, Log.INFO, "Tag", "first", null);
+        sink.accept(0, Log.ERROR, null, "second \u00e9", null);
+
+        String[] lines = export();
+        assertEquals(2, lines.length);
+        assertTrue(lines[0], lines[0].endsWith(" I/Tag: first"));
+        assertTrue(lines[1], lines[1].endsWith(" E/: second \u00e9"));
+    }
+
+    @Test
+    public void rotation_boundsDiskUsageAndKeepsNewestRecords() throws Exception {
+        MappedLogSink sink = new MappedLogSink(mDirectory, Log.VERBOSE, FILE_SIZE, FILE_COUNT);
+        final int records = 1000;
+        for (int i = 0; i < records; i++) {
+            sink.accept(i, Log.INFO, "Tag", "record " + i, null);
+        }
+
+        assertEquals(FILE_COUNT, mDirectory.listFiles().length);
+        String[] lines = export();
+        assertTrue(lines.length < records);
+        assertTrue(lines[lines.length - 1], lines[lines.length - 1].endsWith("record " + (records - 1)));
+        for (int i = 1; i < lines.length; i++) {
+            assertEquals(recordNumber(lines[i - 1]) + 1, recordNumber(lines[i]));
+        }
+    }
+
+    @Test
+    public void newSink_continuesAfterPreviousFiles() throws Exception {
+        MappedLogSink sink = new MappedLogSink(mDirectory, Log.VERBOSE, FILE_SIZE, FILE_COUNT);
+        sink.accept(0, Log.INFO, "Tag", "record 0", null);
+        MappedLogSink next = new MappedLogSink(mDirectory, Log.VERBOSE, FILE_SIZE, FILE_COUNT);
+        next.accept(0, Log.INFO, "Tag", "record 1", null);
+
+        String[] lines = export();
+        assertEquals(2, lines.length);
+        assertEquals(0, recordNumber(lines[0]));
+        assertEquals(1, recordNumber(lines[1]));
+    }
+
+    @Test
+    public void export_stopsAtIncompleteRecord() throws Exception {
+        MappedLogSink sink = new MappedLogSink(mDirectory, Log.VERBOSE, FILE_SIZE, FILE_COUNT);
+        sink.accept(0, Log.INFO, "Tag", "record 0", null);
+        sink.accept(0, Log.INFO, "Tag", "record 1", null);
+
+        // a crash while writing the second record leaves its length unwritten
+        File file = mDirectory.listFiles()[0];
+        int secondRecord = MappedLogSink.HEADER_SIZE + MappedLogSink.RECORD_OVERHEAD + "Tag".length()
+                + "record 0".length();
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.seek(secondRecord);
+        randomAccessFile.writeInt(0);
+        randomAccessFile.close();
+
+        String[] lines = export();
+        assertEquals(1, lines.length);
+        assertEquals(0, recordNumber(lines[0]));
+    }
+
+    @Test
+    public void longMessage_isTruncatedToFileSize() throws Exception {
+        MappedLogSink sink = new MappedLogSink(mDirectory, Log.VERBOSE, FILE_SIZE, FILE_COUNT);
+        StringBuilder message = new StringBuilder();
+        while (message.length() < FILE_SIZE * 2) {
+            message.append("message ");
+        }
+        sink.accept(0, Log.INFO, "Tag", message.toString(), null);
+        sink.accept(0, Log.INFO, "Tag", "after", null);
+
+        String[] lines = export();
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].length() < FILE_SIZE);
+        assertTrue(lines[1].endsWith("after"));
+    }
+
+    /**
+     * Measures the records per second the sink writes, which bounds the sustained log rate of the tree.
+     */
+    @Test
+    public void benchmark_sink() throws Exception {
+        MappedLogSink sink = new MappedLogSink(mDirectory, Log.VERBOSE);
+        final int records = 200000;
+        final long start = System.nanoTime();
+        for (int i = 0; i < records; i++) {
+            sink.accept(i, Log.INFO, "MainActivity", "Bound item at position 42 with payload", null);
+        }
+        final long elapsed = System.nanoTime() - start;
+        System.out.println(String.format("MappedLogSink: %.0f records/sec, %.1f ns per record",
+                records * 1e9 / elapsed, elapsed / (double) records));
+    }
+
+    private String[] export() throws IOException {
+        StringWriter writer = new StringWriter();
+        int count = new MappedLogReader(mDirectory).export(writer);
+        String text = writer.toString();
+        String[] lines = text.isEmpty() ? new String[0] : text.split("\n");
+        assertEquals(count, lines.length);
+        return lines;
+    }
+
+    private static int recordNumber(String line) {
+        return Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1));
+    }
+}
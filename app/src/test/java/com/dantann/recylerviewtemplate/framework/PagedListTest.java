@@ -0,0 +1,220 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PagedListTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Runs loads when {@link #runAll()} is called, to control when pages arrive.
+     */
+    private final QueueExecutor mLoadExecutor = new QueueExecutor();
+
+    private final Executor mDirectExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void start_loadsFirstPageAndSize() throws Exception {
+        PagedList<String> list = create(new FakePageLoader(1000), 20, 5);
+        RecordingCallback callback = new RecordingCallback();
+        list.setCallback(callback);
+
+        list.start();
+        assertEquals(0, list.size());
+        mLoadExecutor.runAll();
+
+        assertEquals(1000, list.size());
+        assertEquals(1000, callback.mNewSize);
+        assertEquals("Item 19", list.get(19));
+        assertNull(list.get(20));
+        assertTrue(list.isPlaceholder(20));
+    }
+
+    @Test
+    public void loadAround_prefetchesWithinDistance() throws Exception {
+        FakePageLoader loader = new FakePageLoader(1000);
+        PagedList<String> list = create(loader, 20, 5);
+        list.start();
+        mLoadExecutor.runAll();
+
+        list.loadAround(15);
+        mLoadExecutor.runAll();
+
+        assertEquals("Item 39", list.get(39));
+        assertTrue(list.isPlaceholder(40));
+        assertEquals(2, loader.getLoadCount());
+
+        // already loaded and in-flight pages are not requested again
+        list.loadAround(15);
+        list.loadAround(15);
+        assertEquals(0, mLoadExecutor.size());
+    }
+
+    @Test
+    public void scrollingThroughLargeDataSet_keepsMemoryBounded() throws Exception {
+        int totalCount = 100000;
+        PagedList<String> list = create(new FakePageLoader(totalCount), 40, 5);
+        list.start();
+        mLoadExecutor.runAll();
+
+        for (int position = 0; position < totalCount; position += 7) {
+            list.loadAround(position);
+            mLoadExecutor.runAll();
+            assertFalse(list.isPlaceholder(position));
+            assertTrue(list.getLoadedPageCount() <= 5);
+        }
+        assertEquals("Item 99999", list.get(99999));
+    }
+
+    @Test
+    public void eviction_dropsFarthestPage() throws Exception {
+        RecordingCallback callback = new RecordingCallback();
+        PagedList<String> list = create(new FakePageLoader(1000), 0, 3);
+        list.setCallback(callback);
+        list.start();
+        mLoadExecutor.runAll();
+
+        list.loadAround(100);
+        mLoadExecutor.runAll();
+        list.loadAround(80);
+        mLoadExecutor.runAll();
+        list.loadAround(120);
+        mLoadExecutor.runAll();
+
+        // page 0 is the farthest from page 6
+        assertTrue(list.isPlaceholder(0));
+        assertFalse(list.isPlaceholder(80));
+        assertFalse(list.isPlaceholder(100));
+        assertFalse(list.isPlaceholder(120));
+        assertTrue(callback.mChangedStarts.contains(0));
+    }
+
+    @Test
+    public void stalePage_isDroppedWithoutEviction() throws Exception {
+        RecordingCallback callback = new RecordingCallback();
+        PagedList<String> list = create(new FakePageLoader(1000), 0, 3);
+        list.setCallback(callback);
+        list.start();
+        mLoadExecutor.runAll();
+        list.loadAround(20);
+        mLoadExecutor.runAll();
+        list.loadAround(40);
+        mLoadExecutor.runAll();
+
+        // page 5 arrives after the position moved back to page 2
+        list.loadAround(100);
+        list.loadAround(40);
+        callback.mChangedStarts.clear();
+        mLoadExecutor.runAll();
+
+        assertTrue(list.isPlaceholder(100));
+        assertFalse(list.isPlaceholder(0));
+        assertFalse(list.isPlaceholder(20));
+        assertFalse(list.isPlaceholder(40));
+        assertTrue(callback.mChangedStarts.isEmpty());
+    }
+
+    @Test
+    public void shortPage_endsWithPlaceholders() throws Exception {
+        PageLoader<String> loader = new PageLoader<String>() {
+            @Override
+            public Page<String> loadPage(int pageIndex, int pageSize) throws Exception {
+                List<String> items = new ArrayList<>();
+                items.add("Item");
+                return new Page<>(items, 30);
+            }
+        };
+        PagedList<String> list = create(loader, 0, 1);
+        list.start();
+        mLoadExecutor.runAll();
+
+        assertEquals("Item", list.peek(0));
+        assertFalse(list.isPlaceholder(0));
+        assertNull(list.get(1));
+        assertTrue(list.isPlaceholder(1));
+    }
+
+    @Test
+    public void failedLoad_isRetried() throws Exception {
+        final boolean[] fail = {true};
+        PageLoader<String> loader = new PageLoader<String>() {
+            @Override
+            public Page<String> loadPage(int pageIndex, int pageSize) throws Exception {
+                if (fail[0]) {
+                    throw new Exception("offline");
+                }
+                List<String> items = new ArrayList<>();
+                items.add("Item");
+                return new Page<>(items, 1);
+            }
+        };
+        PagedList<String> list = create(loader, 0, 1);
+        list.start();
+        mLoadExecutor.runAll();
+        assertEquals(0, list.size());
+
+        fail[0] = false;
+        list.loadAround(0);
+        mLoadExecutor.runAll();
+        assertEquals(1, list.size());
+        assertEquals("Item", list.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void config_mustCoverPrefetchDistance() throws Exception {
+        new PagedList.Config(PAGE_SIZE, 100, 3);
+    }
+
+    private PagedList<String> create(PageLoader<String> loader, int prefetchDistance, int maxPages) {
+        return new PagedList<>(loader, new PagedList.Config(PAGE_SIZE, prefetchDistance, maxPages),
+                mLoadExecutor, mDirectExecutor);
+    }
+
+    private static final class QueueExecutor implements Executor {
+        private final List<Runnable> mQueue = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mQueue.add(command);
+        }
+
+        int size() {
+            return mQueue.size();
+        }
+
+        void runAll() {
+            while (!mQueue.isEmpty()) {
+                mQueue.remove(0).run();
+            }
+        }
+    }
+
+    private static final class RecordingCallback implements PagedList.Callback {
+        int mNewSize;
+        final List<Integer> mChangedStarts = new ArrayList<>();
+
+        @Override
+        public void onSizeChanged(int oldSize, int newSize) {
+            mNewSize = newSize;
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            mChangedStarts.add(positionStart);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PresenterRegistryTest {
+
+    private static final int BIND_COUNT = 10000;
+    private static final int SPARSE_VIEW_TYPE = 5000;
+
+    @Test
+    public void directAndSparseViewTypes() throws Exception {
+        PresenterRegistry registry = new PresenterRegistry();
+        ViewHolderPresenter small = new FirstPresenter();
+        ViewHolderPresenter large = new SecondPresenter();
+        ViewHolderPresenter negative = new ThirdPresenter();
+        registry.put(3, small);
+        registry.put(1000000, large);
+        registry.put(-20, negative);
+
+        assertSame(small, registry.get(3));
+        assertSame(large, registry.get(1000000));
+        assertSame(negative, registry.get(-20));
+        assertNull(registry.get(4));
+        assertNull(registry.get(200));
+        assertNull(registry.get(999999));
+        assertEquals(3, registry.size());
+    }
+
+    @Test
+    public void register_assignsViewTypePerClass() throws Exception {
+        PresenterRegistry registry = new PresenterRegistry();
+        registry.put(0, new ThirdPresenter());
+
+        int first = registry.register(new FirstPresenter());
+        int second = registry.register(new SecondPresenter());
+        ViewHolderPresenter replacement = new FirstPresenter();
+        int firstAgain = registry.register(replacement);
+
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(first, firstAgain);
+        assertSame(replacement, registry.get(first));
+        assertEquals(second, registry.getViewType(SecondPresenter.class));
+        assertEquals(PresenterRegistry.INVALID_TYPE, registry.getViewType(ThirdPresenter.class));
+    }
+
+    @Test
+    public void getOrThrow_missingPresenter_messageContainsViewType() throws Exception {
+        PresenterRegistry registry = new PresenterRegistry();
+        try {
+            registry.getOrThrow(42);
+            fail("Expected NullPointerException");
+        } catch (NullPointerException e) {
+            assertTrue(e.getMessage().contains("ViewType= 42 "));
+        }
+    }
+
+    @Test
+    public void bindCycle_doesNotAllocate() throws Exception {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        BindingAdapter adapter = new BindingAdapter();
+        HolderPresenter directPresenter = new HolderPresenter();
+        HolderPresenter sparsePresenter = new HolderPresenter();
+        adapter.mDirectType = adapter.addPresenter(directPresenter);
+        adapter.addViewTypePresenter(SPARSE_VIEW_TYPE, sparsePresenter);
+
+        // warm up so class loading and interpretation do not show up in the measurement
+        for (int i = 0; i < 10; i++) {
+            bindCycles(adapter);
+        }
+
+        long baselineStart = threadBean.getThreadAllocatedBytes(threadId);
+        long baselineEnd = threadBean.getThreadAllocatedBytes(threadId);
+        long overhead = baselineEnd - baselineStart;
+
+        int bindsBefore = directPresenter.mBindCount + sparsePresenter.mBindCount;
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        bindCycles(adapter);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+
+        assertEquals(BIND_COUNT, directPresenter.mBindCount + sparsePresenter.mBindCount - bindsBefore);
+        assertEquals("bytes allocated for " + BIND_COUNT + " binds", 0, allocated);
+    }
+
+    /**
+     * Creates, binds and recycles a holder for every position, alternating a direct and a sparse view type.
+     */
+    private static void bindCycles(BindingAdapter adapter) {
+        for (int position = 0; position < BIND_COUNT; position++) {
+            BaseViewHolder holder = adapter.createViewHolder(null, adapter.getItemViewType(position));
+            adapter.onBindViewHolder(holder, position);
+            adapter.onViewRecycled(holder);
+        }
+    }
+
+    /**
+     * Adapter whose positions alternate between a directly indexed and a sparse view type.
+     */
+    private static final class BindingAdapter extends PresenterAdapter {
+        private final Object mModel = new Object();
+        int mDirectType;
+
+        @Nullable
+        @Override
+        public Object getDataForPosition(int position) {
+            return mModel;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return (position & 1) == 0 ? mDirectType : SPARSE_VIEW_TYPE;
+        }
+
+        @Override
+        public int getItemCount() {
+            return BIND_COUNT;
+        }
+    }
+
+    /**
+     * Hands out a single holder, so only the allocations of the adapter are measured.
+     */
+    private static final class HolderPresenter implements ViewHolderPresenter<Object> {
+        private final BaseViewHolder<Object> mHolder = new BaseViewHolder<>(new View(null));
+        int mBindCount;
+
+        @Override
+        public BaseViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return mHolder;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onBindViewHolder(BaseViewHolder holder, Object model) {
+            holder.setModel(model);
+            mBindCount++;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onUnbindViewHolder(BaseViewHolder holder) {
+            holder.setModel(null);
+        }
+    }
+
+    private static class FirstPresenter implements ViewHolderPresenter<Object> {
+        @Override
+        public BaseViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return null;
+        }
+
+        @Override
+        public void onBindViewHolder(BaseViewHolder holder, Object model) {
+        }
+
+        @Override
+        public void onUnbindViewHolder(BaseViewHolder holder) {
+        }
+    }
+
+    private static class SecondPresenter extends FirstPresenter {
+    }
+
+    private static class ThirdPresenter extends FirstPresenter {
+    }
+}
@@ -0,0 +1,61 @@
+package com.dantann.recylerviewtemplate.framework;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StartupTimelineTest {
+
+    @Test
+    public void mark_recordsMilestoneOnce() throws Exception {
+        StartupTimeline timeline = new StartupTimeline(System.nanoTime());
+
+        assertTrue(timeline.mark(StartupTimeline.FIRST_ACTIVITY_CREATED));
+        long start = timeline.find(StartupTimeline.FIRST_ACTIVITY_CREATED).getStartNanos();
+        assertFalse(timeline.mark(StartupTimeline.FIRST_ACTIVITY_CREATED));
+
+        assertEquals(start, timeline.find(StartupTimeline.FIRST_ACTIVITY_CREATED).getStartNanos());
+        assertFalse(timeline.find(StartupTimeline.FIRST_ACTIVITY_CREATED).isPhase());
+        assertNull(timeline.find(StartupTimeline.FIRST_FRAME_DRAWN));
+    }
+
+    @Test
+    public void trace_recordsPhaseDuration() throws Exception {
+        StartupTimeline timeline = new StartupTimeline(System.nanoTime());
+
+        timeline.trace("Sleep", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+
+        StartupTimeline.Event phase = timeline.find("Sleep");
+        assertTrue(phase.isPhase());
+        assertTrue(phase.getDurationNanos() >= 5000000);
+        assertEquals(Thread.currentThread().getName(), phase.getThreadName());
+    }
+
+    @Test
+    public void getEvents_orderedByStart() throws Exception {
+        long origin = System.nanoTime();
+        StartupTimeline timeline = new StartupTimeline(origin);
+
+        timeline.mark("Later");
+        timeline.addPhase("Earlier", origin + 1, origin + 2);
+
+        List<StartupTimeline.Event> events = timeline.getEvents();
+        assertEquals(StartupTimeline.PROCESS_START, events.get(0).getName());
+        assertEquals("Earlier", events.get(1).getName());
+        assertEquals("Later", events.get(2).getName());
+    }
+}
@@ -0,0 +1,84 @@
+package com.dantann.recylerviewtemplate.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class DimensionConverterTest {
+
+    @After
+    public void tearDown() throws Exception {
+        ResourceUtils.resetConverter();
+    }
+
+    @Test
+    public void dpToPx_roundsLikeResources() throws Exception {
+        DimensionConverter converter = new DimensionConverter(1.5f, 1.5f);
+        assertEquals(1.5f, converter.dpToPx(1), 0f);
+        assertEquals(2, converter.dpToPxSize(1));
+        assertEquals(1, converter.dpToPxOffset(1));
+        // a dimension that is not 0 is at least one pixel
+        assertEquals(1, converter.dpToPxSize(0.1f));
+        assertEquals(-1, converter.dpToPxSize(-0.1f));
+        assertEquals(0, converter.dpToPxSize(0));
+        assertEquals(-2, converter.dpToPxSize(-1));
+        assertEquals(10f, converter.pxToDp(15), 0f);
+    }
+
+    @Test
+    public void spToPx_usesFontScale() throws Exception {
+        DimensionConverter converter = new DimensionConverter(2f, 2.6f);
+        assertEquals(26f, converter.spToPx(10), 0.001f);
+        assertEquals(42, converter.spToPxSize(16));
+        assertEquals(10f, converter.pxToSp(26), 0.001f);
+    }
+
+    @Test
+    public void dpToPxSizes_convertsTable() throws Exception {
+        DimensionConverter converter = new DimensionConverter(3f, 3f);
+        assertArrayEquals(new int[]{0, 12, 24, 48}, converter.dpToPxSizes(0, 4, 8, 16));
+    }
+
+    @Test
+    public void converter_isKeptWhileDensityIsUnchanged() throws Exception {
+        DimensionConverter converter = ResourceUtils.updateConverter(2f, 2f);
+        assertSame(converter, ResourceUtils.updateConverter(2f, 2f));
+    }
+
+    @Test
+    public void converter_isReplacedOnDensityChange() throws Exception {
+        DimensionConverter converter = ResourceUtils.updateConverter(2f, 2f);
+        DimensionConverter changed = ResourceUtils.updateConverter(3f, 3f);
+
+        assertNotSame(converter, changed);
+        assertEquals(6, changed.dpToPxSize(2));
+        // converters taken before the change keep their snapshot
+        assertEquals(4, converter.dpToPxSize(2));
+    }
+
+    @Test
+    public void converter_isReplacedOnFontScaleChange() throws Exception {
+        DimensionConverter converter = ResourceUtils.updateConverter(2f, 2f);
+        DimensionConverter changed = ResourceUtils.updateConverter(2f, 2.6f);
+
+        assertNotSame(converter, changed);
+        assertEquals(converter.dpToPxSize(8), changed.dpToPxSize(8));
+        assertEquals(26, changed.spToPxSize(10));
+    }
+
+    @Test
+    public void converter_ofOtherMetrics_isNotShared() throws Exception {
+        DimensionConverter shared = ResourceUtils.getConverter(2f, 2f);
+        assertSame(shared, ResourceUtils.getConverter(2f, 2f));
+
+        DimensionConverter other = ResourceUtils.getConverter(3f, 3f);
+        assertNotSame(shared, other);
+        assertEquals(6, other.dpToPxSize(2));
+        // only a configuration change of the application replaces the shared converter
+        assertSame(shared, ResourceUtils.getConverter(2f, 2f));
+    }
+}
@@ -0,0 +1,118 @@
+package com.dantann.recylerviewtemplate.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MaterialColorPaletteTest {
+
+    private static final int BENCHMARK_CALLS = 1000000;
+    private static final int WHITE = 0xffffffff;
+
+    @Test
+    public void getColor_returnsColorOfHueAndShade() throws Exception {
+        assertEquals(0xffe91e63, MaterialColorPalette.getColor(MaterialColorPalette.HUE_PINK,
+                MaterialColorPalette.SHADE_500));
+        assertEquals(0xff263238, MaterialColorPalette.getColor(MaterialColorPalette.HUE_BLUE_GREY,
+                MaterialColorPalette.SHADE_900));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getColor_missingAccent_throws() throws Exception {
+        MaterialColorPalette.getColor(MaterialColorPalette.HUE_BROWN, MaterialColorPalette.SHADE_A100);
+    }
+
+    @Test
+    public void colorForKey_isDeterministic() throws Exception {
+        MaterialColorPalette palette = MaterialColorPalette.getDefault();
+        assertEquals(palette.colorFor("Ada Lovelace"), palette.colorFor(new String("Ada Lovelace")));
+        assertEquals(MaterialColorPalette.colorForKey(42L), MaterialColorPalette.colorForKey(42L));
+    }
+
+    @Test
+    public void colorForKey_spreadsSequentialIds() throws Exception {
+        MaterialColorPalette palette = MaterialColorPalette.getDefault().withShades(MaterialColorPalette.SHADE_500);
+        assertEquals(19, palette.size());
+        int[] counts = new int[palette.size()];
+        for (long id = 0; id < palette.size() * 100; id++) {
+            int color = palette.colorFor(id);
+            for (int i = 0; i < palette.size(); i++) {
+                if (palette.getColorAt(i) == color) {
+                    counts[i]++;
+                }
+            }
+        }
+        for (int count : counts) {
+            assertTrue("count " + count, count > 50 && count < 150);
+        }
+    }
+
+    @Test
+    public void filters_keepMatchingColors() throws Exception {
+        MaterialColorPalette palette = MaterialColorPalette.getDefault();
+        assertEquals(14 * 16 + 10 * 3 + 2, palette.size());
+
+        MaterialColorPalette blues = palette.withHues(MaterialColorPalette.HUE_BLUE, MaterialColorPalette.HUE_TEAL)
+                .withShades(MaterialColorPalette.SHADE_500, MaterialColorPalette.SHADE_700);
+        assertEquals(4, blues.size());
+
+        MaterialColorPalette readable = palette.withContrast(WHITE, MaterialColorPalette.MIN_TEXT_CONTRAST);
+        assertTrue(readable.size() > 0 && readable.size() < palette.size());
+        for (int color : readable.getColors()) {
+            assertTrue(MaterialColorPalette.contrastRatio(color, WHITE) >= MaterialColorPalette.MIN_TEXT_CONTRAST);
+        }
+    }
+
+    @Test
+    public void contrastRatio_ofBlackAndWhite() throws Exception {
+        assertEquals(21.0, MaterialColorPalette.contrastRatio(0xff000000, WHITE), 0.01);
+        assertEquals(1.0, MaterialColorPalette.contrastRatio(WHITE, WHITE), 0.0);
+    }
+
+    /**
+     * Compares picking colors with allocating a {@link Random} and parsing a hex string per call,
+     * as randomColor did before.
+     */
+    @Test
+    public void benchmark_pickColor() throws Exception {
+        final String[] hexColors = new String[MaterialColorPalette.getDefault().size()];
+        for (int i = 0; i < hexColors.length; i++) {
+            hexColors[i] = String.format("#%06x", MaterialColorPalette.getDefault().getColorAt(i) & 0xffffff);
+        }
+        final String[] keys = new String[1024];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "user" + i;
+        }
+        long sum = 0;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < BENCHMARK_CALLS; i++) {
+                String hex = hexColors[new Random().nextInt(hexColors.length)];
+                sum += (int) Long.parseLong(hex.substring(1), 16) | 0xff000000;
+            }
+            long parsingNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < BENCHMARK_CALLS; i++) {
+                sum += MaterialColorPalette.randomColor();
+            }
+            long randomNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < BENCHMARK_CALLS; i++) {
+                sum += MaterialColorPalette.colorForKey(keys[i & (keys.length - 1)]);
+            }
+            long keyNanos = System.nanoTime() - start;
+
+            if (round == 1) {
+                System.out.println(String.format("MaterialColorPalette: new Random + parse= %.1f ns, randomColor= %.1f ns,"
+                                + " colorForKey= %.1f ns (%d)", parsingNanos / (double) BENCHMARK_CALLS,
+                        randomNanos / (double) BENCHMARK_CALLS, keyNanos / (double) BENCHMARK_CALLS, sum));
+                assertTrue(randomNanos < parsingNanos);
+            }
+        }
+    }
+}